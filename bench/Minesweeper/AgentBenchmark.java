@@ -0,0 +1,75 @@
+package Minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for the agents' per-move hot paths on a half-played board.
+ * Every safe cell in the top-left quadrant is revealed before measuring.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgentBenchmark {
+    @Param({"10", "64", "256", "1024"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    private BasicAgent basicAgent;
+    private ModifiedAgent advancedAgent;
+    private int queryRow;
+    private int queryCol;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Environment env = new Environment(dim, (int)(density * dim * dim), new TrialRandom(42).boardRandom());
+        basicAgent = new BasicAgent(env.getBoardView());
+        advancedAgent = new ModifiedAgent(env.getBoardView());
+
+        // Reveal the safe cells of the top-left quadrant and remember the last one to query.
+        int half = Math.max(1, dim / 2);
+        for(int row = 0; row < half; row++) {
+            for(int col = 0; col < half; col++) {
+                if(env.getValue(row, col) >= 0) {
+                    basicAgent.selectCell(row, col);
+                    basicAgent.queryCell(row, col);
+                    advancedAgent.selectCell(row, col);
+                    advancedAgent.queryCell(row, col);
+                    queryRow = row;
+                    queryCol = col;
+                }
+            }
+        }
+        advancedAgent.updateAllKnownProbabilities();
+    }
+
+    @Benchmark
+    public BasicAgent basicQueryCell() {
+        basicAgent.queryCell(queryRow, queryCol);
+        return basicAgent;
+    }
+
+    @Benchmark
+    public ModifiedAgent advancedQueryCell() {
+        advancedAgent.queryCell(queryRow, queryCol);
+        return advancedAgent;
+    }
+
+    @Benchmark
+    public ModifiedAgent updateAllKnownProbabilities() {
+        advancedAgent.updateAllKnownProbabilities();
+        return advancedAgent;
+    }
+}
@@ -0,0 +1,33 @@
+package Minesweeper;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks and writes the results as JSON, so they can be compared between versions.
+ * The GC profiler is on, so the results also hold the bytes each benchmark allocates per operation.
+ * Usage: BenchmarkMain [output.json] [benchmark regex]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        String output = args.length > 0 ? args[0] : "jmh-result.json";
+        String include = args.length > 1 ? args[1] : "Minesweeper\\..*Benchmark\\..*";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output)
+                .build();
+
+        new Runner(options).run();
+    }
+}
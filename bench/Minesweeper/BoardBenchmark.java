@@ -0,0 +1,58 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark comparing the int[][] board and the packed board on large dims:
+ * generating one, and reading every space of one.
+ * The board's storage is the GC profiler's gc.alloc.rate.norm for generate().
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BoardBenchmark {
+    @Param({"1024", "4096"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private Board board;
+    private long seed = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        board = new Environment(dim, (int)(density * dim * dim), new SplittableRandom(42), packed).getBoardView();
+    }
+
+    @Benchmark
+    public Environment generate() {
+        return new Environment(dim, (int)(density * dim * dim), new SplittableRandom(seed++), packed);
+    }
+
+    @Benchmark
+    public long readAll() {
+        long checksum = 0;
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                checksum += board.getValue(row, col);
+            }
+        }
+        return checksum;
+    }
+}
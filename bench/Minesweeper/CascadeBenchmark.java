@@ -0,0 +1,68 @@
+package Minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for opening the zero region under a cell on a large, low-density board with one bulk cascade.
+ * Picks the first 0 in row-major order, so the region is the same from run to run.
+ * Each invocation starts from fresh agents, built outside the timing.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CascadeBenchmark {
+    @Param({"1024", "2048"})
+    public int dim;
+
+    @Param({"0.01"})
+    public double density;
+
+    private Board board;
+    private int start;
+    private BasicAgent basicAgent;
+    private ModifiedAgent advancedAgent;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Environment env = new Environment(dim, (int)(density * dim * dim), new TrialRandom(42).boardRandom(), true);
+        board = env.getBoardView();
+        start = -1;
+        for(int cell = 0; cell < dim * dim && start < 0; cell++) {
+            if(board.getValue(cell / dim, cell % dim) == 0) {
+                start = cell;
+            }
+        }
+        if(start < 0) {
+            throw new IllegalStateException("No 0 on the board.");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newAgents() {
+        basicAgent = new BasicAgent(board);
+        advancedAgent = new ModifiedAgent(board);
+    }
+
+    @Benchmark
+    public int basicCascade() {
+        return basicAgent.revealCascade(start / dim, start % dim);
+    }
+
+    @Benchmark
+    public int advancedCascade() {
+        int revealed = advancedAgent.revealCascade(start / dim, start % dim);
+        advancedAgent.updateChangedProbabilities();
+        return revealed;
+    }
+}
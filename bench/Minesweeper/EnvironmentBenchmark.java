@@ -0,0 +1,38 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for building an Environment at several dims and densities.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnvironmentBenchmark {
+    @Param({"10", "64", "256", "1024"})
+    public int dim;
+
+    @Param({"0.1", "0.2", "0.5", "0.9"})
+    public double density;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private long seed = 0;
+
+    @Benchmark
+    public Environment construct() {
+        int numMines = (int)(density * dim * dim);
+        return new Environment(dim, numMines, new SplittableRandom(seed++), packed);
+    }
+}
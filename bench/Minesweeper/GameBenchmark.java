@@ -0,0 +1,48 @@
+package Minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for a full, quiet game of each agent.
+ * Each invocation plays a new seeded board, so every run sees the same sequence of boards.
+ * Games at 256 and 1024 take seconds each, so LargeGameBenchmark times those one game at a time.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameBenchmark {
+    @Param({"10", "32", "64"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    private long seed = 0;
+
+    @Benchmark
+    public int basicGame() {
+        TrialRandom trialRandom = new TrialRandom(seed++);
+        Environment env = new Environment(dim, (int)(density * dim * dim), trialRandom.boardRandom());
+        BasicAgent agent = new BasicAgent(env.getBoardView());
+        AgentRunner.runBasic(agent, trialRandom.basicRandom(), false);
+        return agent.calcScore();
+    }
+
+    @Benchmark
+    public int advancedGame() {
+        TrialRandom trialRandom = new TrialRandom(seed++);
+        Environment env = new Environment(dim, (int)(density * dim * dim), trialRandom.boardRandom());
+        ModifiedAgent agent = new ModifiedAgent(env.getBoardView());
+        AgentRunner.runAdvanced(agent, trialRandom.advancedRandom(), false);
+        return agent.calcScore();
+    }
+}
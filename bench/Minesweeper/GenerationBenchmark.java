@@ -0,0 +1,73 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for board generation across mine densities, for the rejection loop and Floyd's sampler.
+ * sampledAdditive() times adding the second half of the mines to a board that already has the first half.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GenerationBenchmark {
+    @Param({"512"})
+    public int dim;
+
+    @Param({"0.1", "0.25", "0.5", "0.75", "0.9", "0.95", "0.99", "1.0"})
+    public double density;
+
+    private long seed = 0;
+
+    /**
+     * A board with half of the mines already on it, built outside the timing for each invocation.
+     */
+    @State(Scope.Thread)
+    public static class HalfFullBoard {
+        private Environment env;
+
+        @Setup(Level.Invocation)
+        public void setup(GenerationBenchmark benchmark) {
+            env = new Environment(benchmark.dim, benchmark.numMines() / 2, new SplittableRandom(benchmark.seed++));
+        }
+    }
+
+    @Benchmark
+    public Environment rejection() {
+        Environment env = new Environment(dim, 0, new SplittableRandom(seed++));
+        env.scatter_mines_rejection(numMines());
+        return env;
+    }
+
+    @Benchmark
+    public Environment sampled() {
+        Environment env = new Environment(dim, 0, new SplittableRandom(seed++));
+        env.scatter_mines(numMines());
+        return env;
+    }
+
+    @Benchmark
+    public Environment sampledAdditive(HalfFullBoard board) {
+        board.env.scatter_mines(numMines() - (numMines() / 2));
+        return board.env;
+    }
+
+    /**
+     * Helper method to get the number of mines for this density.
+     * @return The number of mines.
+     */
+    private int numMines() {
+        return (int)(density * dim * dim);
+    }
+}
@@ -0,0 +1,46 @@
+package Minesweeper;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for Index.equals-driven contains lookups, the way the agents use them
+ * for their lists of marked mines (20% of the board marked).
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IndexBenchmark {
+    @Param({"10", "64", "256", "1024"})
+    public int dim;
+
+    private ArrayList<Index> marked;
+    private SplittableRandom rand;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rand = new SplittableRandom(42);
+        marked = new ArrayList<Index>();
+        int count = Math.max(1, (dim * dim) / 5);
+        for(int i = 0; i < count; i++) {
+            marked.add(new Index(rand.nextInt(dim), rand.nextInt(dim)));
+        }
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return marked.contains(new Index(rand.nextInt(dim), rand.nextInt(dim)));
+    }
+}
@@ -0,0 +1,45 @@
+package Minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for building the packed knowledge base against the old Cell[][] / ModifiedCell[][] layout.
+ * Memory per cell is the GC profiler's gc.alloc.rate.norm (bytes per operation) divided by dim * dim.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KnowledgeBaseBenchmark {
+    @Param({"256", "1024"})
+    public int dim;
+
+    @Benchmark
+    public Cell[][] modifiedCells() {
+        Cell[][] objects = new Cell[dim][dim];
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                objects[row][col] = new ModifiedCell(false, -2, 0, 0, 8, 0);
+            }
+        }
+        return objects;
+    }
+
+    @Benchmark
+    public KnowledgeBase withProbabilities() {
+        return new KnowledgeBase(dim, true);
+    }
+
+    @Benchmark
+    public KnowledgeBase withoutProbabilities() {
+        return new KnowledgeBase(dim, false);
+    }
+}
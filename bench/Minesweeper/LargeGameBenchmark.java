@@ -0,0 +1,48 @@
+package Minesweeper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for a full, quiet game of each agent on the large boards GameBenchmark leaves out.
+ * A game at 1024 takes seconds, so each iteration times a single game instead of averaging many.
+ * Each invocation plays a new seeded board, so every run sees the same sequence of boards.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LargeGameBenchmark {
+    @Param({"256", "1024"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    private long seed = 0;
+
+    @Benchmark
+    public int basicGame() {
+        TrialRandom trialRandom = new TrialRandom(seed++);
+        Environment env = new Environment(dim, (int)(density * dim * dim), trialRandom.boardRandom());
+        BasicAgent agent = new BasicAgent(env.getBoardView());
+        AgentRunner.runBasic(agent, trialRandom.basicRandom(), false);
+        return agent.calcScore();
+    }
+
+    @Benchmark
+    public int advancedGame() {
+        TrialRandom trialRandom = new TrialRandom(seed++);
+        Environment env = new Environment(dim, (int)(density * dim * dim), trialRandom.boardRandom());
+        ModifiedAgent agent = new ModifiedAgent(env.getBoardView());
+        AgentRunner.runAdvanced(agent, trialRandom.advancedRandom(), false);
+        return agent.calcScore();
+    }
+}
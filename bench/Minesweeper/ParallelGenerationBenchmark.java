@@ -0,0 +1,86 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMH benchmark for two-pass board generation per core count, against the sequential path (0 cores).
+ * Setup also checks that the two-pass path produces the same board as the sequential one from the same seed.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelGenerationBenchmark {
+    @Param({"1024", "4096"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    @Param({"0", "1", "2", "4", "8"})
+    public int cores;
+
+    private ForkJoinPool pool;
+    private long seed = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = cores == 0 ? null : new ForkJoinPool(cores);
+
+        // Same seed must give the same board.
+        int numMines = (int)(density * dim * dim);
+        Environment sequential = new Environment(dim, numMines, new SplittableRandom(42), packed, null);
+        Environment generated = new Environment(dim, numMines, new SplittableRandom(42), packed, pool);
+        if(!sameBoard(sequential, generated)) {
+            throw new IllegalStateException("Two-pass generation differs from the sequential board.");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Environment generate() {
+        return new Environment(dim, (int)(density * dim * dim), new SplittableRandom(seed++), packed, pool);
+    }
+
+    /**
+     * Helper method to compare two boards space by space.
+     * @param a : The first board.
+     * @param b : The second board.
+     * @return true if every space matches.
+     */
+    private static boolean sameBoard(Environment a, Environment b) {
+        if(a.getDim() != b.getDim() || a.getNum_mines() != b.getNum_mines()) {
+            return false;
+        }
+        for(int row = 0; row < a.getDim(); row++) {
+            for(int col = 0; col < a.getDim(); col++) {
+                if(a.getValue(row, col) != b.getValue(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
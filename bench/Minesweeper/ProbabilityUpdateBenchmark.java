@@ -0,0 +1,123 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH benchmark for the advanced agent's full probability sweep against the incremental update,
+ * over one seeded game per invocation. Both benchmarks play the same moves, so the per-move cost
+ * is each score divided by the moves in the game.
+ * Setup plays the game both ways once and checks the knowledge bases match at the end.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProbabilityUpdateBenchmark {
+    @Param({"16", "64", "128", "256"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    @Param({"42"})
+    public long seed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if(!sameKnowledge(play(false), play(true))) {
+            throw new IllegalStateException("The incremental update differs from the full sweep.");
+        }
+    }
+
+    @Benchmark
+    public ModifiedAgent sweep() {
+        return play(false);
+    }
+
+    @Benchmark
+    public ModifiedAgent incremental() {
+        return play(true);
+    }
+
+    /**
+     * Helper method to play the seeded game, updating probabilities after every move.
+     * @param incremental   : True for the incremental update, false for the full sweep.
+     * @return The agent at the end of the game.
+     */
+    private ModifiedAgent play(boolean incremental) {
+        TrialRandom trialRandom = new TrialRandom(seed);
+        Environment env = new Environment(dim, (int)(density * dim * dim), trialRandom.boardRandom());
+        ModifiedAgent agent = new ModifiedAgent(env.getBoardView());
+        SplittableRandom rand = trialRandom.advancedRandom();
+
+        int cell;
+        while((cell = nextMove(agent, rand)) >= 0) {
+            int row = cell / dim;
+            int col = cell % dim;
+            agent.selectCell(row, col);
+            agent.queryCell(row, col);
+            if(incremental) {
+                agent.updateChangedProbabilities();
+            } else {
+                agent.updateAllKnownProbabilities();
+            }
+        }
+        return agent;
+    }
+
+    /**
+     * Helper method to pick the next move: a marked safe cell if there is one, otherwise a random unrevealed, unmarked cell.
+     * Pops the safe cell from the agent's set.
+     * @param agent : The agent to pick for.
+     * @param rand  : The stream for random picks.
+     * @return The cell, as row * dim + col, or -1 if there is nothing left to reveal.
+     */
+    private static int nextMove(ModifiedAgent agent, SplittableRandom rand) {
+        if(!agent.getSafeCells().isEmpty()) {
+            return agent.getSafeCells().pop();
+        }
+
+        KnowledgeBase knowledgeBase = agent.getKnowledgeBase();
+        int dim = knowledgeBase.getDim();
+        int[] unrevealed = new int[dim * dim];
+        int count = 0;
+        for(int cell = 0; cell < dim * dim; cell++) {
+            if(!knowledgeBase.getRevealed(cell / dim, cell % dim) && !agent.getMineCells().contains(cell)) {
+                unrevealed[count++] = cell;
+            }
+        }
+        return count == 0 ? -1 : unrevealed[rand.nextInt(count)];
+    }
+
+    /**
+     * Helper method to compare what two agents know, cell by cell.
+     * @param a : The first agent.
+     * @param b : The second agent.
+     * @return true if every cell, probability and mark matches.
+     */
+    private static boolean sameKnowledge(ModifiedAgent a, ModifiedAgent b) {
+        KnowledgeBase x = a.getKnowledgeBase();
+        KnowledgeBase y = b.getKnowledgeBase();
+        for(int row = 0; row < x.getDim(); row++) {
+            for(int col = 0; col < x.getDim(); col++) {
+                if(!x.getCell(row, col).toString().equals(y.getCell(row, col).toString())
+                    || x.getAgentsGuess(row, col) != y.getAgentsGuess(row, col)
+                    || a.getMineCells().contains(row, col) != b.getMineCells().contains(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return a.getSafeCells().toString().equals(b.getSafeCells().toString());
+    }
+}
@@ -0,0 +1,76 @@
+package Minesweeper;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * JMH benchmark for the trial engine's scaling with thread count for one density point.
+ * Teardown also checks that the thread count gave the same averages as one thread for the same seed.
+ * @author Aditya Dhawan, Annie Thach
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TrialBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"1000"})
+    public int trials;
+
+    @Param({"10"})
+    public int dim;
+
+    @Param({"0.2"})
+    public double density;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ExecutorService executor;
+    private TrialEngine engine;
+    private TrialResult result;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = TrialEngine.newFixedPool(threads);
+        engine = new TrialEngine(executor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdown();
+
+        ExecutorService single = TrialEngine.newFixedPool(1);
+        TrialResult expected = new TrialEngine(single).run(trials, dim, numMines(), SEED);
+        single.shutdown();
+        if(expected.getBasicAverage() != result.getBasicAverage()
+           || expected.getAdvancedAverage() != result.getAdvancedAverage()) {
+            throw new IllegalStateException("Averages on " + threads + " threads differ from one thread.");
+        }
+    }
+
+    @Benchmark
+    public TrialResult run() throws Exception {
+        result = engine.run(trials, dim, numMines(), SEED);
+        return result;
+    }
+
+    /**
+     * Helper method to get the number of mines for this density.
+     * @return The number of mines.
+     */
+    private int numMines() {
+        return (int)(density * dim * dim);
+    }
+}
@@ -1,7 +1,8 @@
 package Minesweeper;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This is the AI that attempts to clear the environment.
@@ -16,15 +17,26 @@ public class Agent {
      * 'm' be a position that is mined. If the agent visits this, they lose.
      */
     private char[][] board;
-    private ArrayList<Index> visited; //keeps track of indices that are either already visited
-    private ArrayList<Index> canVisit; //keeps track of indices that are safe.
+    private UnrevealedSet unvisited; //keeps track of indices that are not visited or flagged yet
+    private ArrayDeque<Index> canVisit; //keeps track of indices that are safe, each queued once.
     private ArrayList<Index> doNotVisit; //keeps track of the indices that are NOT safe
+    private SplittableRandom rand; //stream for random picks
 
     /**
      * Constructor method for the Agent.
      * @param dim   : The dimension for the agent's version of the board (Should be the same as the environment).
      */
     public Agent(int dim) {
+        this(dim, new SplittableRandom());
+    }
+
+    /**
+     * Constructor method for the Agent.
+     * @param dim   : The dimension for the agent's version of the board (Should be the same as the environment).
+     * @param rand  : The stream used for random picks, so a seeded agent repeats its picks.
+     */
+    public Agent(int dim, SplittableRandom rand) {
+        this.rand = rand;
         //initialize the board
         this.board = new char[dim][dim];
         for(int row = 0; row < board.length; row ++) {
@@ -33,8 +45,8 @@ public class Agent {
             }
         }
         //initialize the lists
-        this.visited = new ArrayList<Index>();
-        this.canVisit = new ArrayList<Index>();
+        this.unvisited = new UnrevealedSet(dim);
+        this.canVisit = new ArrayDeque<Index>();
         this.doNotVisit = new ArrayList<Index>();
     }
 
@@ -62,33 +74,31 @@ public class Agent {
 
     /**
      * Method to determine what position the Agent selects next
-     * Keep generating a random Index until it is something that is safe to visit.
+     * Pick a random position among the ones not visited or flagged yet.
      * @param e : The environment.
      * @return true if the agent has selected a valid position, false if agent has selected a mine.
+     * @throws IllegalStateException if there is nothing left to visit.
      */
     public boolean select_position(Environment e) {
         Index p;
-        int row;
-        int col;
         if(this.canVisit.size() == 0) {
-            Random rand = new Random();
-            do {
-                row = rand.nextInt(e.getDim());
-                col = rand.nextInt(e.getDim());
-                p = new Index(row, col);
-            } while(this.visited.contains(p));
+            int cell = this.unvisited.random(rand);
+            if(cell < 0) {
+                throw new IllegalStateException("No positions left to visit.");
+            }
+            p = new Index(cell / e.getDim(), cell % e.getDim());
         }
         else {
-            p = this.canVisit.get(0);
-            this.canVisit.remove(0);
+            p = this.canVisit.poll();
         }
+        this.unvisited.remove(p.getRow(), p.getCol());
 
-        int[][] env_board = e.getBoard(); //answer key to check against
+        int dim = e.getDim(); //answer key is queried through e.getValue
         //here we check all the possibilties:
         // - Is this spot mined?
         // - Is this spot clear? Check the spots around it to see how many neighbors are mines.
 
-        switch(env_board[p.getRow()][p.getCol()]) {
+        switch(e.getValue(p.getRow(), p.getCol())) {
             case -1:
                 this.board[p.getRow()][p.getCol()] = 'm';
                 return false;
@@ -97,35 +107,35 @@ public class Agent {
                 /*In this case, all surrounding positions are safe (can be visited).*/
                 //check if left is in bounds
                 if(p.getCol() - 1 >= 0) {
-                    this.canVisit.add(new Index(p.getRow(), p.getCol() - 1));
+                    visit_later(p.getRow(), p.getCol() - 1);
                 }
                 //check if right is in bounds
-                if(p.getCol() + 1 < env_board[p.getRow()].length) {
-                    this.canVisit.add(new Index(p.getRow(), p.getCol() + 1));
+                if(p.getCol() + 1 < dim) {
+                    visit_later(p.getRow(), p.getCol() + 1);
                 }
                 //check if up is in bounds
                 if(p.getRow() - 1 >= 0) {
-                    this.canVisit.add(new Index(p.getRow() - 1, p.getCol()));
+                    visit_later(p.getRow() - 1, p.getCol());
                 }
                 //check if down is in bounds
-                if(p.getRow() + 1 < env_board.length) {
-                    this.canVisit.add(new Index(p.getRow() + 1, p.getCol()));
+                if(p.getRow() + 1 < dim) {
+                    visit_later(p.getRow() + 1, p.getCol());
                 }
                 //check if up-left is in bounds
                 if(p.getRow() - 1 >= 0 && p.getCol() - 1 >= 0) {
-                    this.canVisit.add(new Index(p.getRow() - 1, p.getCol() - 1));
+                    visit_later(p.getRow() - 1, p.getCol() - 1);
                 }
                 //check if up-right is in bounds
-                if(p.getRow() - 1 >= 0 && p.getCol() + 1 < env_board[p.getRow()].length) {
-                    this.canVisit.add(new Index(p.getRow() - 1, p.getCol() + 1));
+                if(p.getRow() - 1 >= 0 && p.getCol() + 1 < dim) {
+                    visit_later(p.getRow() - 1, p.getCol() + 1);
                 }
                 //check if down-left is in bounds
-                if(p.getRow() + 1 < env_board.length && p.getCol() - 1 >= 0) {
-                    this.canVisit.add(new Index(p.getRow() + 1, p.getCol() - 1));
+                if(p.getRow() + 1 < dim && p.getCol() - 1 >= 0) {
+                    visit_later(p.getRow() + 1, p.getCol() - 1);
                 }
                 //check if down-right is in bounds
-                if(p.getRow() + 1 < env_board.length && p.getCol() + 1 < env_board[p.getRow()].length) {
-                    this.canVisit.add(new Index(p.getRow() + 1, p.getCol() + 1));
+                if(p.getRow() + 1 < dim && p.getCol() + 1 < dim) {
+                    visit_later(p.getRow() + 1, p.getCol() + 1);
                 }
                 break;
             case 1:
@@ -139,36 +149,36 @@ public class Agent {
                 /*If this position is a corner position, all surrounding spaces are mines*/
                 //check top-left corner
                 if(p.getRow() == 0 && p.getCol() == 0) {
-                    this.doNotVisit.add(new Index(p.getRow(), p.getCol() + 1));
-                    this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol()));
-                    this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol() + 1));
+                    flag_position(p.getRow(), p.getCol() + 1);
+                    flag_position(p.getRow() + 1, p.getCol());
+                    flag_position(p.getRow() + 1, p.getCol() + 1);
                     this.board[p.getRow()][p.getCol() + 1] = 'm';
                     this.board[p.getRow() + 1][p.getCol()] = 'm';
                     this.board[p.getRow() + 1][p.getCol() + 1] = 'm';
                 }
                 //check top-right corner
-                else if(p.getRow() == 0 && p.getCol() == env_board[p.getRow()].length - 1) {
-                    this.doNotVisit.add(new Index(p.getRow(), p.getCol() - 1));
-                    this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol()));
-                    this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol() - 1));
+                else if(p.getRow() == 0 && p.getCol() == dim - 1) {
+                    flag_position(p.getRow(), p.getCol() - 1);
+                    flag_position(p.getRow() + 1, p.getCol());
+                    flag_position(p.getRow() + 1, p.getCol() - 1);
                     this.board[p.getRow()][p.getCol() - 1] = 'm';
                     this.board[p.getRow() + 1][p.getCol()] = 'm';
                     this.board[p.getRow() + 1][p.getCol() - 1] = 'm';
                 }
                 //check bottom-left corner
-                else if(p.getRow() == env_board.length - 1 && p.getCol() == 0) {
-                    this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol()));
-                    this.doNotVisit.add(new Index(p.getRow(), p.getCol() + 1));
-                    this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol() + 1));
+                else if(p.getRow() == dim - 1 && p.getCol() == 0) {
+                    flag_position(p.getRow() - 1, p.getCol());
+                    flag_position(p.getRow(), p.getCol() + 1);
+                    flag_position(p.getRow() - 1, p.getCol() + 1);
                     this.board[p.getRow() - 1][p.getCol()] = 'm';
                     this.board[p.getRow()][p.getCol() + 1] = 'm';
                     this.board[p.getRow() - 1][p.getCol() + 1] = 'm';
                 }
                 //check bottom-right corner
-                else if(p.getRow() == env_board.length - 1 && p.getCol() == env_board[p.getRow()].length - 1) {
-                    this.doNotVisit.add(new Index(p.getRow(), p.getCol() - 1));
-                    this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol()));
-                    this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol() - 1));
+                else if(p.getRow() == dim - 1 && p.getCol() == dim - 1) {
+                    flag_position(p.getRow(), p.getCol() - 1);
+                    flag_position(p.getRow() - 1, p.getCol());
+                    flag_position(p.getRow() - 1, p.getCol() - 1);
                     this.board[p.getRow()][p.getCol() - 1] = 'm';
                     this.board[p.getRow() - 1][p.getCol()] = 'm';
                     this.board[p.getRow() - 1][p.getCol() - 1] = 'm';
@@ -190,14 +200,14 @@ public class Agent {
                 this.board[p.getRow()][p.getCol()] = '8';
                 /*In this case, all surrounding spaces are mines.*/
                 /*no need to check bounds. if it's 8, then we know for sure that there are 8 positions with mines around this current position*/
-                this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol() - 1)); //up-left
-                this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol())); //up
-                this.doNotVisit.add(new Index(p.getRow() - 1, p.getCol() + 1)); //up-right
-                this.doNotVisit.add(new Index(p.getRow(), p.getCol() + 1)); //right
-                this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol() + 1)); //down-right
-                this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol())); //down
-                this.doNotVisit.add(new Index(p.getRow() + 1, p.getCol() - 1)); //down-left
-                this.doNotVisit.add(new Index(p.getRow(), p.getCol() - 1)); //left
+                flag_position(p.getRow() - 1, p.getCol() - 1); //up-left
+                flag_position(p.getRow() - 1, p.getCol()); //up
+                flag_position(p.getRow() - 1, p.getCol() + 1); //up-right
+                flag_position(p.getRow(), p.getCol() + 1); //right
+                flag_position(p.getRow() + 1, p.getCol() + 1); //down-right
+                flag_position(p.getRow() + 1, p.getCol()); //down
+                flag_position(p.getRow() + 1, p.getCol() - 1); //down-left
+                flag_position(p.getRow(), p.getCol() - 1); //left
                 this.board[p.getRow() - 1][p.getCol() - 1] = 'm'; //up-left
                 this.board[p.getRow() - 1][p.getCol()] = 'm'; //up
                 this.board[p.getRow() - 1][p.getCol() + 1] = 'm'; //up-right
@@ -215,6 +225,29 @@ public class Agent {
         return true;
     }
 
+    /**
+     * Helper method to queue a safe position, unless it was visited, flagged or queued already.
+     * Queued positions leave the unvisited set, so they are never queued twice or picked at random.
+     * @param row   : The row of the position.
+     * @param col   : The col of the position.
+     */
+    private void visit_later(int row, int col) {
+        if(this.unvisited.contains(row, col)) {
+            this.unvisited.remove(row, col);
+            this.canVisit.add(new Index(row, col));
+        }
+    }
+
+    /**
+     * Helper method to flag a position as mined, so it is never picked at random.
+     * @param row   : The row of the position.
+     * @param col   : The col of the position.
+     */
+    private void flag_position(int row, int col) {
+        this.doNotVisit.add(new Index(row, col));
+        this.unvisited.remove(row, col);
+    }
+
     //tester
     public static void main(String[] args) {
         Agent a = new Agent(10);
@@ -0,0 +1,151 @@
+package Minesweeper;
+
+/**
+ * Options for a ModifiedAgent: the engines it prices guesses by, whether it is told the mine count,
+ * and how long it has per move.
+ * Every option starts unset, which leaves the agent to the heuristic alone.
+ * When several engines are set, nextGuess() uses the first of the scheduler, the exact solver,
+ * belief propagation and the pattern table, while nextMove() uses the pattern table, belief propagation
+ * and the exact solver in turn.
+ * The agent reads its options as it plays, so they should not change during a game. The engines are shared,
+ * so one set of options can be shared by every game of a batch.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class AgentOptions {
+    private ExactSolver exactSolver;    // Solver for the frontier before each guess, or null.
+    private MonteCarloEstimator estimator;  // Sampler for components the solver gives up on, or null.
+    private BeliefPropagation beliefPropagation;    // Approximate pricing of the frontier before each guess, or null.
+    private ComponentScheduler scheduler;   // Per-component choice of pricing engine before each guess, or null.
+    private PatternTable patternTable;  // Offline pattern frequencies to price guesses by, or null.
+    private int numMines = -1;          // Mines on the board, or -1 if the agent isn't told.
+    private long moveNanos;             // Time per move, or 0 for no limit.
+
+    /**
+     * Setter method for the exact solver.
+     * With it, the agent solves the frontier before every guess: cells that are safe or mines in every solution
+     * are marked, and the rest are priced by their true marginals instead of the heuristic.
+     * @param exactSolver   : The solver, or null.
+     */
+    public void setExactSolver(ExactSolver exactSolver) {
+        this.exactSolver = exactSolver;
+    }
+
+    /**
+     * Setter method for the sampler.
+     * Components too big for the exact solver are priced by sampling instead of the heuristic.
+     * Only used by nextGuess() with an exact solver. Sampled probabilities are never treated as certain.
+     * @param estimator : The sampler, or null.
+     */
+    public void setEstimator(MonteCarloEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    /**
+     * Setter method for the belief propagation engine.
+     * The frontier is priced by its beliefs instead of the heuristic, which scales to frontiers far too big
+     * to solve exactly. Beliefs are never treated as certain.
+     * @param beliefPropagation : The engine, or null.
+     */
+    public void setBeliefPropagation(BeliefPropagation beliefPropagation) {
+        this.beliefPropagation = beliefPropagation;
+    }
+
+    /**
+     * Setter method for the scheduler.
+     * Each frontier component is priced by whichever engine the scheduler picks for it. Components it solves
+     * exactly are treated like the exact solver's; approximate prices are never treated as certain.
+     * @param scheduler : The scheduler, or null.
+     */
+    public void setScheduler(ComponentScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Setter method for the pattern table.
+     * Every guess is priced by looking up each unrevealed, unmarked cell's neighborhood in the table,
+     * in the density bucket closest to the mine count (or the first bucket if it isn't set).
+     * @param patternTable  : The table, or null.
+     */
+    public void setPatternTable(PatternTable patternTable) {
+        this.patternTable = patternTable;
+    }
+
+    /**
+     * Setter method for the number of mines on the board.
+     * Knowing it lets the exact solver and the scheduler weigh each frontier solution by the ways to place
+     * the rest of the mines in the interior, and gives belief propagation its prior, which gives probabilities
+     * everywhere and ends the game as soon as every mine is accounted for.
+     * Ignored without one of those engines, except to pick the pattern table's bucket.
+     * @param numMines  : The number of mines, or -1 if unknown.
+     */
+    public void setNumMines(int numMines) {
+        this.numMines = numMines;
+    }
+
+    /**
+     * Setter method for the time the agent has per move.
+     * With a limit, a runner plays the agent by nextMove() instead of nextGuess(), and records which tier
+     * picked each move. Scores then depend on timing, so a seed no longer fixes them.
+     * The sampler is never used under a limit.
+     * @param moveNanos : The time, in nanoseconds, or 0 for no limit.
+     */
+    public void setMoveBudget(long moveNanos) {
+        this.moveNanos = moveNanos;
+    }
+
+    /**
+     * Getter method for the exact solver.
+     * @return The solver, or null.
+     */
+    public ExactSolver getExactSolver() {
+        return exactSolver;
+    }
+
+    /**
+     * Getter method for the sampler.
+     * @return The sampler, or null.
+     */
+    public MonteCarloEstimator getEstimator() {
+        return estimator;
+    }
+
+    /**
+     * Getter method for the belief propagation engine.
+     * @return The engine, or null.
+     */
+    public BeliefPropagation getBeliefPropagation() {
+        return beliefPropagation;
+    }
+
+    /**
+     * Getter method for the scheduler.
+     * @return The scheduler, or null.
+     */
+    public ComponentScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Getter method for the pattern table.
+     * @return The table, or null.
+     */
+    public PatternTable getPatternTable() {
+        return patternTable;
+    }
+
+    /**
+     * Getter method for the number of mines on the board.
+     * @return The number of mines, or -1 if unknown.
+     */
+    public int getNumMines() {
+        return numMines;
+    }
+
+    /**
+     * Getter method for the time the agent has per move.
+     * @return The time, in nanoseconds, or 0 for no limit.
+     */
+    public long getMoveBudget() {
+        return moveNanos;
+    }
+}
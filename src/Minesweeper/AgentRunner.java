@@ -0,0 +1,143 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays an agent through a whole game.
+ * Holds no state of its own, so games on different boards can run on different threads.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class AgentRunner {
+    /**
+     * Runs the basic agent until there are no cells left to reveal.
+     * @param agent : The agent to run.
+     * @param rand  : The stream for random picks.
+     * @param verbose   : True to print every move.
+     */
+    public static void runBasic(BasicAgent agent, SplittableRandom rand, boolean verbose) {
+        while(true) {
+            IndexSet mineCells = agent.getMineCells();
+
+            int row = 0;
+            int col = 0;
+
+            // Check safe cells before resorting to random.
+            if(!agent.getSafeCells().isEmpty()) {
+                int cell = agent.getSafeCells().pop();
+                row = mineCells.getRow(cell);
+                col = mineCells.getCol(cell);
+
+                // Cascades can open marked safe cells before they come up.
+                if(agent.getKnowledgeBase().getRevealed(row, col)) {
+                    continue;
+                }
+            } else {
+                // Select a cell at random from the cells not revealed or marked a mine.
+                int cell = agent.nextGuess(rand);
+
+                // If there is no such cell, then there are no cells left to be processed.
+                if(cell < 0) {
+                    break;
+                }
+                row = mineCells.getRow(cell);
+                col = mineCells.getCol(cell);
+            }
+
+            agent.revealCascade(row, col); // Reveal the cell, and its whole region if it is a 0.
+            agent.queryCell(row, col);     // Query the cell for information.
+
+            if(verbose) {
+                System.out.println("Selected (" + row + ", " + col + "); " + agent.getKnowledgeBase().getCell(row, col));
+                if(!agent.getSafeCells().isEmpty()) {
+                    System.out.println("Marked safe: " + agent.getSafeCells());
+                }
+
+                if(!agent.getMineCells().isEmpty()) {
+                    System.out.println("Marked mines: " + agent.getMineCells());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the advanced agent until there are no cells left to reveal, picking each move before a deadline
+     * (see ModifiedAgent.nextMove()).
+     * @param agent : The agent to run.
+     * @param rand  : The stream for random picks.
+     * @param verbose   : True to print every move, with the tier that picked it and each tier's time.
+     * @param moveNanos : The time allowed per move, in nanoseconds.
+     * @return The number of moves each tier picked, indexed by tier.
+     */
+    public static long[] runAdvanced(ModifiedAgent agent, SplittableRandom rand, boolean verbose, long moveNanos) {
+        long[] tierMoves = new long[Move.NUM_TIERS];
+        IndexSet mineCells = agent.getMineCells();
+        while(true) {
+            Move move = agent.nextMove(rand, Deadline.in(moveNanos));
+
+            // If there is no cell to guess, then there is nothing left to process.
+            if(move.getCell() < 0) {
+                break;
+            }
+            tierMoves[move.getTier()]++;
+            int row = mineCells.getRow(move.getCell());
+            int col = mineCells.getCol(move.getCell());
+
+            agent.revealCascade(row, col);          // Reveal the cell, and its whole region if it is a 0.
+            agent.queryCell(row, col);              // Query the cell for information.
+            agent.updateChangedProbabilities();     // Update probabilities w/ new clue.
+
+            if(verbose) {
+                System.out.println("Selected (" + row + ", " + col + "); " + agent.getKnowledgeBase().getCell(row, col)
+                                   + "; " + move);
+            }
+        }
+        return tierMoves;
+    }
+
+    /**
+     * Runs the advanced agent until there are no cells left to reveal.
+     * @param agent : The agent to run.
+     * @param rand  : The stream for random picks.
+     * @param verbose   : True to print every move.
+     */
+    public static void runAdvanced(ModifiedAgent agent, SplittableRandom rand, boolean verbose) {
+        while(true) {
+            IndexSet mineCells = agent.getMineCells();
+
+            int row = 0;
+            int col = 0;
+
+            // Pick from list of safe cells if not empty (skipping any a cascade already opened).
+            int cell = agent.nextSafeCell();
+            if(cell >= 0) {
+                row = mineCells.getRow(cell);
+                col = mineCells.getCol(cell);
+            } else {
+                // Lowest probability below 0.5 first, then random inner, edge and corner cells.
+                cell = agent.nextGuess(rand);
+
+                // If there is no cell to guess, then there is nothing left to process.
+                if(cell < 0) {
+                    break;
+                }
+                row = mineCells.getRow(cell);
+                col = mineCells.getCol(cell);
+            }
+
+            agent.revealCascade(row, col);          // Reveal the cell, and its whole region if it is a 0.
+            agent.queryCell(row, col);              // Query the cell for information.
+            agent.updateChangedProbabilities();     // Update probabilities w/ new clue.
+
+            if(verbose) {
+                System.out.println("Selected (" + row + ", " + col + "); " + agent.getKnowledgeBase().getCell(row, col));
+                if(!agent.getSafeCells().isEmpty()) {
+                    System.out.println("Marked safe: " + agent.getSafeCells());
+                }
+
+                if(!agent.getMineCells().isEmpty()) {
+                    System.out.println("Marked mines: " + agent.getMineCells());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package Minesweeper;
+
+/**
+ * The original board layout: one int per space in a 2-dimensional array.
+ * Fast to read, but 4 bytes for a value that only ranges from -1 to 8.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ArrayBoard implements Board {
+    private int[][] board;
+
+    /**
+     * Constructor method for an empty board.
+     * @param dim   : The board dimension.
+     */
+    public ArrayBoard(int dim) {
+        this.board = new int[dim][dim];
+    }
+
+    /**
+     * Constructor method wrapping an existing board.
+     * @param board : The board to wrap (not copied).
+     */
+    public ArrayBoard(int[][] board) {
+        this.board = board;
+    }
+
+    @Override
+    public int getDim() {
+        return board.length;
+    }
+
+    @Override
+    public int getValue(int row, int col) {
+        return board[row][col];
+    }
+
+    @Override
+    public boolean isMine(int row, int col) {
+        return board[row][col] == -1;
+    }
+
+    @Override
+    public void setValue(int row, int col, int value) {
+        board[row][col] = value;
+    }
+
+    @Override
+    public long sizeInBytes() {
+        // Outer array of references plus one int[] (16 byte header) per row.
+        long dim = board.length;
+        return 16 + (dim * 8) + dim * (16 + (dim * 4));
+    }
+
+    /**
+     * Getter method for the backing array.
+     * @return The board as an int[][] (not a copy).
+     */
+    public int[][] getArray() {
+        return board;
+    }
+}
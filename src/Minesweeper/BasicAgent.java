@@ -1,37 +1,67 @@
 package Minesweeper;
 
-import java.util.ArrayList;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 /**
  * This is the class for the basic agent.
  * @author Aditya Dhawan, Annie Thach
  */
 public class BasicAgent {
-    private int[][] board;          // The board the agent will be working with.
-    private Cell[][] knowledgeBase; // Parallel matrix that stores information about cells.
+    private Board board;            // The board the agent will be working with.
+    private KnowledgeBase knowledgeBase; // Packed per-cell words that store information about cells.
 
-    // ArrayLists for guesses.
-    private Stack<Index> safeCells;
-    private ArrayList<Index> mineCells;
+    // Sets for guesses, keyed by row * dim + col.
+    private IndexSet safeCells;
+    private IndexSet mineCells;
+    private int[] cascadeCells = new int[64];   // Reused queue for revealCascade().
+    private UnrevealedSet unrevealedCells;  // Cells that are neither revealed nor marked mines.
+    private IndexSet pendingClues;          // Revealed clues whose neighborhood changed since they were last decided.
+    private Deducer deducer;                // Backend for deductions the local rules miss, or null.
+    private int[] frontierCells;            // Unknown cells next to a revealed clue, in no particular order; kept only with a backend.
+    private int[] frontierSlots;            // Slot of each position in frontierCells, or -1 if not on the frontier.
+    private int frontierSize;
+    private int[] verdicts;                 // Reused results for deduceWithBackend().
 
     /**
      * Constructor method for basic agent.
      * @param board : The board the agent will be working with/querying from.
      */
     public BasicAgent(int[][] board) {
+        this(new ArrayBoard(board));
+    }
+
+    /**
+     * Constructor method for basic agent.
+     * @param board : The board the agent will be working with/querying from.
+     */
+    public BasicAgent(Board board) {
+        this(board, null);
+    }
+
+    /**
+     * Constructor method for basic agent.
+     * With a deduction backend (SatDeducer or EliminationDeducer), the agent asks it about every unknown cell
+     * next to a clue before it guesses, which catches deductions that need several overlapping clues at once.
+     * @param board : The board the agent will be working with/querying from.
+     * @param deducer   : A new backend for this board, or null for the local rules alone.
+     */
+    public BasicAgent(Board board, Deducer deducer) {
         this.board = board;
-        this.knowledgeBase = new Cell[board.length][board.length];
+        this.deducer = deducer;
+        this.knowledgeBase = new KnowledgeBase(board.getDim(), false);
 
-        // Initialize cells.
-        for(int row = 0; row < knowledgeBase.length; row++) {
-            for(int col = 0; col < knowledgeBase.length; col++) {
-                knowledgeBase[row][col] = new Cell(false, -2, -1, -1, -1, 0);
-            }
+        safeCells = new IndexSet(board.getDim());
+        mineCells = new IndexSet(board.getDim());
+        unrevealedCells = new UnrevealedSet(board.getDim());
+        pendingClues = new IndexSet(board.getDim());
+        if(deducer != null) {
+            int cells = board.getDim() * board.getDim();
+            frontierCells = new int[cells];
+            frontierSlots = new int[cells];
+            verdicts = new int[cells];
+            Arrays.fill(frontierSlots, -1);
         }
-
-        safeCells = new Stack<Index>();
-        mineCells = new ArrayList<Index>();
     }
 
     /**
@@ -42,19 +72,18 @@ public class BasicAgent {
     public String toString() {
         String knowledgeBase = new String();
         
-        for(int row = 0; row < board.length; row++) {
-            for(int col = 0; col < board.length; col++) {
-                if(this.knowledgeBase[row][col].getRevealed()) {
-                    if(this.knowledgeBase[row][col].getClue() < 0) {
-                        knowledgeBase += this.knowledgeBase[row][col].getClue() + " ";
+        for(int row = 0; row < board.getDim(); row++) {
+            for(int col = 0; col < board.getDim(); col++) {
+                if(this.knowledgeBase.getRevealed(row, col)) {
+                    if(this.knowledgeBase.getClue(row, col) < 0) {
+                        knowledgeBase += this.knowledgeBase.getClue(row, col) + " ";
                         continue;                        
                     }
-                    knowledgeBase += " " + this.knowledgeBase[row][col].getClue() + " ";
+                    knowledgeBase += " " + this.knowledgeBase.getClue(row, col) + " ";
                 } else {
-                    Index index = new Index(row, col);
-                    if(mineCells.contains(index)) {
+                    if(mineCells.contains(row, col)) {
                         knowledgeBase += " m ";
-                    } else if(safeCells.contains(index)) {
+                    } else if(safeCells.contains(row, col)) {
                         knowledgeBase += " s ";
                     } else {    // Unknown.
                         knowledgeBase += " ? ";
@@ -73,174 +102,331 @@ public class BasicAgent {
      * @param col
      */
     public void selectCell(int row, int col) {
+        if(knowledgeBase.getRevealed(row, col)) {
+            return;
+        }
+
         // Mark revealed and set clue.
-        knowledgeBase[row][col].setRevealed(true);
-        knowledgeBase[row][col].setClue(board[row][col]);
+        knowledgeBase.setRevealed(row, col, true);
+        knowledgeBase.setClue(row, col, board.getValue(row, col));
+        if(deducer != null) {
+            deducer.reveal(row, col, knowledgeBase.getClue(row, col));
+            updateFrontier(row, col);
+        }
+        updateNeighborCounts(row, col, knowledgeBase.getClue(row, col) == -1);
+        unrevealedCells.remove(row, col);
+        queueCluesAround(row, col);
 
         // If mine, add to list of mines.
         /*
-        Index index = new Index(row, col);
-        if(knowledgeBase[row][col].getClue() == -1 && !mineCells.contains(index)) {
-            mineCells.add(index);
+        if(knowledgeBase.getClue(row, col) == -1) {
+            mineCells.add(row, col);
         }
         */
     }
 
+    /**
+     * Reveals the cell at (row, col) and, if it is a 0, the whole region of 0s around it plus the region's border.
+     * The region is flood-filled with an int queue rather than one move per cell; the knowledge base's
+     * revealed bits act as the visited set, so no cell is queued twice.
+     * Once the region is open, inference runs once on the newly revealed clues along its border.
+     * @param row
+     * @param col
+     * @return The number of cells revealed.
+     */
+    public int revealCascade(int row, int col) {
+        if(knowledgeBase.getRevealed(row, col)) {
+            return 0;
+        }
+
+        selectCell(row, col);
+        if(knowledgeBase.getClue(row, col) != 0) {
+            return 1;
+        }
+
+        int dim = board.getDim();
+        int[] revealed = cascadeCells;  // Every cell revealed so far; the 0s among them get expanded.
+        int count = 0;
+        revealed[count++] = row * dim + col;
+
+        for(int head = 0; head < count; head++) {
+            int cell_row = revealed[head] / dim;
+            int cell_col = revealed[head] % dim;
+            if(knowledgeBase.getClue(cell_row, cell_col) != 0) {
+                continue;
+            }
+
+            // Expand from center.
+            int start_row = cell_row - 1 >= 0 ? cell_row - 1 : cell_row;   // If expanding up is possible ...
+            int start_col = cell_col - 1 >= 0 ? cell_col - 1 : cell_col;   // If expanding left is possible ...
+            int end_row = cell_row + 1 < dim ? cell_row + 1 : cell_row;    // If expanding down is possible ...
+            int end_col = cell_col + 1 < dim ? cell_col + 1 : cell_col;    // If expanding right is possible ...
+            for(int current_row = start_row; current_row <= end_row; current_row++) {
+                for(int current_col = start_col; current_col <= end_col; current_col++) {
+                    // Every neighbor of a 0 is safe.
+                    if(!knowledgeBase.getRevealed(current_row, current_col)) {
+                        selectCell(current_row, current_col);
+                        if(count == revealed.length) {
+                            revealed = Arrays.copyOf(revealed, count * 2);
+                            cascadeCells = revealed;
+                        }
+                        revealed[count++] = current_row * dim + current_col;
+                    }
+                }
+            }
+        }
+
+        // Reveals queued the clues around them, and only the border clues still have hidden neighbors.
+        propagate();
+
+        return count;
+    }
+
     /**
      * Agent gets/updates information for cell at (row, col) on board and makes guesses.
+     * The cell's clue is queued along with every clue whose neighborhood changed since the last query,
+     * and the queue is drained to a fixpoint (see propagate()).
      */
     public void queryCell(int row, int col) {
-        // Update knowledge base.
-        knowledgeBase[row][col].setNumSafeCells(countSafeNeighbors(row, col));
-        knowledgeBase[row][col].setNumMineCells(countMineNeighbors(row, col));
-        knowledgeBase[row][col].setNumHiddenCells(countHiddenNeighbors(row, col));
-
-        // Make guesses.
-        int clue = knowledgeBase[row][col].getClue();
-        int revealedSafe = knowledgeBase[row][col].getNumSafeCells();
-        int revealedMine = knowledgeBase[row][col].getNumMineCells();
-        int revealed = revealedSafe + revealedMine;
-        int hidden = knowledgeBase[row][col].getNumHiddenCells();
-        int numNeighbors = revealed + hidden;   // Total number of neighbors.
+        if(knowledgeBase.getRevealed(row, col) && knowledgeBase.getClue(row, col) >= 0) {
+            pendingClues.add(row, col);
+        }
+        propagate();
+    }
 
-        int agentsGuess = 0;
-        // If clue - revealed = hidden, every hidden is mine.
-        if(clue - revealedMine == hidden) {
-            agentsGuess = -1;   // Mark hidden probably mines.
-        } else if((numNeighbors - clue) - revealedSafe == hidden) { // If 8 - clue = hidden, every hidden is safe.
-            agentsGuess = 1;    // Mark hidden probably safe.
+    /**
+     * Drains the queue of clues whose neighborhood changed, marking cells safe or mine as it goes.
+     * A clue is decided once its mines left (clue - revealed mines - marked mines) is 0 (every unknown neighbor is safe)
+     * or equals its unknown neighbors (every unknown neighbor is a mine). Each new mark queues the clues around it,
+     * so a clue is only looked at again when its neighborhood changes, and the total work over a game stays linear in the board size.
+     */
+    public void propagate() {
+        while(!pendingClues.isEmpty()) {
+            int cell = pendingClues.pop();
+            decideClue(pendingClues.getRow(cell), pendingClues.getCol(cell));
+        }
+    }
+
+    /**
+     * Helper method to mark a clue's unknown neighbors, if the clue decides them.
+     * @param row
+     * @param col
+     */
+    private void decideClue(int row, int col) {
+        int hidden = knowledgeBase.getNumHiddenCells(row, col);
+        if(hidden == 0) {
+            return;
         }
 
-        // Mark guess.
-        int dim = board.length;
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center and not revealed:
-                if(!(current_row == row && current_col == col) && !knowledgeBase[current_row][current_col].getRevealed()) {
-                    Index index = new Index(current_row, current_col);
-                    if(agentsGuess == -1 && !mineCells.contains(index)) {
-                        mineCells.add(index);
-                        // System.out.println(index + " suspected unsafe."); // DEBUG
-                    } else if(agentsGuess == 1 && !safeCells.contains(index)) {
-                        safeCells.add(index);
-                        // System.out.println(index + " should be safe."); // DEBUG
+
+        // Count the hidden neighbors already marked.
+        int markedMines = 0;
+        int markedSafe = 0;
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(!knowledgeBase.getRevealed(current_row, current_col)) {
+                    if(mineCells.contains(current_row, current_col)) {
+                        markedMines++;
+                    } else if(safeCells.contains(current_row, current_col)) {
+                        markedSafe++;
                     }
+                }
+            }
+        }
 
-                    knowledgeBase[current_row][current_col].setAgentsGuess(agentsGuess);
+        int unknown = hidden - markedMines - markedSafe;
+        int minesLeft = knowledgeBase.getClue(row, col) - knowledgeBase.getNumMineCells(row, col) - markedMines;
+        int agentsGuess = 0;
+        if(unknown > 0 && minesLeft == unknown) {
+            agentsGuess = -1;   // Every unknown is a mine.
+        } else if(unknown > 0 && minesLeft == 0) {
+            agentsGuess = 1;    // Every unknown is safe.
+        } else {
+            return;
+        }
+
+        // Mark guess.
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(knowledgeBase.getRevealed(current_row, current_col)
+                    || mineCells.contains(current_row, current_col)
+                    || safeCells.contains(current_row, current_col)) {
+                    continue;
+                }
+
+                if(agentsGuess == -1) {
+                    mineCells.add(current_row, current_col);
+                    unrevealedCells.remove(current_row, current_col);
+                    // System.out.println(new Index(current_row, current_col) + " suspected unsafe."); // DEBUG
+                } else {
+                    safeCells.add(current_row, current_col);
+                    // System.out.println(new Index(current_row, current_col) + " should be safe."); // DEBUG
+                }
+                knowledgeBase.setAgentsGuess(current_row, current_col, agentsGuess);
+                if(deducer != null) {
+                    deducer.mark(current_row, current_col, agentsGuess == -1);
+                    removeFrontier(current_row * dim + current_col);
                 }
-                current_col++;
+                queueCluesAround(current_row, current_col);
+            }
+        }
+    }
+
+    /**
+     * Helper method to ask the deduction backend about every unknown cell next to a clue, and mark what it proves.
+     * The candidates are the frontier list kept up to date by selectCell() and the marks, so nothing is rescanned.
+     * Marks are propagated through the local rules as usual. The backend already holds what it proved,
+     * so those marks are not reported back to it.
+     */
+    private void deduceWithBackend() {
+        int dim = board.getDim();
+        int count = frontierSize;
+        if(count == 0 || deducer.deduce(frontierCells, count, verdicts) == 0) {
+            return;
+        }
+
+        // Walk backwards: marking a cell moves the last candidate into its slot, and that one was already looked at.
+        for(int i = count - 1; i >= 0; i--) {
+            int cell = frontierCells[i];
+            int row = cell / dim;
+            int col = cell % dim;
+            if(verdicts[i] == -1) {
+                mineCells.add(row, col);
+                unrevealedCells.remove(row, col);
+            } else if(verdicts[i] == 1) {
+                safeCells.add(row, col);
+            } else {
+                continue;
             }
-            current_row++;
-            current_col = start_col;
+            knowledgeBase.setAgentsGuess(row, col, verdicts[i]);
+            removeFrontier(cell);
+            queueCluesAround(row, col);
         }
+        propagate();
     }
 
     /**
-     * Helper method to count + update number of safe neighbors around cell.
+     * Helper method to keep the frontier list up to date after a reveal.
+     * The revealed cell leaves the frontier, and if it is a clue, its unknown neighbors join it.
      * @param row
      * @param col
-     * @return Number of safe neighbors around cell.
      */
-    private int countSafeNeighbors(int row, int col) {
-        int safeNeighbors = 0;
-        int dim = board.length;
+    private void updateFrontier(int row, int col) {
+        int dim = board.getDim();
+        removeFrontier(row * dim + col);
+        if(knowledgeBase.getClue(row, col) < 0) {
+            return;
+        }
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center, revealed, and not a mine, increment number of safe neighbors.
-                if(!(current_row == row && current_col == col)
-                    && knowledgeBase[current_row][current_col].getRevealed()
-                    && knowledgeBase[current_row][current_col].getClue() >= 0) {
-                    safeNeighbors++;
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                int cell = current_row * dim + current_col;
+                if(frontierSlots[cell] < 0 && !knowledgeBase.getRevealed(current_row, current_col)
+                    && !mineCells.contains(cell) && !safeCells.contains(cell)) {
+                    frontierSlots[cell] = frontierSize;
+                    frontierCells[frontierSize++] = cell;
                 }
-                current_col++;
             }
-            current_row++;
-            current_col = start_col;
         }
+    }
 
-        return safeNeighbors;
+    /**
+     * Helper method to take a cell off the frontier list, if it is on it.
+     * The last candidate is moved into the hole, so this is O(1).
+     * @param cell  : The position, as row * dim + col.
+     */
+    private void removeFrontier(int cell) {
+        int slot = frontierSlots[cell];
+        if(slot < 0) {
+            return;
+        }
+
+        int last = frontierCells[--frontierSize];
+        frontierCells[slot] = last;
+        frontierSlots[last] = slot;
+        frontierSlots[cell] = -1;
     }
 
     /**
-     * Helper method to count + update number of revealed mines around cell.
+     * Helper method to queue every revealed clue around a cell, after the cell was revealed or marked.
      * @param row
      * @param col
-     * @return Number of revealed mines neighboring cell.
      */
-    private int countMineNeighbors(int row, int col) {
-        int mineNeighbors = 0;
-        int dim = board.length;
+    private void queueCluesAround(int row, int col) {
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center, revealed, and is a mine, increment number of mine neighbors.
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
                 if(!(current_row == row && current_col == col)
-                    && knowledgeBase[current_row][current_col].getRevealed()
-                    && knowledgeBase[current_row][current_col].getClue() == -1) {
-                        mineNeighbors++;
+                    && knowledgeBase.getRevealed(current_row, current_col)
+                    && knowledgeBase.getClue(current_row, current_col) >= 0
+                    && knowledgeBase.getNumHiddenCells(current_row, current_col) > 0) {
+                    pendingClues.add(current_row, current_col);
                 }
-                current_col++;
             }
-            current_row++;
-            current_col = start_col;
         }
-
-        return mineNeighbors;
     }
 
     /**
-     * Helper method to count + update number of hidden neighbors around cell.
+     * Helper method to push a reveal into the neighbor counts of the cells around it.
+     * Each neighbor loses a hidden neighbor and gains a safe or mine neighbor, so the counts never need rescanning.
      * @param row
      * @param col
-     * @return Number of hidden neighbors around cell.
+     * @param mine : True if the revealed cell is a mine.
      */
-    private int countHiddenNeighbors(int row, int col) {
-        int hiddenNeighbors = 0;
-        int dim = board.length;
+    private void updateNeighborCounts(int row, int col, boolean mine) {
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center, and not revealed, count.
-                if(!(current_row == row && current_col == col) && !knowledgeBase[current_row][current_col].getRevealed()) {
-                    hiddenNeighbors++;
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(current_row == row && current_col == col) {
+                    continue;
                 }
-                current_col++;
+
+                knowledgeBase.revealNeighbor(current_row, current_col, mine);
             }
-            current_row++;
-            current_col = start_col;
         }
+    }
 
-        return hiddenNeighbors;
+    /**
+     * Picks a cell to guess when no cell is known to be safe.
+     * With a deduction backend, a cell it proves safe is picked over a guess.
+     * @param rand  : The stream for random picks.
+     * @return A random unrevealed cell not marked as a mine, as row * dim + col, or -1 if there is none.
+     */
+    public int nextGuess(SplittableRandom rand) {
+        if(deducer != null) {
+            deduceWithBackend();
+            while(!safeCells.isEmpty()) {
+                int cell = safeCells.pop();
+                if(!knowledgeBase.getRevealed(safeCells.getRow(cell), safeCells.getCol(cell))) {
+                    return cell;
+                }
+            }
+        }
+        return unrevealedCells.random(rand);
     }
 
     /**
@@ -250,9 +436,9 @@ public class BasicAgent {
     public int calcScore() {
         int score = 0;
         for(int i = 0; i < mineCells.size(); i++) {
-            Index markedMine = mineCells.get(i);
+            int markedMine = mineCells.get(i);
 
-            if(board[markedMine.getRow()][markedMine.getCol()] == -1) {
+            if(board.isMine(mineCells.getRow(markedMine), mineCells.getCol(markedMine))) {
                 score++;
             }
         }
@@ -263,7 +449,7 @@ public class BasicAgent {
      * Getter method for agent's knowledgebase.
      * @return Agent's knowledgebase.
      */
-    public Cell[][] getKnowledgeBase() {
+    public KnowledgeBase getKnowledgeBase() {
         return knowledgeBase;
     }
 
@@ -271,7 +457,7 @@ public class BasicAgent {
      * Getter method for list of safe cells.
      * @return List of safe cells.
      */
-    public Stack<Index> getSafeCells() {
+    public IndexSet getSafeCells() {
         return safeCells;
     }
 
@@ -279,7 +465,7 @@ public class BasicAgent {
      * Getter method for list of mine cells.
      * @return List of mine cells.
      */
-    public ArrayList<Index> getMineCells() {
+    public IndexSet getMineCells() {
         return mineCells;
     }
 }
\ No newline at end of file
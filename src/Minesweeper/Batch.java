@@ -0,0 +1,149 @@
+package Minesweeper;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Non-interactive entry point for batch simulations.
+ * Runs the agents quietly (no per-move output) and prints only aggregate results.
+ * "exact" runs the advanced agent with the exact frontier solver, and "global" also tells it the mine count.
+ * "sampled" is "exact" with components too big to solve priced by Monte Carlo sampling.
+ * "sat" runs the basic agent with a SAT backend for deductions across several clues,
+ * and "linear" with a Gaussian elimination backend.
+ * "bp" runs the advanced agent pricing the frontier by loopy belief propagation, told the mine count.
+ * "anytime" runs the advanced agent with both, told the mine count, picking each move within 5 ms
+ * by the best tier that finishes in time.
+ * "adaptive" runs the advanced agent with a ComponentScheduler over all three engines, told the mine count,
+ * and prints how it routed components.
+ * "pattern=FILE" runs the advanced agent pricing guesses by a table from PatternTableBuilder.
+ * Usage: Batch dim mines trials basic|sat|linear|advanced|exact|global|sampled|bp|anytime|adaptive|pattern=FILE|both seed|none [threads]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class Batch {
+    private static final long ANYTIME_MOVE_NANOS = 5000000L;    // 5 ms.
+    private static final String USAGE = "Usage: Batch dim mines trials basic|sat|linear|advanced|exact|global|sampled|bp|anytime|adaptive|pattern=FILE|both seed|none [threads]";
+
+    public static void main(String[] args) {
+        int dim;
+        int numMines;
+        int trials;
+        String agent;
+        String tableFile = null;
+        Long seed;
+        int threads;
+        try {
+            dim = Integer.parseInt(args[0]);
+            numMines = Integer.parseInt(args[1]);
+            trials = Integer.parseInt(args[2]);
+            agent = args[3].toLowerCase();
+            if(agent.startsWith("pattern=")) {
+                tableFile = args[3].substring("pattern=".length());
+                agent = "pattern";
+            }
+            seed = args[4].equalsIgnoreCase("none") ? null : Long.valueOf(args[4]);
+            threads = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        } catch(Exception e) {
+            System.out.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        boolean sat = agent.equals("sat");
+        boolean linear = agent.equals("linear");
+        boolean runBasic = agent.equals("basic") || agent.equals("both") || sat || linear;
+        boolean global = agent.equals("global");
+        boolean sampled = agent.equals("sampled");
+        boolean exact = agent.equals("exact") || global || sampled;
+        boolean pattern = tableFile != null;
+        boolean anytime = agent.equals("anytime");
+        boolean adaptive = agent.equals("adaptive");
+        boolean bp = agent.equals("bp") || anytime;
+        boolean runAdvanced = agent.equals("advanced") || agent.equals("both") || exact || pattern || bp || adaptive;
+        if(dim < 1 || numMines < 0 || trials < 1 || !(runBasic || runAdvanced)) {
+            System.out.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        ExecutorService executor = TrialEngine.newFixedPool(threads);
+        ComponentCache cache = null;
+        ComponentScheduler scheduler = null;
+        MonteCarloEstimator estimator = null;
+        try {
+            long start = System.nanoTime();
+            int toldMines = Math.min(numMines, dim * dim);     // Mines the board actually gets.
+            AgentOptions options = new AgentOptions();
+            if(exact || anytime) {
+                cache = new ComponentCache();
+                options.setExactSolver(new ExactSolver(null, cache));  // Trials already fill the cores.
+                if(global) {
+                    options.setNumMines(toldMines);
+                }
+                if(sampled) {
+                    estimator = new MonteCarloEstimator(null, cache);
+                    options.setEstimator(estimator);
+                }
+            }
+            if(bp) {
+                options.setBeliefPropagation(new BeliefPropagation(null));     // Trials already fill the cores.
+                options.setNumMines(toldMines);
+            }
+            if(adaptive) {
+                // Trials already fill the cores.
+                cache = new ComponentCache();
+                estimator = new MonteCarloEstimator(null, cache);
+                scheduler = new ComponentScheduler(null, new ExactSolver(null, cache), estimator,
+                                                   new BeliefPropagation(null));
+                options.setScheduler(scheduler);
+                options.setNumMines(toldMines);
+            }
+            if(anytime) {
+                options.setMoveBudget(ANYTIME_MOVE_NANOS);
+            }
+            if(pattern) {
+                options.setPatternTable(PatternTable.load(Paths.get(tableFile)));
+                options.setNumMines(toldMines);
+            }
+            Supplier<Deducer> deducers = null;
+            if(sat) {
+                deducers = () -> new SatDeducer(dim);
+            } else if(linear) {
+                deducers = () -> new EliminationDeducer(dim);
+            }
+            TrialEngine engine = new TrialEngine(executor, deducers, options);
+            TrialResult result = engine.run(trials, dim, numMines, seed, runBasic, runAdvanced);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("dim " + dim + ", mines " + numMines + ", trials " + trials + ", seed " + (seed == null ? "none" : seed));
+            if(runBasic) {
+                System.out.println("Basic agent average score: " + result.getBasicAverage());
+            }
+            if(runAdvanced) {
+                System.out.println("Advanced agent average score: " + result.getAdvancedAverage());
+            }
+            if(anytime) {
+                System.out.print("Moves by tier:");
+                for(int tier = 0; tier < Move.NUM_TIERS; tier++) {
+                    System.out.print(" " + Move.getTierName(tier) + " " + result.getTierMoves(tier));
+                }
+                System.out.println();
+            }
+            if(scheduler != null) {
+                System.out.println("Scheduler: " + scheduler);
+            }
+            if(estimator != null) {
+                System.out.println("Estimator: " + estimator);
+            }
+            if(cache != null) {
+                System.out.println("Component cache: " + cache);
+            }
+            System.out.printf("Elapsed: %.3f s (%.1f trials/s)%n", seconds, trials / seconds);
+        } catch(Exception e) {
+            System.out.println("Batch failed: " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package Minesweeper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Approximate mine probabilities over the frontier by loopy belief propagation.
+ * Hidden frontier cells are variables and revealed clues are count factors ("exactly target of these cells
+ * are mines"). A factor's message to one of its cells is the chance the factor's other cells hold the rest
+ * of its target, worked out by a dynamic program over how many mines the cells before and after it hold.
+ * The factor graph is stored as flat arrays (factor-major edges, with a cell-major index into them), and each
+ * edge holds one message each way as a probability of "mine".
+ * Factors are colored so that no two factors of a color share a cell; the factors of a color can then be
+ * updated at the same time without locks, on a fork/join pool. Messages are damped, and the sweeps stop once
+ * no message moves by more than the tolerance, or after the iteration cap.
+ * A run can be given a deadline, and is cancelled if it passes first; it is checked before the graph is built
+ * and every few hundred factor updates, so a run overshoots it by at most one graph build.
+ * Holds no per-run state, so one engine can be shared between threads.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class BeliefPropagation {
+    public static final int DEFAULT_MAX_ITERATIONS = 50;
+    public static final double DEFAULT_TOLERANCE = 1e-2;
+    public static final double DEFAULT_DAMPING = 0.3;   // Share of the old message kept on each update.
+
+    private static final int MAX_DEGREE = 8;
+    private static final int FACTORS_PER_TASK = 256;
+    private static final int FACTORS_PER_CHECK = 256;   // Factor updates between deadline checks.
+    private static final double CANCELLED = -1;         // updateFactors() result when the deadline passed.
+
+    private ForkJoinPool pool;      // null to update factors one after another.
+    private int maxIterations;
+    private double tolerance;
+    private double damping;
+
+    /**
+     * Constructor method for an engine with the default cap, tolerance and damping.
+     * @param pool  : The pool to update factors on, or null to update them sequentially.
+     */
+    public BeliefPropagation(ForkJoinPool pool) {
+        this(pool, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE, DEFAULT_DAMPING);
+    }
+
+    /**
+     * Constructor method for an engine.
+     * @param pool  : The pool to update factors on, or null to update them sequentially.
+     * @param maxIterations : The most sweeps over every factor.
+     * @param tolerance : Sweeps stop once no message moves by more than this.
+     * @param damping   : The share of the old message kept on each update, 0 - 1.
+     */
+    public BeliefPropagation(ForkJoinPool pool, int maxIterations, double tolerance, double damping) {
+        this.pool = pool;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+        this.damping = damping;
+    }
+
+    /**
+     * Runs belief propagation over a set of components.
+     * @param components    : The components, e.g. from a Frontier.
+     * @param prior : Every cell's chance of being a mine before the clues, e.g. the density of mines left.
+     * @return For each component, each cell's chance of being a mine, in the component's cell order.
+     */
+    public double[][] run(List<Component> components, double prior) {
+        return run(components, prior, Deadline.NONE);
+    }
+
+    /**
+     * Runs belief propagation over a set of components, giving up if a deadline passes first.
+     * The deadline is checked before the graph is built, between colors, and every FACTORS_PER_CHECK factors within one.
+     * @param components    : The components, e.g. from a Frontier.
+     * @param prior : Every cell's chance of being a mine before the clues, e.g. the density of mines left.
+     * @param deadline  : The deadline (see Deadline).
+     * @return For each component, each cell's chance of being a mine, or null if the deadline cut the run off.
+     */
+    public double[][] run(List<Component> components, double prior, long deadline) {
+        if(Deadline.passed(deadline)) {
+            return null;
+        }
+        Graph graph = new Graph(components, prior);
+        for(int iteration = 0; iteration < maxIterations; iteration++) {
+            double change = 0;
+            for(int color = 0; color < graph.numColors; color++) {
+                if(Deadline.passed(deadline)) {
+                    return null;
+                }
+                int from = graph.colorStart[color];
+                int to = graph.colorStart[color + 1];
+                double colorChange;
+                if(pool == null || to - from <= FACTORS_PER_TASK) {
+                    colorChange = graph.updateFactors(from, to, deadline);
+                } else {
+                    UpdateFactors task = new UpdateFactors(graph, from, to, deadline);
+                    pool.invoke(task);
+                    colorChange = task.change;
+                }
+                if(colorChange == CANCELLED) {
+                    return null;
+                }
+                change = Math.max(change, colorChange);
+            }
+            if(change <= tolerance) {
+                break;
+            }
+        }
+        return graph.beliefs(components);
+    }
+
+    /**
+     * The factor graph of one run, and its messages.
+     */
+    private class Graph {
+        private double prior;
+
+        // Edges, factor-major: factor f owns edges factorStart[f] to factorStart[f + 1] - 1.
+        private int[] factorStart;
+        private int[] targets;
+        private int[] edgeVars;
+        private double[] toFactor;      // Variable -> factor messages, P(mine).
+        private double[] toVar;         // Factor -> variable messages, P(mine).
+
+        // Cell-major index: variable v's edges are varEdges[varStart[v]] to varEdges[varStart[v + 1] - 1].
+        private int[] varStart;
+        private int[] varEdges;
+
+        // Factors grouped by color.
+        private int numColors;
+        private int[] colorStart;
+        private int[] colorFactors;
+
+        Graph(List<Component> components, double prior) {
+            this.prior = prior;
+
+            int numVars = 0;
+            int numFactors = 0;
+            int numEdges = 0;
+            for(Component component : components) {
+                numVars += component.size();
+                numFactors += component.getNumConstraints();
+                numEdges += component.getConstraintStart(component.getNumConstraints());
+            }
+
+            factorStart = new int[numFactors + 1];
+            targets = new int[numFactors];
+            edgeVars = new int[numEdges];
+            int varOffset = 0;
+            int f = 0;
+            int e = 0;
+            for(Component component : components) {
+                int[] cells = component.getConstraintCells();
+                for(int c = 0; c < component.getNumConstraints(); c++) {
+                    factorStart[f] = e;
+                    targets[f++] = component.getTarget(c);
+                    for(int j = component.getConstraintStart(c); j < component.getConstraintStart(c + 1); j++) {
+                        edgeVars[e++] = varOffset + cells[j];
+                    }
+                }
+                varOffset += component.size();
+            }
+            factorStart[numFactors] = numEdges;
+
+            // Invert the edges by counting sort.
+            varStart = new int[numVars + 1];
+            for(int edge = 0; edge < numEdges; edge++) {
+                varStart[edgeVars[edge] + 1]++;
+            }
+            for(int v = 0; v < numVars; v++) {
+                varStart[v + 1] += varStart[v];
+            }
+            varEdges = new int[numEdges];
+            int[] fill = varStart.clone();
+            for(int edge = 0; edge < numEdges; edge++) {
+                varEdges[fill[edgeVars[edge]]++] = edge;
+            }
+
+            toFactor = new double[numEdges];
+            toVar = new double[numEdges];
+            Arrays.fill(toFactor, prior);
+            Arrays.fill(toVar, 0.5);
+            color(numFactors, numEdges);
+        }
+
+        /**
+         * Helper method to color the factors greedily, so factors that share a variable get different colors.
+         * @param numFactors    : The number of factors.
+         * @param numEdges  : The number of edges.
+         */
+        private void color(int numFactors, int numEdges) {
+            int[] edgeFactor = new int[numEdges];
+            for(int f = 0; f < numFactors; f++) {
+                for(int e = factorStart[f]; e < factorStart[f + 1]; e++) {
+                    edgeFactor[e] = f;
+                }
+            }
+
+            int[] colors = new int[numFactors];
+            int[] usedBy = new int[numFactors + 1];     // Factor that last ruled each color out.
+            Arrays.fill(usedBy, -1);
+            int[] sizes = new int[numFactors + 1];
+            for(int f = 0; f < numFactors; f++) {
+                for(int e = factorStart[f]; e < factorStart[f + 1]; e++) {
+                    int v = edgeVars[e];
+                    for(int k = varStart[v]; k < varStart[v + 1]; k++) {
+                        int other = edgeFactor[varEdges[k]];
+                        if(other < f) {
+                            usedBy[colors[other]] = f;
+                        }
+                    }
+                }
+                int color = 0;
+                while(usedBy[color] == f) {
+                    color++;
+                }
+                colors[f] = color;
+                sizes[color]++;
+                numColors = Math.max(numColors, color + 1);
+            }
+
+            colorStart = new int[numColors + 1];
+            for(int c = 0; c < numColors; c++) {
+                colorStart[c + 1] = colorStart[c] + sizes[c];
+            }
+            colorFactors = new int[numFactors];
+            int[] fill = colorStart.clone();
+            for(int f = 0; f < numFactors; f++) {
+                colorFactors[fill[colors[f]]++] = f;
+            }
+        }
+
+        /**
+         * Updates a range of factors of one color: their messages to their variables, then the messages
+         * those variables send on to every factor.
+         * @param from  : The first slot in colorFactors.
+         * @param to    : One past the last slot.
+         * @param deadline  : The deadline, checked every FACTORS_PER_CHECK factors (see Deadline).
+         * @return The biggest change in a factor -> variable message, or CANCELLED if the deadline passed.
+         */
+        double updateFactors(int from, int to, long deadline) {
+            double[] forward = new double[(MAX_DEGREE + 1) * (MAX_DEGREE + 1)];
+            double[] backward = new double[(MAX_DEGREE + 2) * (MAX_DEGREE + 1)];
+            double change = 0;
+            for(int slot = from; slot < to; slot++) {
+                if((slot - from) % FACTORS_PER_CHECK == FACTORS_PER_CHECK - 1 && Deadline.passed(deadline)) {
+                    return CANCELLED;
+                }
+                int f = colorFactors[slot];
+                int start = factorStart[f];
+                int degree = factorStart[f + 1] - start;
+                int target = targets[f];
+                int width = degree + 1;
+
+                // forward[k * width + s]: chance the first k cells hold s mines; backward likewise for cells k onward.
+                Arrays.fill(forward, 0, width * width, 0);
+                Arrays.fill(backward, 0, (degree + 1) * width, 0);
+                forward[0] = 1;
+                for(int k = 0; k < degree; k++) {
+                    double q = toFactor[start + k];
+                    for(int s = 0; s <= k; s++) {
+                        double p = forward[k * width + s];
+                        forward[(k + 1) * width + s] += p * (1 - q);
+                        forward[(k + 1) * width + s + 1] += p * q;
+                    }
+                }
+                backward[degree * width] = 1;
+                for(int k = degree - 1; k >= 0; k--) {
+                    double q = toFactor[start + k];
+                    for(int s = 0; s < degree - k; s++) {
+                        double p = backward[(k + 1) * width + s];
+                        backward[k * width + s] += p * (1 - q);
+                        backward[k * width + s + 1] += p * q;
+                    }
+                }
+
+                // Message to cell k: the others hold target - 1 mines (cell k a mine) vs target (safe).
+                for(int k = 0; k < degree; k++) {
+                    double mine = 0;
+                    double safe = 0;
+                    for(int s = 0; s <= k; s++) {
+                        double p = forward[k * width + s];
+                        int rest = target - s;
+                        if(rest - 1 >= 0 && rest - 1 < degree - k) {
+                            mine += p * backward[(k + 1) * width + rest - 1];
+                        }
+                        if(rest >= 0 && rest < degree - k) {
+                            safe += p * backward[(k + 1) * width + rest];
+                        }
+                    }
+                    double message = mine + safe > 0 ? mine / (mine + safe) : 0.5;
+                    double damped = damping * toVar[start + k] + (1 - damping) * message;
+                    if(message == 0 || message == 1) {
+                        damped = message;   // Certain messages aren't damped, so they stay certain.
+                    }
+                    change = Math.max(change, Math.abs(damped - toVar[start + k]));
+                    toVar[start + k] = damped;
+                }
+
+                // The factor's variables pass the news on. No other factor of this color touches them.
+                for(int k = 0; k < degree; k++) {
+                    passOn(edgeVars[start + k]);
+                }
+            }
+            return change;
+        }
+
+        /**
+         * Helper method to update every message a variable sends: the product of all its incoming messages
+         * is taken once, and each outgoing message divides its own factor's share back out.
+         * Messages of exactly 0 or 1 can't be divided out, so they are counted instead.
+         * @param v : The variable.
+         */
+        private void passOn(int v) {
+            double mine = prior;
+            double safe = 1 - prior;
+            int mineZeros = 0;      // Messages that rule out a mine.
+            int safeZeros = 0;      // Messages that rule out safe.
+            for(int j = varStart[v]; j < varStart[v + 1]; j++) {
+                double message = toVar[varEdges[j]];
+                if(message == 0) {
+                    mineZeros++;
+                } else if(message == 1) {
+                    safeZeros++;
+                } else {
+                    mine *= message;
+                    safe *= 1 - message;
+                    double scale = 1 / (mine + safe);
+                    mine *= scale;
+                    safe *= scale;
+                }
+            }
+
+            for(int j = varStart[v]; j < varStart[v + 1]; j++) {
+                int edge = varEdges[j];
+                double message = toVar[edge];
+                double edgeMine;
+                double edgeSafe;
+                if(message == 0) {
+                    edgeMine = mineZeros > 1 ? 0 : mine;
+                    edgeSafe = safeZeros > 0 ? 0 : safe;
+                } else if(message == 1) {
+                    edgeMine = mineZeros > 0 ? 0 : mine;
+                    edgeSafe = safeZeros > 1 ? 0 : safe;
+                } else {
+                    edgeMine = mineZeros > 0 ? 0 : mine / message;
+                    edgeSafe = safeZeros > 0 ? 0 : safe / (1 - message);
+                }
+                toFactor[edge] = edgeMine + edgeSafe > 0 ? edgeMine / (edgeMine + edgeSafe) : 0.5;
+            }
+        }
+
+        /**
+         * Helper method to combine the prior with every factor's message to a variable but one.
+         * @param v : The variable.
+         * @param skip  : The edge to leave out, or -1 for the full belief.
+         * @return The chance the variable is a mine.
+         */
+        private double cavity(int v, int skip) {
+            double mine = prior;
+            double safe = 1 - prior;
+            for(int j = varStart[v]; j < varStart[v + 1]; j++) {
+                int edge = varEdges[j];
+                if(edge != skip) {
+                    mine *= toVar[edge];
+                    safe *= 1 - toVar[edge];
+                    if(mine + safe < 1e-200) {
+                        break;  // Contradictory messages; fall back below.
+                    }
+                    double scale = 1 / (mine + safe);
+                    mine *= scale;
+                    safe *= scale;
+                }
+            }
+            return mine + safe > 0 ? mine / (mine + safe) : 0.5;
+        }
+
+        /**
+         * Helper method to read off every variable's belief.
+         * @param components    : The components, in the order the graph was built from.
+         * @return For each component, each cell's chance of being a mine.
+         */
+        double[][] beliefs(List<Component> components) {
+            double[][] beliefs = new double[components.size()][];
+            int v = 0;
+            for(int k = 0; k < beliefs.length; k++) {
+                beliefs[k] = new double[components.get(k).size()];
+                for(int i = 0; i < beliefs[k].length; i++) {
+                    beliefs[k][i] = cavity(v++, -1);
+                }
+            }
+            return beliefs;
+        }
+    }
+
+    /**
+     * Fork/join task that updates a range of factors of one color, splitting the range in half until it is small.
+     */
+    private static class UpdateFactors extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Graph graph;
+        private final int from;
+        private final int to;
+        private final long deadline;
+        private double change;
+
+        UpdateFactors(Graph graph, int from, int to, long deadline) {
+            this.graph = graph;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= FACTORS_PER_TASK) {
+                change = graph.updateFactors(from, to, deadline);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            UpdateFactors left = new UpdateFactors(graph, from, mid, deadline);
+            UpdateFactors right = new UpdateFactors(graph, mid, to, deadline);
+            invokeAll(left, right);
+            change = left.change == CANCELLED || right.change == CANCELLED ? CANCELLED
+                   : Math.max(left.change, right.change);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package Minesweeper;
+
+/**
+ * Read/write API for the environment's answer key.
+ * Agents and the UI query cells through this instead of holding on to a raw int[][].
+ * Let ...
+ * -1 be a mine.
+ * n (0 - 8) be the number of mines around a space.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public interface Board {
+    /**
+     * Getter method for the board's dimension.
+     * @return The dimension of the board.
+     */
+    int getDim();
+
+    /**
+     * Getter method for a space on the board.
+     * @param row   : The row of the space.
+     * @param col   : The col of the space.
+     * @return -1 if the space is a mine, otherwise the number of mines around it.
+     */
+    int getValue(int row, int col);
+
+    /**
+     * Checks if a space on the board is a mine.
+     * @param row   : The row of the space.
+     * @param col   : The col of the space.
+     * @return true if the space is a mine, false otherwise.
+     */
+    boolean isMine(int row, int col);
+
+    /**
+     * Setter method for a space on the board.
+     * @param row   : The row of the space.
+     * @param col   : The col of the space.
+     * @param value : -1 for a mine, otherwise the number of mines around the space.
+     */
+    void setValue(int row, int col, int value);
+
+    /**
+     * Approximate number of bytes the board's storage takes up on the heap.
+     * @return The size of the board's storage in bytes.
+     */
+    long sizeInBytes();
+}
@@ -0,0 +1,169 @@
+package Minesweeper;
+
+/**
+ * Indexed min-heap of board positions keyed by mine probability, for the advanced agent's guesses.
+ * Positions are packed as row * dim + col. Each position knows its slot in the heap,
+ * so a key can be raised, lowered or removed in O(log n) without rebuilding the heap.
+ * Ties go to the smaller position, i.e. the first one in row-major order.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class CandidateHeap {
+    private int[] heap;         // Positions, as a binary heap.
+    private int[] slots;        // Slot of each position in the heap, or -1 if not in it.
+    private double[] keys;      // Key of each position in the heap.
+    private int size;
+
+    /**
+     * Constructor method for an empty heap.
+     * @param dim   : The board dimension.
+     */
+    public CandidateHeap(int dim) {
+        int cells = dim * dim;
+        this.heap = new int[cells];
+        this.slots = new int[cells];
+        this.keys = new double[cells];
+        this.size = 0;
+
+        for(int cell = 0; cell < cells; cell++) {
+            slots[cell] = -1;
+        }
+    }
+
+    /**
+     * Adds a position, or moves it if it is already in the heap.
+     * @param cell  : The position, as row * dim + col.
+     * @param key   : The position's probability.
+     */
+    public void update(int cell, double key) {
+        int slot = slots[cell];
+        if(slot < 0) {
+            keys[cell] = key;
+            heap[size] = cell;
+            slots[cell] = size;
+            siftUp(size++);
+            return;
+        }
+
+        double old = keys[cell];
+        keys[cell] = key;
+        if(key < old) {
+            siftUp(slot);
+        } else if(key > old) {
+            siftDown(slot);
+        }
+    }
+
+    /**
+     * Removes a position, if it is in the heap.
+     * @param cell  : The position, as row * dim + col.
+     */
+    public void remove(int cell) {
+        int slot = slots[cell];
+        if(slot < 0) {
+            return;
+        }
+
+        slots[cell] = -1;
+        size--;
+        if(slot == size) {
+            return;
+        }
+
+        // Fill the hole with the last position and let it settle.
+        int last = heap[size];
+        heap[slot] = last;
+        slots[last] = slot;
+        siftUp(slot);
+        siftDown(slots[last]);
+    }
+
+    /**
+     * Checks if a position is in the heap.
+     * @param cell  : The position, as row * dim + col.
+     * @return true if the position is in the heap.
+     */
+    public boolean contains(int cell) {
+        return slots[cell] >= 0;
+    }
+
+    /**
+     * Getter method for the position with the lowest probability.
+     * @return The position, as row * dim + col, or -1 if the heap is empty.
+     */
+    public int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    /**
+     * Getter method for the number of positions in the heap.
+     * @return The number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the heap is empty.
+     * @return true if there are no positions in the heap.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Helper method to move a position up until its parent is not greater.
+     * @param slot  : The position's slot.
+     */
+    private void siftUp(int slot) {
+        int cell = heap[slot];
+        while(slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if(!less(cell, heap[parent])) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            slots[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = cell;
+        slots[cell] = slot;
+    }
+
+    /**
+     * Helper method to move a position down until neither child is smaller.
+     * @param slot  : The position's slot.
+     */
+    private void siftDown(int slot) {
+        int cell = heap[slot];
+        while(true) {
+            int child = (slot << 1) + 1;
+            if(child >= size) {
+                break;
+            }
+            if(child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if(!less(heap[child], cell)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slots[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = cell;
+        slots[cell] = slot;
+    }
+
+    /**
+     * Helper method to order two positions by probability, then by position.
+     * @param a : The first position.
+     * @param b : The second position.
+     * @return true if a comes before b.
+     */
+    private boolean less(int a, int b) {
+        if(keys[a] != keys[b]) {
+            return keys[a] < keys[b];
+        }
+        return a < b;
+    }
+}
@@ -0,0 +1,142 @@
+package Minesweeper;
+
+/**
+ * Set of board positions drawn from a fixed group (e.g. the inner cells), for picking guesses at random.
+ * Positions are packed as row * dim + col. Membership is a bitset over the group, and a Fenwick tree
+ * counts the members of each 64-slot word, so adding, removing and finding the k-th position in row-major
+ * order are all O(log n) (with a tree 64 times smaller than the group, which stays in cache),
+ * and a random pick lands on the same position as indexing into a row-major list of the members.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class CellBucket {
+    private int[] group;        // Every position that can be in the bucket, in row-major order.
+    private int[] slots;        // Slot of each board position in its group (shared with sibling buckets).
+    private int[] tree;         // Fenwick tree of member counts per word of members, 1-based.
+    private long[] members;     // Bit per group slot: 1 if in the bucket.
+    private int size;
+    private int topBit;         // Highest power of two <= number of words.
+
+    /**
+     * Constructor method for a bucket that starts with every position of its group.
+     * @param group : The positions, as row * dim + col, in increasing order.
+     * @param slots : For every position on the board, its slot in whichever group holds it.
+     *                Buckets that split up one board can share this array.
+     */
+    public CellBucket(int[] group, int[] slots) {
+        this.group = group;
+        this.slots = slots;
+        this.members = new long[(group.length + 63) / 64];
+        this.tree = new int[members.length + 1];
+        this.size = group.length;
+
+        // Every slot is full, so each word holds 64 members (bar the last) and each node sums the words it covers.
+        for(int i = 0; i < group.length; i++) {
+            members[i >>> 6] |= 1L << i;
+        }
+        for(int i = 1; i < tree.length; i++) {
+            tree[i] += Long.bitCount(members[i - 1]);
+            int parent = i + (i & -i);
+            if(parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+
+        topBit = 1;
+        while(topBit * 2 < tree.length) {
+            topBit *= 2;
+        }
+    }
+
+    /**
+     * Adds a position back to the bucket, if it belongs to the group.
+     * @param cell  : The position, as row * dim + col.
+     */
+    public void add(int cell) {
+        int slot = slotOf(cell);
+        if(slot < 0 || (members[slot >>> 6] & (1L << slot)) != 0) {
+            return;
+        }
+        members[slot >>> 6] |= 1L << slot;
+        size++;
+        for(int i = (slot >>> 6) + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    /**
+     * Removes a position from the bucket, if it is in it.
+     * @param cell  : The position, as row * dim + col.
+     */
+    public void remove(int cell) {
+        int slot = slotOf(cell);
+        if(slot < 0 || (members[slot >>> 6] & (1L << slot)) == 0) {
+            return;
+        }
+        members[slot >>> 6] &= ~(1L << slot);
+        size--;
+        for(int i = (slot >>> 6) + 1; i < tree.length; i += i & -i) {
+            tree[i]--;
+        }
+    }
+
+    /**
+     * Checks if a position is in the bucket.
+     * @param cell  : The position, as row * dim + col.
+     * @return true if the position is in the bucket.
+     */
+    public boolean contains(int cell) {
+        int slot = slotOf(cell);
+        return slot >= 0 && (members[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Getter method for the k-th position in the bucket, in row-major order.
+     * @param k : The position's rank, from 0 to size() - 1.
+     * @return The position, as row * dim + col.
+     */
+    public int get(int k) {
+        // Walk down the tree to the word holding member k, skipping every node with fewer than k + 1 members.
+        int word = 0;
+        int remaining = k + 1;
+        for(int step = topBit; step > 0; step >>>= 1) {
+            int next = word + step;
+            if(next < tree.length && tree[next] < remaining) {
+                word = next;
+                remaining -= tree[next];
+            }
+        }
+
+        // Then drop the word's lowest members until the one wanted is lowest.
+        long bits = members[word];
+        for(int i = 1; i < remaining; i++) {
+            bits &= bits - 1;
+        }
+        return group[(word << 6) + Long.numberOfTrailingZeros(bits)];
+    }
+
+    /**
+     * Getter method for the number of positions in the bucket.
+     * @return The number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the bucket is empty.
+     * @return true if there are no positions in the bucket.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Helper method to find a position's slot in the group.
+     * @param cell  : The position, as row * dim + col.
+     * @return The slot, or -1 if the position isn't in the group.
+     */
+    private int slotOf(int cell) {
+        int slot = slots[cell];
+        return slot < group.length && group[slot] == cell ? slot : -1;
+    }
+}
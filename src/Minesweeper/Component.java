@@ -0,0 +1,138 @@
+package Minesweeper;
+
+/**
+ * One independent piece of the frontier: a set of hidden cells and the revealed clues that constrain them.
+ * No clue outside the component touches its cells, so it can be solved on its own.
+ * Cells are numbered 0 to size() - 1 in the order the solver assigns them (clue by clue, breadth first),
+ * and both directions of the cell/clue incidence are stored as flat CSR arrays.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class Component {
+    private int dim;                    // Dimension of the board the positions are on.
+    private int[] cells;                // Board position of each cell, as row * dim + col.
+    private int[] clues;                // Board position of each clue, as row * dim + col.
+    private int[] targets;              // Mines each clue still needs among its hidden neighbors.
+    private int[] constraintStart;      // Clue c's cells are constraintCells[constraintStart[c] ... constraintStart[c + 1] - 1].
+    private int[] constraintCells;
+    private int[] cellStart;            // Cell i's clues are cellConstraints[cellStart[i] ... cellStart[i + 1] - 1].
+    private int[] cellConstraints;
+
+    /**
+     * Constructor method for a component.
+     * @param dim   : The board dimension.
+     * @param cells : Board position of each cell, in solve order.
+     * @param clues : Board position of each clue.
+     * @param targets   : Mines each clue still needs.
+     * @param constraintStart   : Offsets of each clue's cells (length = clues + 1).
+     * @param constraintCells   : The cells of every clue, by cell number.
+     */
+    public Component(int dim, int[] cells, int[] clues, int[] targets, int[] constraintStart, int[] constraintCells) {
+        this.dim = dim;
+        this.cells = cells;
+        this.clues = clues;
+        this.targets = targets;
+        this.constraintStart = constraintStart;
+        this.constraintCells = constraintCells;
+
+        // Invert the clue -> cell lists into cell -> clue lists.
+        cellStart = new int[cells.length + 1];
+        for(int cell : constraintCells) {
+            cellStart[cell + 1]++;
+        }
+        for(int i = 0; i < cells.length; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        cellConstraints = new int[constraintCells.length];
+        int[] next = cellStart.clone();
+        for(int c = 0; c < targets.length; c++) {
+            for(int j = constraintStart[c]; j < constraintStart[c + 1]; j++) {
+                cellConstraints[next[constraintCells[j]]++] = c;
+            }
+        }
+    }
+
+    /**
+     * Getter method for the number of cells.
+     * @return The number of hidden cells in the component.
+     */
+    public int size() {
+        return cells.length;
+    }
+
+    /**
+     * Getter method for the number of clues.
+     * @return The number of clues in the component.
+     */
+    public int getNumConstraints() {
+        return targets.length;
+    }
+
+    /**
+     * Getter method for a cell's board position.
+     * @param i : The cell number.
+     * @return The position, as row * dim + col.
+     */
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    /**
+     * Getter method for a clue's board position.
+     * @param c : The clue number.
+     * @return The position, as row * dim + col.
+     */
+    public int getClue(int c) {
+        return clues[c];
+    }
+
+    /**
+     * Getter method for the board dimension.
+     * @return The dimension of the board the positions are on.
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * Getter method for the mines a clue still needs among its hidden neighbors.
+     * @param c : The clue number.
+     * @return The clue minus the revealed mines around it.
+     */
+    public int getTarget(int c) {
+        return targets[c];
+    }
+
+    /**
+     * Getter method for where a clue's cells start in getConstraintCells().
+     * @param c : The clue number (or getNumConstraints() for the end).
+     * @return The offset.
+     */
+    public int getConstraintStart(int c) {
+        return constraintStart[c];
+    }
+
+    /**
+     * Getter method for every clue's cells, back to back (not a copy).
+     * @return The cell numbers.
+     */
+    public int[] getConstraintCells() {
+        return constraintCells;
+    }
+
+    /**
+     * Getter method for where a cell's clues start in getCellConstraints().
+     * @param i : The cell number (or size() for the end).
+     * @return The offset.
+     */
+    public int getCellStart(int i) {
+        return cellStart[i];
+    }
+
+    /**
+     * Getter method for every cell's clues, back to back (not a copy).
+     * @return The clue numbers.
+     */
+    public int[] getCellConstraints() {
+        return cellConstraints;
+    }
+}
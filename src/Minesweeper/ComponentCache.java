@@ -0,0 +1,414 @@
+package Minesweeper;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of solved and sampled frontier components, shared by every game on every thread.
+ * A component is keyed by its shape: where its cells and clues sit relative to each other, and how many
+ * mines each clue still needs. Which clue covers which cell follows from the shape (a clue covers the
+ * component cells next to it), so equal keys mean equal constraint systems. Each shape is reduced to the
+ * smallest of its 8 rotations and reflections, so a pattern and its mirror images share one entry.
+ * Each entry holds the exact solution, the Monte Carlo estimate, or both, stored with their cells in that
+ * canonical order and reordered into the asking component's solve order on the way out.
+ * Eviction is least recently used, bounded by the total number of values held rather than entries,
+ * since a component's counts grow with the square of its size.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ComponentCache {
+    public static final long DEFAULT_CAPACITY = 1L << 22;  // Counts, about 32 MB.
+
+    private static final ComponentSolution UNSOLVED = new ComponentSolution(0);   // Marks a component the solver gave up on.
+    private static final ComponentEstimate UNESTIMATED = new ComponentEstimate(new double[0], new double[0], 0, false);  // Marks a component the estimator gave up on.
+
+    private final LinkedHashMap<Key, Entry> entries;    // Access order, guarded by itself.
+    private final long capacity;
+    private long weight;            // Values held, guarded by entries.
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();    // Time spent solving on misses.
+    private final LongAdder estimateHits = new LongAdder();
+    private final LongAdder estimateMisses = new LongAdder();
+
+    /**
+     * Constructor method for a cache of the default size.
+     */
+    public ComponentCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor method for a cache.
+     * @param capacity  : The most solution counts and estimate values to hold across all entries.
+     */
+    public ComponentCache(long capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, Entry>(1024, 0.75f, true);
+    }
+
+    /**
+     * Looks up a component's solution, solving and storing it on a miss.
+     * @param component : The component.
+     * @param solver    : The solver to use on a miss.
+     * @return The solution in the component's own cell order, or null if the solver gives up on it.
+     */
+    public ComponentSolution solve(Component component, ExactSolver solver) {
+        return solve(component, solver, Deadline.NONE);
+    }
+
+    /**
+     * Looks up a component's solution, solving and storing it on a miss unless the deadline cuts the solve off.
+     * @param component : The component.
+     * @param solver    : The solver to use on a miss.
+     * @param deadline  : The deadline for a miss (see Deadline).
+     * @return The solution in the component's own cell order, null if the solver gives up on it,
+     *         or ExactSolver.CANCELLED if the deadline passed.
+     */
+    ComponentSolution solve(Component component, ExactSolver solver, long deadline) {
+        Canonical canonical = new Canonical(component);
+
+        ComponentSolution cached = null;
+        synchronized(entries) {
+            Entry entry = entries.get(canonical.key);
+            if(entry != null) {
+                cached = entry.solution;
+            }
+        }
+        if(cached != null) {
+            hits.increment();
+            return cached == UNSOLVED ? null : cached.reorder(canonical.toCanonical());
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        ComponentSolution solution = solver.search(component, deadline);
+        missNanos.add(System.nanoTime() - start);
+        if(solution == ExactSolver.CANCELLED) {
+            return solution;    // Unfinished; nothing to remember.
+        }
+
+        store(canonical.key, solution == null ? UNSOLVED : solution.reorder(canonical.toLocal()), null);
+        return solution;
+    }
+
+    /**
+     * Looks up a component's estimate, sampling and storing it on a miss.
+     * An estimate stopped by the estimator's own budget is stored, converged or not, and so is the estimator
+     * giving up. One cut off by the caller's deadline is not, so a later lookup with more time samples again.
+     * @param component : The component.
+     * @param estimator : The estimator to use on a miss.
+     * @param rand  : The stream to sample with on a miss.
+     * @param deadline  : The deadline for a miss (see Deadline).
+     * @return The estimate in the component's own cell order, or null if the estimator gives up on it.
+     */
+    ComponentEstimate estimate(Component component, MonteCarloEstimator estimator, SplittableRandom rand,
+                               long deadline) {
+        Canonical canonical = new Canonical(component);
+
+        ComponentEstimate cached = null;
+        synchronized(entries) {
+            Entry entry = entries.get(canonical.key);
+            if(entry != null) {
+                cached = entry.estimate;
+            }
+        }
+        if(cached != null) {
+            estimateHits.increment();
+            return cached == UNESTIMATED ? null : cached.reorder(canonical.toCanonical());
+        }
+
+        estimateMisses.increment();
+        ComponentEstimate estimate = estimator.sample(component, rand, deadline);
+        if(Deadline.passed(deadline)) {
+            return estimate;    // Cut short; nothing to remember.
+        }
+
+        store(canonical.key, null, estimate == null ? UNESTIMATED : estimate.reorder(canonical.toLocal()));
+        return estimate;
+    }
+
+    /**
+     * Getter method for the number of lookups answered from the cache.
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Getter method for the number of lookups that had to solve.
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Getter method for the number of estimate lookups answered from the cache.
+     * @return The number of estimate hits.
+     */
+    public long getEstimateHits() {
+        return estimateHits.sum();
+    }
+
+    /**
+     * Getter method for the number of estimate lookups that had to sample.
+     * @return The number of estimate misses.
+     */
+    public long getEstimateMisses() {
+        return estimateMisses.sum();
+    }
+
+    /**
+     * Getter method for the number of entries dropped to stay under capacity.
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Calculates the fraction of lookups answered from the cache.
+     * @return hits / lookups, or 0 before any lookup.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double)hitCount / lookups;
+    }
+
+    /**
+     * Estimates the solver time the cache saved, assuming each hit would have cost an average miss.
+     * @return The estimated time saved, in seconds.
+     */
+    public double getSecondsSaved() {
+        long missCount = misses.sum();
+        return missCount == 0 ? 0 : (double)missNanos.sum() / missCount * hits.sum() / 1e9;
+    }
+
+    /**
+     * Getter method for the number of entries.
+     * @return The number of components cached.
+     */
+    public int size() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        String text = String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries, ~%.3f s solver time saved",
+                                    getHits(), getMisses(), 100 * getHitRate(), getEvictions(), size(), getSecondsSaved());
+        long estimateLookups = getEstimateHits() + getEstimateMisses();
+        if(estimateLookups > 0) {
+            text += String.format(", %d estimate hits, %d estimate misses (%.1f%% hit rate)",
+                                  getEstimateHits(), getEstimateMisses(), 100.0 * getEstimateHits() / estimateLookups);
+        }
+        return text;
+    }
+
+    /**
+     * Helper method to add a solution or an estimate to a component's entry, evicting the least recently used
+     * entries until it fits.
+     * @param key   : The canonical key.
+     * @param solution  : The solution in canonical order, UNSOLVED, or null to leave the entry's solution as is.
+     * @param estimate  : The estimate in canonical order, UNESTIMATED, or null to leave the entry's estimate as is.
+     */
+    private void store(Key key, ComponentSolution solution, ComponentEstimate estimate) {
+        synchronized(entries) {
+            Entry entry = entries.get(key);
+            if(entry == null) {
+                entry = new Entry();
+            } else {
+                weight -= entry.weigh();    // Replaced below, with whatever another thread stored first.
+            }
+            if(solution != null) {
+                entry.solution = solution;
+            }
+            if(estimate != null) {
+                entry.estimate = estimate;
+            }
+            long entryWeight = entry.weigh();
+            if(entryWeight > capacity) {
+                entries.remove(key);
+                return;
+            }
+            entries.put(key, entry);
+            weight += entryWeight;
+
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while(weight > capacity && eldest.hasNext()) {
+                weight -= eldest.next().getValue().weigh();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * What is known about one component shape, in canonical cell order. Guarded by entries.
+     */
+    private static class Entry {
+        private ComponentSolution solution;     // The exact solution, UNSOLVED, or null if not solved yet.
+        private ComponentEstimate estimate;     // The sampled estimate, UNESTIMATED, or null if not sampled yet.
+
+        /**
+         * @return The number of counts and estimate values held, plus one for the entry itself.
+         */
+        long weigh() {
+            long total = 1;
+            if(solution != null) {
+                long size = solution.size();
+                total += (size + 1) * (size + 1);
+            }
+            if(estimate != null) {
+                total += 2L * estimate.size();
+            }
+            return total;
+        }
+    }
+
+    /**
+     * The canonical key of a component and the cell order that goes with it.
+     */
+    private static class Canonical {
+        private Key key;
+        private int[] order;    // Local number of each cell, in canonical order.
+
+        Canonical(Component component) {
+            int dim = component.getDim();
+            int size = component.size();
+            int numClues = component.getNumConstraints();
+            int[] rows = new int[size + numClues];
+            int[] cols = new int[size + numClues];
+            for(int i = 0; i < size; i++) {
+                rows[i] = component.getCell(i) / dim;
+                cols[i] = component.getCell(i) % dim;
+            }
+            for(int c = 0; c < numClues; c++) {
+                rows[size + c] = component.getClue(c) / dim;
+                cols[size + c] = component.getClue(c) % dim;
+            }
+
+            // Encode the shape under each symmetry and keep the smallest encoding.
+            long[] cellCodes = new long[size];
+            long[] clueCodes = new long[numClues];
+            int[] best = null;
+            for(int symmetry = 0; symmetry < 8; symmetry++) {
+                int minRow = Integer.MAX_VALUE;
+                int minCol = Integer.MAX_VALUE;
+                for(int p = 0; p < rows.length; p++) {
+                    minRow = Math.min(minRow, transformRow(symmetry, rows[p], cols[p]));
+                    minCol = Math.min(minCol, transformCol(symmetry, rows[p], cols[p]));
+                }
+
+                // Cells sort by position; the local number rides in the low bits so the order can be read back.
+                for(int i = 0; i < size; i++) {
+                    long position = pack(transformRow(symmetry, rows[i], cols[i]) - minRow,
+                                         transformCol(symmetry, rows[i], cols[i]) - minCol);
+                    cellCodes[i] = position << 32 | i;
+                }
+                for(int c = 0; c < numClues; c++) {
+                    long position = pack(transformRow(symmetry, rows[size + c], cols[size + c]) - minRow,
+                                         transformCol(symmetry, rows[size + c], cols[size + c]) - minCol);
+                    clueCodes[c] = position << 32 | component.getTarget(c);
+                }
+                Arrays.sort(cellCodes);
+                Arrays.sort(clueCodes);
+
+                int[] encoding = new int[2 + size + 2 * numClues];
+                encoding[0] = size;
+                encoding[1] = numClues;
+                for(int i = 0; i < size; i++) {
+                    encoding[2 + i] = (int)(cellCodes[i] >>> 32);
+                }
+                for(int c = 0; c < numClues; c++) {
+                    encoding[2 + size + 2 * c] = (int)(clueCodes[c] >>> 32);
+                    encoding[3 + size + 2 * c] = (int)clueCodes[c];
+                }
+
+                if(best == null || compare(encoding, best) < 0) {
+                    best = encoding;
+                    order = new int[size];
+                    for(int i = 0; i < size; i++) {
+                        order[i] = (int)cellCodes[i];
+                    }
+                }
+            }
+            key = new Key(best);
+        }
+
+        /**
+         * @return For each canonical cell, its local number (to reorder a local solution into canonical order).
+         */
+        int[] toLocal() {
+            return order;
+        }
+
+        /**
+         * @return For each local cell, its canonical number (to reorder a canonical solution into local order).
+         */
+        int[] toCanonical() {
+            int[] inverse = new int[order.length];
+            for(int i = 0; i < order.length; i++) {
+                inverse[order[i]] = i;
+            }
+            return inverse;
+        }
+
+        private static long pack(int row, int col) {
+            return (long)row << 16 | col;
+        }
+
+        private static int transformRow(int symmetry, int row, int col) {
+            int r = (symmetry & 1) != 0 ? -row : row;
+            int c = (symmetry & 2) != 0 ? -col : col;
+            return (symmetry & 4) != 0 ? c : r;
+        }
+
+        private static int transformCol(int symmetry, int row, int col) {
+            int r = (symmetry & 1) != 0 ? -row : row;
+            int c = (symmetry & 2) != 0 ? -col : col;
+            return (symmetry & 4) != 0 ? r : c;
+        }
+
+        private static int compare(int[] a, int[] b) {
+            for(int i = 0; i < a.length && i < b.length; i++) {
+                if(a[i] != b[i]) {
+                    return Integer.compare(a[i], b[i]);
+                }
+            }
+            return Integer.compare(a.length, b.length);
+        }
+    }
+
+    /**
+     * A canonical encoding, with its hash worked out once.
+     */
+    private static class Key {
+        private final int[] encoding;
+        private final int hash;
+
+        Key(int[] encoding) {
+            this.encoding = encoding;
+            this.hash = Arrays.hashCode(encoding);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(encoding, ((Key)other).encoding);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
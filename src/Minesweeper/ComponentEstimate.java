@@ -0,0 +1,85 @@
+package Minesweeper;
+
+/**
+ * Sampled mine probabilities for one frontier component, with a confidence bound on each.
+ * Each probability is the mean over several independent chains, and its bound is the half-width of a
+ * 95% interval from the spread between the chains' own means, or 3 over the samples taken if that is wider.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ComponentEstimate {
+    private double[] probabilities;
+    private double[] bounds;
+    private long samples;           // Fewest samples any chain took.
+    private boolean converged;      // true if the safest cells' bounds came in under the tolerance.
+
+    /**
+     * Constructor method for an estimate.
+     * @param probabilities : The estimated probability of each cell.
+     * @param bounds    : The half-width of each cell's interval.
+     * @param samples   : The fewest samples any chain took.
+     * @param converged : true if the estimator stopped because the bounds were tight enough.
+     */
+    public ComponentEstimate(double[] probabilities, double[] bounds, long samples, boolean converged) {
+        this.probabilities = probabilities;
+        this.bounds = bounds;
+        this.samples = samples;
+        this.converged = converged;
+    }
+
+    /**
+     * Copies the estimate with the cells in another order.
+     * @param order : For each cell of the copy, its number in this estimate.
+     * @return The reordered copy.
+     */
+    public ComponentEstimate reorder(int[] order) {
+        double[] copyProbabilities = new double[order.length];
+        double[] copyBounds = new double[order.length];
+        for(int i = 0; i < order.length; i++) {
+            copyProbabilities[i] = probabilities[order[i]];
+            copyBounds[i] = bounds[order[i]];
+        }
+        return new ComponentEstimate(copyProbabilities, copyBounds, samples, converged);
+    }
+
+    /**
+     * Getter method for the number of cells.
+     * @return The number of cells in the component.
+     */
+    public int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * Getter method for a cell's estimated probability.
+     * @param i : The cell number.
+     * @return The fraction of samples in which the cell was a mine.
+     */
+    public double getProbability(int i) {
+        return probabilities[i];
+    }
+
+    /**
+     * Getter method for a cell's confidence bound.
+     * @param i : The cell number.
+     * @return The half-width of the cell's 95% interval.
+     */
+    public double getBound(int i) {
+        return bounds[i];
+    }
+
+    /**
+     * Getter method for the number of samples.
+     * @return The fewest samples any chain took.
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Checks if the estimate converged.
+     * @return true if the safest cells' bounds are under the tolerance, false if the sweep limit or the time budget came first.
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
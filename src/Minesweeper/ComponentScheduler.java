@@ -0,0 +1,480 @@
+package Minesweeper;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prices each frontier component with the cheapest engine expected to meet an accuracy target.
+ * The engines are exact enumeration (ExactSolver), sampling (MonteCarloEstimator), belief propagation
+ * (BeliefPropagation), and the local rules, which leave the heuristic's prices as they are.
+ * A cost model predicts each engine's time and error on a component from its size and clue density
+ * (clues per cell): both start from rough priors and follow what each engine actually took and how far
+ * off it was, as moving averages per size and density. Belief propagation's error is measured against
+ * exact solutions now and then; sampling's comes from its own confidence bounds; exact solving has none.
+ * Exact solution counts are worth more than any estimate (the mine count weighs them, and they prove cells),
+ * so a component goes to exact enumeration whenever it is expected to fit the time budget. Otherwise it goes
+ * to the cheapest engine within the budget that meets the target; failing that, the most accurate one within
+ * the budget; failing that, the cheapest one. An engine gets DEADLINE_BUDGETS time budgets on a component
+ * before it is cut off, which counts as giving up. If an engine gives up on a component, it is routed again
+ * without that engine, and the local rules are left once every engine has. The model also keeps each engine's
+ * recent rate of giving up per size and density; where it is near certain, the engine is skipped, apart from
+ * one component in RETRY_ODDS, which lets it back in if it starts succeeding.
+ * Components are independent, so a list of them is priced in parallel on a fork/join pool; the engines
+ * themselves are best given no pool of their own. Routing depends on timing, so a seed no longer fixes it.
+ * Shared between threads; the statistics are kept per engine so the cost model can be tuned.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ComponentScheduler {
+    public static final int EXACT = 0;
+    public static final int SAMPLED = 1;
+    public static final int BELIEF = 2;
+    public static final int LOCAL = 3;
+    public static final int NUM_ENGINES = 4;
+
+    public static final double DEFAULT_TARGET_ERROR = 0.02;
+    public static final long DEFAULT_COMPONENT_NANOS = 2000000L;    // 2 ms.
+
+    private static final String[] ENGINE_NAMES = {"exact", "sampled", "belief", "local"};
+    private static final double BELIEF_PRIOR_ERROR = 0.05;  // Belief propagation's error until it is measured.
+    private static final double SMOOTHING = 0.2;        // Weight of the newest observation in the moving averages.
+    private static final int CALIBRATION_ODDS = 16;     // One exactly solved component in this many checks belief propagation.
+    private static final int MAX_SIZE = 64;             // Sizes above this share the last size bucket.
+    private static final int DENSITY_BUCKETS = 4;       // Over 0 to 2 clues per cell.
+    private static final int DEADLINE_BUDGETS = 4;      // Time budgets an engine gets on a component before it is cut off.
+    private static final double MAX_FAILURE_RATE = 0.9; // Rate of giving up over which an engine is skipped.
+    private static final int RETRY_ODDS = 32;           // One skip in this many tries the engine anyway.
+
+    private ForkJoinPool pool;      // null to price components one after another.
+    private ExactSolver exactSolver;
+    private MonteCarloEstimator estimator;
+    private BeliefPropagation beliefPropagation;
+    private double targetError;
+    private long componentNanos;
+
+    // Cost model: log2 of nanoseconds, the largest probability error, and the rate of giving up,
+    // per engine and bucket (NaN until seen), with the skips since each was last tried. Guarded by logCost.
+    private final double[][] logCost = new double[NUM_ENGINES][MAX_SIZE * DENSITY_BUCKETS];
+    private final double[][] error = new double[NUM_ENGINES][MAX_SIZE * DENSITY_BUCKETS];
+    private final double[][] failureRate = new double[NUM_ENGINES][MAX_SIZE * DENSITY_BUCKETS];
+    private final int[][] skips = new int[NUM_ENGINES][MAX_SIZE * DENSITY_BUCKETS];
+
+    private final LongAdder[] routed = new LongAdder[NUM_ENGINES];
+    private final LongAdder[] failed = new LongAdder[NUM_ENGINES];
+    private final LongAdder[] engineNanos = new LongAdder[NUM_ENGINES];
+    private final LongAdder calibrations = new LongAdder();
+    private final LongAdder solvedExactly = new LongAdder();
+
+    /**
+     * Constructor method for a scheduler with the default accuracy target and time budget.
+     * @param pool  : The pool to price components on, or null to price them sequentially.
+     * @param exactSolver   : The exact solver, or null.
+     * @param estimator : The sampler, or null.
+     * @param beliefPropagation : The belief propagation engine, or null.
+     */
+    public ComponentScheduler(ForkJoinPool pool, ExactSolver exactSolver, MonteCarloEstimator estimator,
+                              BeliefPropagation beliefPropagation) {
+        this(pool, exactSolver, estimator, beliefPropagation, DEFAULT_TARGET_ERROR, DEFAULT_COMPONENT_NANOS);
+    }
+
+    /**
+     * Constructor method for a scheduler.
+     * @param pool  : The pool to price components on, or null to price them sequentially.
+     * @param exactSolver   : The exact solver, or null.
+     * @param estimator : The sampler, or null.
+     * @param beliefPropagation : The belief propagation engine, or null.
+     * @param targetError   : The largest probability error an engine may be expected to make.
+     * @param componentNanos    : The time an engine may be expected to take on one component, in nanoseconds.
+     */
+    public ComponentScheduler(ForkJoinPool pool, ExactSolver exactSolver, MonteCarloEstimator estimator,
+                              BeliefPropagation beliefPropagation, double targetError, long componentNanos) {
+        this.pool = pool;
+        this.exactSolver = exactSolver;
+        this.estimator = estimator;
+        this.beliefPropagation = beliefPropagation;
+        this.targetError = targetError;
+        this.componentNanos = componentNanos;
+        for(int e = 0; e < NUM_ENGINES; e++) {
+            Arrays.fill(logCost[e], Double.NaN);
+            Arrays.fill(error[e], Double.NaN);
+            Arrays.fill(failureRate[e], Double.NaN);
+            routed[e] = new LongAdder();
+            failed[e] = new LongAdder();
+            engineNanos[e] = new LongAdder();
+        }
+    }
+
+    /**
+     * Prices a list of components. Each one ends up with exact solution counts, approximate probabilities,
+     * or neither (left to the local rules).
+     * @param components    : The components.
+     * @param prior : The chance of a mine with nothing else known, for belief propagation.
+     * @param rand  : The stream the sampler's streams are split from.
+     * @param solutions : Filled in per component: the solution counts if it was solved exactly, otherwise null.
+     * @param probabilities : Filled in per component: each cell's probability if it was approximated, otherwise null.
+     */
+    public void run(List<Component> components, double prior, SplittableRandom rand,
+                    ComponentSolution[] solutions, double[][] probabilities) {
+        // Streams are split up front, in component order, whatever order the components run in.
+        SplittableRandom[] streams = new SplittableRandom[components.size()];
+        for(int k = 0; k < streams.length; k++) {
+            streams[k] = rand.split();
+        }
+
+        if(pool == null || components.size() < 2) {
+            for(int k = 0; k < streams.length; k++) {
+                price(components.get(k), prior, streams[k], solutions, probabilities, k);
+            }
+        } else {
+            pool.invoke(new PriceComponents(components, prior, streams, solutions, probabilities, 0, streams.length));
+        }
+    }
+
+    /**
+     * Picks the engine for a component, as run() would.
+     * Counts towards the retries of engines skipped for giving up.
+     * @param component : The component.
+     * @param excluded  : Engines not to pick, as a bit mask over engine numbers.
+     * @return The engine.
+     */
+    public int route(Component component, int excluded) {
+        int bucket = bucketFor(component);
+        double budget = log2(componentNanos);
+        double[] cost = new double[NUM_ENGINES];
+        double[] err = new double[NUM_ENGINES];
+        boolean[] available = new boolean[NUM_ENGINES];
+        synchronized(logCost) {
+            for(int e = 0; e < LOCAL; e++) {
+                available[e] = isConfigured(e) && (excluded & (1 << e)) == 0;
+                if(available[e] && failureRate[e][bucket] > MAX_FAILURE_RATE) {
+                    available[e] = ++skips[e][bucket] % RETRY_ODDS == 0;
+                }
+                if(available[e]) {
+                    cost[e] = Double.isNaN(logCost[e][bucket]) ? priorLogCost(e, component) : logCost[e][bucket];
+                    err[e] = Double.isNaN(error[e][bucket]) ? priorError(e) : error[e][bucket];
+                }
+            }
+        }
+
+        // Exact whenever it fits the budget.
+        if(available[EXACT] && cost[EXACT] <= budget) {
+            return EXACT;
+        }
+
+        // Otherwise the cheapest that meets the target within the budget.
+        int best = -1;
+        for(int e = 0; e < LOCAL; e++) {
+            if(available[e] && cost[e] <= budget && err[e] <= targetError && (best < 0 || cost[e] < cost[best])) {
+                best = e;
+            }
+        }
+
+        // Otherwise the most accurate within the budget.
+        if(best < 0) {
+            for(int e = 0; e < LOCAL; e++) {
+                if(available[e] && cost[e] <= budget && (best < 0 || err[e] < err[best])) {
+                    best = e;
+                }
+            }
+        }
+
+        // Otherwise the cheapest.
+        if(best < 0) {
+            for(int e = 0; e < LOCAL; e++) {
+                if(available[e] && (best < 0 || cost[e] < cost[best])) {
+                    best = e;
+                }
+            }
+        }
+        return best < 0 ? LOCAL : best;
+    }
+
+    /**
+     * Getter method for the number of components an engine priced (or, for LOCAL, was left with).
+     * @param engine    : The engine.
+     * @return The number of components.
+     */
+    public long getRouted(int engine) {
+        return routed[engine].sum();
+    }
+
+    /**
+     * Getter method for the number of components an engine was routed and gave up on.
+     * @param engine    : The engine.
+     * @return The number of components.
+     */
+    public long getFailed(int engine) {
+        return failed[engine].sum();
+    }
+
+    /**
+     * Getter method for the time an engine spent, including on components it gave up on.
+     * @param engine    : The engine.
+     * @return The time, in seconds.
+     */
+    public double getSeconds(int engine) {
+        return engineNanos[engine].sum() / 1e9;
+    }
+
+    /**
+     * Getter method for the number of times belief propagation was checked against an exact solution.
+     * @return The number of checks.
+     */
+    public long getCalibrations() {
+        return calibrations.sum();
+    }
+
+    /**
+     * Getter method for what the cost model currently expects an engine to take and be off by on a component.
+     * @param engine    : The engine (not LOCAL).
+     * @param component : The component.
+     * @return {predicted nanoseconds, predicted largest probability error}.
+     */
+    public double[] getPrediction(int engine, Component component) {
+        int bucket = bucketFor(component);
+        synchronized(logCost) {
+            double cost = Double.isNaN(logCost[engine][bucket]) ? priorLogCost(engine, component) : logCost[engine][bucket];
+            double err = Double.isNaN(error[engine][bucket]) ? priorError(engine) : error[engine][bucket];
+            return new double[] {Math.pow(2, cost), err};
+        }
+    }
+
+    /**
+     * Getter method for the exact solver, which the agent also checks its marks with.
+     * @return The solver, or null.
+     */
+    public ExactSolver getExactSolver() {
+        return exactSolver;
+    }
+
+    /**
+     * Getter method for an engine's name.
+     * @param engine    : The engine.
+     * @return The name.
+     */
+    public static String getEngineName(int engine) {
+        return ENGINE_NAMES[engine];
+    }
+
+    @Override
+    public String toString() {
+        String stats = "";
+        for(int e = 0; e < NUM_ENGINES; e++) {
+            stats += String.format("%s%s %d (%d failed, %.3f s)", e == 0 ? "" : ", ", getEngineName(e),
+                                   getRouted(e), getFailed(e), getSeconds(e));
+        }
+        return stats + ", " + getCalibrations() + " calibrations";
+    }
+
+    /**
+     * Helper method to price one component, falling back to another engine if the routed one gives up.
+     * @param component : The component.
+     * @param prior : The chance of a mine with nothing else known.
+     * @param rand  : The component's own stream.
+     * @param solutions : Where exact solution counts go.
+     * @param probabilities : Where approximate probabilities go.
+     * @param k : The component's number.
+     */
+    private void price(Component component, double prior, SplittableRandom rand,
+                       ComponentSolution[] solutions, double[][] probabilities, int k) {
+        int excluded = 0;
+        while(true) {
+            int engine = route(component, excluded);
+            if(engine == LOCAL) {
+                routed[LOCAL].increment();
+                return;
+            }
+
+            long start = System.nanoTime();
+            long deadline = start + DEADLINE_BUDGETS * componentNanos;
+            double err = 0;
+            boolean done = false;
+            if(engine == EXACT) {
+                ComponentSolution solution = exactSolver.solve(component, deadline);
+                if(solution != null && solution.getTotalSolutions() > 0) {     // Not CANCELLED either.
+                    solutions[k] = solution;
+                    done = true;
+                }
+            } else if(engine == SAMPLED) {
+                ComponentEstimate estimate = estimator.estimate(component, rand, deadline);
+                if(estimate != null && !Deadline.passed(deadline)) {
+                    probabilities[k] = new double[component.size()];
+                    for(int i = 0; i < component.size(); i++) {
+                        probabilities[k][i] = estimate.getProbability(i);
+                        err = Math.max(err, estimate.getBound(i));
+                    }
+                    done = true;
+                }
+            } else {
+                double[][] beliefs = beliefPropagation.run(Collections.singletonList(component), prior, deadline);
+                if(beliefs != null) {
+                    probabilities[k] = beliefs[0];
+                    done = true;
+                }
+            }
+            long nanos = System.nanoTime() - start;
+            engineNanos[engine].add(nanos);
+
+            if(done) {
+                routed[engine].increment();
+                record(engine, component, nanos, engine == BELIEF ? Double.NaN : err, false);
+                if(engine == EXACT) {
+                    solvedExactly.increment();
+                    if(beliefPropagation != null && solvedExactly.sum() % CALIBRATION_ODDS == 0) {
+                        calibrate(component, solutions[k]);
+                    }
+                }
+                return;
+            }
+
+            // Gave up or ran out of time: remember it as well over the budget, and try the next engine.
+            failed[engine].increment();
+            record(engine, component, Math.max(nanos, 2 * componentNanos), Double.NaN, true);
+            excluded |= 1 << engine;
+        }
+    }
+
+    /**
+     * Helper method to measure belief propagation's error on a component that was solved exactly.
+     * Exact marginals weigh every solution the same, which is belief propagation with an even prior.
+     * @param component : The component.
+     * @param solution  : Its exact solution counts.
+     */
+    private void calibrate(Component component, ComponentSolution solution) {
+        long start = System.nanoTime();
+        double[] beliefs = beliefPropagation.run(Collections.singletonList(component), 0.5)[0];
+        long nanos = System.nanoTime() - start;
+        double err = 0;
+        for(int i = 0; i < component.size(); i++) {
+            err = Math.max(err, Math.abs(beliefs[i] - solution.getProbability(i)));
+        }
+        calibrations.increment();
+        engineNanos[BELIEF].add(nanos);
+        record(BELIEF, component, nanos, err, false);
+    }
+
+    /**
+     * Helper method to fold one observation into the cost model.
+     * @param engine    : The engine.
+     * @param component : The component.
+     * @param nanos : The time it took.
+     * @param err   : The largest probability error seen, or NaN if unknown.
+     * @param gaveUp    : True if the engine gave up or ran out of time.
+     */
+    private void record(int engine, Component component, long nanos, double err, boolean gaveUp) {
+        int bucket = bucketFor(component);
+        double cost = log2(Math.max(nanos, 1));
+        synchronized(logCost) {
+            logCost[engine][bucket] = smooth(logCost[engine][bucket], cost);
+            failureRate[engine][bucket] = smooth(failureRate[engine][bucket], gaveUp ? 1 : 0);
+            if(!Double.isNaN(err)) {
+                error[engine][bucket] = smooth(error[engine][bucket], err);
+            }
+        }
+    }
+
+    /**
+     * Helper method to check if an engine was given.
+     * @param engine    : The engine (not LOCAL).
+     * @return true if the engine can be routed to.
+     */
+    private boolean isConfigured(int engine) {
+        return engine == EXACT ? exactSolver != null : engine == SAMPLED ? estimator != null : beliefPropagation != null;
+    }
+
+    /**
+     * Helper method for an engine's time on a component it has no history for.
+     * Exact enumeration grows exponentially with size, faster where clues are sparse; the others grow linearly.
+     * Exact's curve is fitted to 16x16 games, where components up to ExactSolver's size cap take well under 2 ms.
+     * @param engine    : The engine (not LOCAL).
+     * @param component : The component.
+     * @return log2 of the nanoseconds expected.
+     */
+    private static double priorLogCost(int engine, Component component) {
+        int size = component.size();
+        double density = Math.min((double)component.getNumConstraints() / size, 2);
+        if(engine == EXACT) {
+            return 11 + size * (2 - density) / 8;
+        } else if(engine == SAMPLED) {
+            return 18 + log2(size);
+        }
+        return 11 + log2(size);
+    }
+
+    /**
+     * Helper method for an engine's error on a component it has no history for.
+     * @param engine    : The engine (not LOCAL).
+     * @return The largest probability error expected.
+     */
+    private double priorError(int engine) {
+        return engine == EXACT ? 0 : engine == SAMPLED ? estimator.getTolerance() : BELIEF_PRIOR_ERROR;
+    }
+
+    /**
+     * Helper method to find a component's bucket in the cost model.
+     * @param component : The component.
+     * @return The bucket.
+     */
+    private static int bucketFor(Component component) {
+        int size = Math.min(component.size(), MAX_SIZE);
+        double density = (double)component.getNumConstraints() / component.size();
+        int densityBucket = Math.min((int)(density * DENSITY_BUCKETS / 2), DENSITY_BUCKETS - 1);
+        return (size - 1) * DENSITY_BUCKETS + densityBucket;
+    }
+
+    /**
+     * Helper method for one step of a moving average.
+     * @param average   : The average so far, or NaN if there is none.
+     * @param value : The newest observation.
+     * @return The new average.
+     */
+    private static double smooth(double average, double value) {
+        return Double.isNaN(average) ? value : average + SMOOTHING * (value - average);
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+
+    /**
+     * Fork/join task that prices a range of components, splitting the range in half until it is one component.
+     */
+    private class PriceComponents extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Component> components;
+        private final double prior;
+        private final SplittableRandom[] streams;
+        private final ComponentSolution[] solutions;
+        private final double[][] probabilities;
+        private final int from;
+        private final int to;
+
+        PriceComponents(List<Component> components, double prior, SplittableRandom[] streams,
+                        ComponentSolution[] solutions, double[][] probabilities, int from, int to) {
+            this.components = components;
+            this.prior = prior;
+            this.streams = streams;
+            this.solutions = solutions;
+            this.probabilities = probabilities;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                price(components.get(from), prior, streams[from], solutions, probabilities, from);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new PriceComponents(components, prior, streams, solutions, probabilities, from, mid),
+                      new PriceComponents(components, prior, streams, solutions, probabilities, mid, to));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package Minesweeper;
+
+/**
+ * Solution counts for one frontier component, split by how many mines the component holds.
+ * For every mine count k it keeps the number of assignments that satisfy every clue,
+ * and for every cell how many of those assignments make it a mine.
+ * Counts are doubles, since they can outgrow a long on large components.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ComponentSolution {
+    private int size;
+    private double[] solutions;     // Solutions with k mines, by k.
+    private double[] mineCounts;    // Solutions with k mines where cell i is a mine, at k * size + i.
+
+    /**
+     * Constructor method for a component with no solutions counted yet.
+     * @param size  : The number of cells in the component.
+     */
+    public ComponentSolution(int size) {
+        this.size = size;
+        this.solutions = new double[size + 1];
+        this.mineCounts = new double[(size + 1) * size];
+    }
+
+    /**
+     * Counts one more solution.
+     * @param mines : The number of mines in the solution.
+     * @param assignment    : 1 for every cell that is a mine in the solution, 0 otherwise.
+     */
+    public void addSolution(int mines, byte[] assignment) {
+        solutions[mines]++;
+        int base = mines * size;
+        for(int i = 0; i < size; i++) {
+            mineCounts[base + i] += assignment[i];
+        }
+    }
+
+    /**
+     * Copies the counts with the cells in another order.
+     * @param order : For each cell of the copy, its number in this solution.
+     * @return The reordered copy.
+     */
+    public ComponentSolution reorder(int[] order) {
+        ComponentSolution copy = new ComponentSolution(size);
+        System.arraycopy(solutions, 0, copy.solutions, 0, solutions.length);
+        for(int k = 0; k <= size; k++) {
+            int base = k * size;
+            for(int i = 0; i < size; i++) {
+                copy.mineCounts[base + i] = mineCounts[base + order[i]];
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Getter method for the number of cells.
+     * @return The number of cells in the component.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter method for the number of solutions with a given number of mines.
+     * @param mines : The number of mines.
+     * @return The number of solutions.
+     */
+    public double getSolutions(int mines) {
+        return solutions[mines];
+    }
+
+    /**
+     * Getter method for the number of solutions with a given number of mines in which a cell is a mine.
+     * @param mines : The number of mines.
+     * @param i : The cell number.
+     * @return The number of solutions.
+     */
+    public double getMineCount(int mines, int i) {
+        return mineCounts[mines * size + i];
+    }
+
+    /**
+     * Getter method for the total number of solutions.
+     * @return The number of solutions, over every mine count.
+     */
+    public double getTotalSolutions() {
+        double total = 0;
+        for(double count : solutions) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Getter method for the fewest mines any solution has.
+     * @return The mine count, or -1 if there are no solutions.
+     */
+    public int getMinMines() {
+        for(int k = 0; k <= size; k++) {
+            if(solutions[k] > 0) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Getter method for the most mines any solution has.
+     * @return The mine count, or -1 if there are no solutions.
+     */
+    public int getMaxMines() {
+        for(int k = size; k >= 0; k--) {
+            if(solutions[k] > 0) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculates a cell's chance of being a mine, counting every solution of the component as equally likely.
+     * @param i : The cell number.
+     * @return The fraction of solutions in which the cell is a mine.
+     */
+    public double getProbability(int i) {
+        double mines = 0;
+        double total = 0;
+        for(int k = 0; k <= size; k++) {
+            mines += mineCounts[k * size + i];
+            total += solutions[k];
+        }
+        return total == 0 ? 0 : mines / total;
+    }
+}
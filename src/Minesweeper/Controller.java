@@ -167,8 +167,8 @@ public class Controller {
 
             // Change labels to show answer.
             for(Node node : board.getChildren()) {
-                ((Label)node).setText(String.valueOf(game.getBoard()[GridPane.getRowIndex(node)][GridPane.getColumnIndex(node)]));
-                color_tile((Label)node, game.getBoard()[GridPane.getRowIndex(node)][GridPane.getColumnIndex(node)]);
+                ((Label)node).setText(String.valueOf(game.getValue(GridPane.getRowIndex(node), GridPane.getColumnIndex(node))));
+                color_tile((Label)node, game.getValue(GridPane.getRowIndex(node), GridPane.getColumnIndex(node)));
             }
 
             output_box.appendText("HEY, no cheating! >:(\n");
@@ -226,7 +226,7 @@ public class Controller {
     private void query_space(Node node) {
         int row = GridPane.getRowIndex(node);
         int col = GridPane.getColumnIndex(node);
-        int value = game.getBoard()[row][col];
+        int value = game.getValue(row, col);
 
         ((Label)node).setText(String.valueOf(value));
 
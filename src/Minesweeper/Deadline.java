@@ -0,0 +1,31 @@
+package Minesweeper;
+
+/**
+ * Deadlines for work that has to stop when its time is up, as System.nanoTime() values.
+ * Engines that take a deadline check it now and then and give up cooperatively once it has passed.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public final class Deadline {
+    public static final long NONE = Long.MAX_VALUE;     // A deadline that never passes.
+
+    private Deadline() {
+    }
+
+    /**
+     * Helper method to make a deadline some time from now.
+     * @param nanos : The time allowed, in nanoseconds.
+     * @return The deadline.
+     */
+    public static long in(long nanos) {
+        return System.nanoTime() + nanos;
+    }
+
+    /**
+     * Checks if a deadline has passed.
+     * @param deadline  : The deadline, or NONE.
+     * @return true if the deadline has passed.
+     */
+    public static boolean passed(long deadline) {
+        return deadline != NONE && System.nanoTime() - deadline > 0;
+    }
+}
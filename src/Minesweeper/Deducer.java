@@ -0,0 +1,34 @@
+package Minesweeper;
+
+/**
+ * A deduction backend for the basic agent, for what its local rules can't work out from one clue at a time.
+ * The agent reports every reveal and every mark of its own rules as it happens, and asks about the unknown cells
+ * next to a clue before it guesses. One per game.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public interface Deducer {
+    /**
+     * Adds a revealed cell.
+     * @param row
+     * @param col
+     * @param clue  : The cell's clue, or -1 for a mine.
+     */
+    void reveal(int row, int col, int clue);
+
+    /**
+     * Adds a cell the agent marked. Cells deduce() proved are not reported back, since the backend already knows them.
+     * @param row
+     * @param col
+     * @param mine  : True if marked a mine, false if marked safe.
+     */
+    void mark(int row, int col, boolean mine);
+
+    /**
+     * Works out which candidates are decided, and keeps what it proves for later calls.
+     * @param cells : The candidates, as row * dim + col.
+     * @param count : The number of candidates.
+     * @param verdicts  : Filled in per candidate: 1 if proven safe, -1 if proven a mine, 0 otherwise.
+     * @return The number of candidates proven.
+     */
+    int deduce(int[] cells, int count, int[] verdicts);
+}
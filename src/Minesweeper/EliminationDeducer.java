@@ -0,0 +1,403 @@
+package Minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Deduction backend that keeps the frontier clues as linear equations over the hidden cells and eliminates
+ * between them as clues arrive, so patterns like 1-1 and 1-2-1 fall out of subtracting one clue from another.
+ * Each equation is a row of coefficients -1, 0 or 1 (sum of coefficient * mine = total), stored as a pair of
+ * packed bitsets (the +1 cells and the -1 cells) over just the words the row touches, so adding or
+ * subtracting rows works a word at a time, and a row costs the width of its clue rather than of the board.
+ * Rows are kept reduced: each has a pivot cell no other row has. An elimination that would make a
+ * coefficient 2 or -2 is skipped, which only costs completeness, since every row is still a true equation.
+ * After every change a row is checked against its bounds: if its total is the sum of its +1s, every
+ * +1 cell is a mine and every -1 cell is safe, and the other way around at minus the sum of its -1s.
+ * Decided cells are substituted into every row, which can decide more.
+ * One per game. Not thread-safe.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class EliminationDeducer implements Deducer {
+    private int dim;
+    private byte[] known;           // Per cell: 1 mine, -1 safe, 0 unknown.
+    private Row[] pivots;           // Row each cell is the pivot of, or null.
+    private List<Row> rows = new ArrayList<Row>();
+    private List<Row> dirty = new ArrayList<Row>();     // Rows to check against their bounds.
+    private int[] decided;          // Cells decided but not yet substituted.
+    private int numDecided;
+    private int[] cols = new int[64];   // Scratch for a row's cells.
+
+    /**
+     * Constructor method for a backend with no equations.
+     * @param dim   : The board dimension.
+     */
+    public EliminationDeducer(int dim) {
+        this.dim = dim;
+        this.known = new byte[dim * dim];
+        this.pivots = new Row[dim * dim];
+        this.decided = new int[dim * dim];
+    }
+
+    /**
+     * Adds a revealed cell: it is known, and a clue adds the equation (sum of its unknown neighbors = clue - known mines).
+     * @param row
+     * @param col
+     * @param clue  : The cell's clue, or -1 for a mine.
+     */
+    @Override
+    public void reveal(int row, int col, int clue) {
+        decide(row * dim + col, clue < 0);
+        if(clue >= 0) {
+            Row equation = new Row(clue);
+
+            // Expand from center.
+            int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+            int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+            int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+            int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+            for(int current_row = start_row; current_row <= end_row; current_row++) {
+                for(int current_col = start_col; current_col <= end_col; current_col++) {
+                    int cell = current_row * dim + current_col;
+                    if((current_row == row && current_col == col) || known[cell] == -1) {
+                        continue;
+                    }
+                    if(known[cell] == 1) {
+                        equation.total--;
+                    } else {
+                        equation.set(cell, 1);
+                    }
+                }
+            }
+            substituteDecided();    // Cells decided above must be out of every row before the new one is reduced.
+            insert(equation);
+        }
+        settle();
+    }
+
+    /**
+     * Adds a cell the agent marked, and substitutes it into every row.
+     */
+    @Override
+    public void mark(int row, int col, boolean mine) {
+        decide(row * dim + col, mine);
+        settle();
+    }
+
+    /**
+     * Reads off which candidates the equations have decided; the work was done as clues arrived.
+     */
+    @Override
+    public int deduce(int[] cells, int count, int[] verdicts) {
+        int proven = 0;
+        for(int i = 0; i < count; i++) {
+            verdicts[i] = -known[cells[i]];
+            if(verdicts[i] != 0) {
+                proven++;
+            }
+        }
+        return proven;
+    }
+
+    /**
+     * Getter method for the number of equations held.
+     * @return The number of rows.
+     */
+    public int getNumRows() {
+        return rows.size();
+    }
+
+    /**
+     * Helper method to record a cell's value, if it isn't known yet.
+     * @param cell  : The cell.
+     * @param mine  : True for a mine.
+     */
+    private void decide(int cell, boolean mine) {
+        if(known[cell] == 0) {
+            known[cell] = (byte)(mine ? 1 : -1);
+            decided[numDecided++] = cell;
+        }
+    }
+
+    /**
+     * Helper method to substitute decided cells and check rows against their bounds until nothing changes.
+     */
+    private void settle() {
+        while(true) {
+            substituteDecided();
+            if(dirty.isEmpty()) {
+                return;
+            }
+            Row row = dirty.remove(dirty.size() - 1);
+            row.queued = false;
+            if(row.index >= 0) {
+                checkBounds(row);
+            }
+        }
+    }
+
+    /**
+     * Helper method to take every decided cell out of the rows that have it.
+     */
+    private void substituteDecided() {
+        while(numDecided > 0) {
+            int cell = decided[--numDecided];
+            int value = known[cell] == 1 ? 1 : 0;
+            for(int r = rows.size() - 1; r >= 0; r--) {
+                Row row = rows.get(r);
+                int coefficient = row.get(cell);
+                if(coefficient == 0) {
+                    continue;
+                }
+                row.set(cell, 0);
+                row.total -= coefficient * value;
+                if(row.pivot == cell) {
+                    pivots[cell] = null;
+                    choosePivot(row);
+                }
+                if(row.isEmpty()) {
+                    remove(row);
+                } else {
+                    queue(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to reduce a new row by the existing pivots, give it a pivot of its own,
+     * and eliminate that pivot from the other rows.
+     * @param row   : The new row.
+     */
+    private void insert(Row row) {
+        int numCols = row.cells(this);
+        for(int i = 0; i < numCols; i++) {
+            int cell = cols[i];
+            int coefficient = row.get(cell);
+            Row pivotRow = pivots[cell];
+            if(coefficient != 0 && pivotRow != null) {
+                row.addScaled(pivotRow, -coefficient);
+            }
+        }
+        if(row.isEmpty()) {
+            return;     // Nothing new (or, with a nonzero total, a contradiction to ignore).
+        }
+
+        row.index = rows.size();
+        rows.add(row);
+        choosePivot(row);
+        if(row.pivot >= 0) {
+            for(int r = 0; r < rows.size(); r++) {
+                Row other = rows.get(r);
+                int coefficient = other.get(row.pivot);
+                if(other != row && coefficient != 0 && (other.pivot < 0 || row.get(other.pivot) == 0)
+                        && other.addScaled(row, -coefficient)) {
+                    if(other.isEmpty()) {
+                        remove(other);
+                        r--;
+                    } else {
+                        queue(other);
+                    }
+                }
+            }
+        }
+        queue(row);
+    }
+
+    /**
+     * Helper method to give a row a pivot: its first cell that isn't another row's pivot, with coefficient 1.
+     * @param row   : The row.
+     */
+    private void choosePivot(Row row) {
+        row.pivot = -1;
+        int numCols = row.cells(this);
+        for(int i = 0; i < numCols; i++) {
+            if(pivots[cols[i]] == null) {
+                row.pivot = cols[i];
+                pivots[row.pivot] = row;
+                if(row.get(row.pivot) < 0) {
+                    row.negate();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to decide a row's cells if its total is at one of its bounds.
+     * @param row   : The row.
+     */
+    private void checkBounds(Row row) {
+        int plus = row.count(row.plus);
+        int minus = row.count(row.minus);
+        boolean high = row.total == plus;       // Every +1 a mine, every -1 safe.
+        boolean low = row.total == -minus;      // Every +1 safe, every -1 a mine.
+        if(!high && !low) {
+            return;
+        }
+
+        int numCols = row.cells(this);
+        for(int i = 0; i < numCols; i++) {
+            boolean positive = row.get(cols[i]) > 0;
+            decide(cols[i], positive == high);
+        }
+    }
+
+    private void queue(Row row) {
+        if(!row.queued) {
+            row.queued = true;
+            dirty.add(row);
+        }
+    }
+
+    private void remove(Row row) {
+        if(row.pivot >= 0) {
+            pivots[row.pivot] = null;
+        }
+        Row last = rows.remove(rows.size() - 1);
+        if(last != row) {
+            rows.set(row.index, last);
+            last.index = row.index;
+        }
+        row.index = -1;
+    }
+
+    /**
+     * One equation: sum over cells of coefficient * mine = total, with coefficients -1, 0 or 1.
+     * The +1 and -1 cells are bitsets over words first through first + length - 1 of the board.
+     */
+    private static class Row {
+        private int first;          // Board word the bitsets start at.
+        private long[] plus = new long[0];
+        private long[] minus = new long[0];
+        private int total;
+        private int pivot = -1;
+        private int index = -1;     // Slot in rows, or -1 once removed.
+        private boolean queued;
+
+        Row(int total) {
+            this.total = total;
+        }
+
+        int get(int cell) {
+            int word = (cell >>> 6) - first;
+            if(word < 0 || word >= plus.length) {
+                return 0;
+            }
+            long bit = 1L << cell;
+            return (plus[word] & bit) != 0 ? 1 : (minus[word] & bit) != 0 ? -1 : 0;
+        }
+
+        void set(int cell, int coefficient) {
+            if(coefficient != 0) {
+                cover(cell >>> 6, cell >>> 6);
+            }
+            int word = (cell >>> 6) - first;
+            if(word < 0 || word >= plus.length) {
+                return;
+            }
+            long bit = 1L << cell;
+            plus[word] = coefficient > 0 ? plus[word] | bit : plus[word] & ~bit;
+            minus[word] = coefficient < 0 ? minus[word] | bit : minus[word] & ~bit;
+        }
+
+        boolean isEmpty() {
+            for(int w = 0; w < plus.length; w++) {
+                if((plus[w] | minus[w]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void negate() {
+            long[] swap = plus;
+            plus = minus;
+            minus = swap;
+            total = -total;
+        }
+
+        int count(long[] bits) {
+            int count = 0;
+            for(long word : bits) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        /**
+         * Adds scale times another row to this one, unless some coefficient would become 2 or -2.
+         * @param other : The other row.
+         * @param scale : 1 or -1.
+         * @return true if the row changed.
+         */
+        boolean addScaled(Row other, int scale) {
+            long[] otherPlus = scale > 0 ? other.plus : other.minus;
+            long[] otherMinus = scale > 0 ? other.minus : other.plus;
+            for(int w = 0; w < other.plus.length; w++) {
+                int word = other.first + w - first;
+                if(word >= 0 && word < plus.length
+                        && ((plus[word] & otherPlus[w]) | (minus[word] & otherMinus[w])) != 0) {
+                    return false;
+                }
+            }
+
+            cover(other.first, other.first + other.plus.length - 1);
+            for(int w = 0; w < other.plus.length; w++) {
+                int word = other.first + w - first;
+                long p = plus[word];
+                long m = minus[word];
+                plus[word] = (p & ~otherMinus[w]) | (otherPlus[w] & ~m);
+                minus[word] = (m & ~otherPlus[w]) | (otherMinus[w] & ~p);
+            }
+            total += scale * other.total;
+            return true;
+        }
+
+        /**
+         * Helper method to widen the bitsets to cover a range of board words.
+         * @param from  : The first word.
+         * @param to    : The last word.
+         */
+        private void cover(int from, int to) {
+            if(plus.length == 0) {
+                first = from;
+                plus = new long[to - from + 1];
+                minus = new long[to - from + 1];
+                return;
+            }
+            int newFirst = Math.min(first, from);
+            int newLast = Math.max(first + plus.length - 1, to);
+            if(newFirst == first && newLast == first + plus.length - 1) {
+                return;
+            }
+            long[] newPlus = new long[newLast - newFirst + 1];
+            long[] newMinus = new long[newLast - newFirst + 1];
+            System.arraycopy(plus, 0, newPlus, first - newFirst, plus.length);
+            System.arraycopy(minus, 0, newMinus, first - newFirst, minus.length);
+            first = newFirst;
+            plus = newPlus;
+            minus = newMinus;
+        }
+
+        /**
+         * Lists the row's cells into the deducer's scratch array, in increasing order.
+         * @param deducer   : The deducer whose scratch array to fill.
+         * @return The number of cells.
+         */
+        int cells(EliminationDeducer deducer) {
+            int count = 0;
+            for(int w = 0; w < plus.length; w++) {
+                long bits = plus[w] | minus[w];
+                while(bits != 0) {
+                    if(count == deducer.cols.length) {
+                        deducer.cols = Arrays.copyOf(deducer.cols, count * 2);
+                    }
+                    deducer.cols[count++] = ((first + w) << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+            return count;
+        }
+    }
+}
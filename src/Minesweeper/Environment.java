@@ -1,10 +1,14 @@
 package Minesweeper;
 
-import java.util.Random;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This is the environment for Minesweeper.
- * The board is represented by a 2-dimensional array of integers.
+ * The board is stored behind the Board interface, either as a 2-dimensional array of integers
+ * or as a packed bitset for very large boards.
  * Let ...
  * -1 be a mine.
  * 0 be a safe space.
@@ -14,7 +18,8 @@ import java.util.Random;
 public class Environment {
     private int dim;
     private int num_mines;
-    private int[][] board;
+    private Board board;
+    private SplittableRandom rand;
 
     /**
      * Constructor method for a new board.
@@ -22,10 +27,61 @@ public class Environment {
      * @param num_mines : The number of mines to add to the board.
      */
     public Environment(int dim, int num_mines) {
+        this(dim, num_mines, false);
+    }
+
+    /**
+     * Constructor method for a new board.
+     * @param dim   : The board dimension.
+     * @param num_mines : The number of mines to add to the board.
+     * @param packed    : True to store the board as a PackedBoard (5 bits per space), false for an int[][].
+     */
+    public Environment(int dim, int num_mines, boolean packed) {
+        this(dim, num_mines, new SplittableRandom(), packed);
+    }
+
+    /**
+     * Constructor method for a new, reproducible board.
+     * @param dim   : The board dimension.
+     * @param num_mines : The number of mines to add to the board.
+     * @param rand  : The stream used to scatter mines (see TrialRandom.boardRandom).
+     */
+    public Environment(int dim, int num_mines, SplittableRandom rand) {
+        this(dim, num_mines, rand, false);
+    }
+
+    /**
+     * Constructor method for a new, reproducible board.
+     * @param dim   : The board dimension.
+     * @param num_mines : The number of mines to add to the board.
+     * @param rand  : The stream used to scatter mines (see TrialRandom.boardRandom).
+     * @param packed    : True to store the board as a PackedBoard (5 bits per space), false for an int[][].
+     */
+    public Environment(int dim, int num_mines, SplittableRandom rand, boolean packed) {
+        this(dim, num_mines, rand, packed, null);
+    }
+
+    /**
+     * Constructor method for a new, reproducible board generated in two passes.
+     * The board is identical to the one the sequential constructor makes from the same stream.
+     * @param dim   : The board dimension.
+     * @param num_mines : The number of mines to add to the board.
+     * @param rand  : The stream used to scatter mines (see TrialRandom.boardRandom).
+     * @param packed    : True to store the board as a PackedBoard (5 bits per space), false for an int[][].
+     * @param pool  : The pool to compute clues on, or null to generate sequentially.
+     */
+    public Environment(int dim, int num_mines, SplittableRandom rand, boolean packed, ForkJoinPool pool) {
         this.dim = dim;
         this.num_mines = 0;
-        this.board = new int[dim][dim];
-        scatter_mines(num_mines);   // Scatter mines on board.
+        this.rand = rand;
+        this.board = packed ? new PackedBoard(dim) : new ArrayBoard(dim);
+
+        // Scatter mines on board.
+        if(pool == null) {
+            scatter_mines(num_mines);
+        } else {
+            scatter_mines_parallel(num_mines, pool);
+        }
     }
 
     /**
@@ -36,13 +92,14 @@ public class Environment {
     public String toString() {
         String board = new String();
         
-        for(int row = 0; row < this.board.length; row++) {
-            for(int col = 0; col < this.board[row].length; col++) {
-                if(this.board[row][col] < 0) {
-                    board += this.board[row][col] + " ";
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                int value = this.board.getValue(row, col);
+                if(value < 0) {
+                    board += value + " ";
                     continue;
                 }
-                board += " " + this.board[row][col] + " ";
+                board += " " + value + " ";
             }
             board += "\n";
         }
@@ -69,20 +126,127 @@ public class Environment {
     /**
      * Getter method for the environment's board.
      * This is for querying purposes; agent should not get the board.
+     * For a packed board this builds a full int[][] copy, so prefer getValue or getBoardView.
      * @return The environment's board.
      */
     public int[][] getBoard() {
+        if(board instanceof ArrayBoard) {
+            return ((ArrayBoard)board).getArray();
+        }
+
+        int[][] copy = new int[dim][dim];
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                copy[row][col] = board.getValue(row, col);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Getter method for the environment's board, without copying it.
+     * This is for querying purposes; agent should not get the board.
+     * @return The environment's board.
+     */
+    public Board getBoardView() {
         return board;
     }
 
+    /**
+     * Query a space on the board.
+     * @param row   : The row of the space.
+     * @param col   : The col of the space.
+     * @return -1 if the space is a mine, otherwise the number of mines around it.
+     */
+    public int getValue(int row, int col) {
+        return board.getValue(row, col);
+    }
+
     /**
      * Helper method to scatter mines on the board.
      * Could be used to add additional mines to a board, if necessary.
+     * Uses Floyd's sampling algorithm, so the cost does not depend on the mine density:
+     * O(num_mines) on an empty board, O(dim * dim) when adding to a board that already has mines.
      * @param num_mines : The number of mines to put out.
      */
     public void scatter_mines(int num_mines) {
+        int cells = dim * dim;
+        int free = cells - this.num_mines;              // Spaces that can still take a mine.
+        int toPlace = Math.min(num_mines, free);
+
+        if(toPlace <= 0) {
+            return;
+        }
+
+        if(this.num_mines == 0) {
+            // Every space is free, so a space's rank is its own number and the board is the sample set.
+            for(int j = free - toPlace; j < free; j++) {
+                int t = rand.nextInt(j + 1);
+                int cell = board.isMine(t / dim, t % dim) ? j : t;
+                place_mine(cell / dim, cell % dim);
+            }
+        } else {
+            // Sample ranks among the free spaces, then walk the board once to map ranks to spaces.
+            BitSet chosen = new BitSet(free);
+            for(int j = free - toPlace; j < free; j++) {
+                int t = rand.nextInt(j + 1);
+                chosen.set(chosen.get(t) ? j : t);
+            }
+
+            int rank = 0;
+            for(int cell = 0; cell < cells; cell++) {
+                int row = cell / dim;
+                int col = cell % dim;
+                if(board.isMine(row, col)) {
+                    continue;
+                }
+                if(chosen.get(rank)) {
+                    place_mine(row, col);
+                }
+                rank++;
+            }
+        }
+
+        this.num_mines += toPlace;
+
+        return;
+    }
+
+    /**
+     * Two-pass version of scatter_mines for an empty board.
+     * Pass 1 places mines into a bitset with the same draws as scatter_mines, so the mines are identical.
+     * Pass 2 computes every clue as a 3x3 stencil over the bitset, split into bands across the pool.
+     * @param num_mines : The number of mines to put out.
+     * @param pool  : The pool to compute clues on.
+     */
+    private void scatter_mines_parallel(int num_mines, ForkJoinPool pool) {
+        int cells = dim * dim;
+        int toPlace = Math.min(num_mines, cells);
+
+        if(toPlace <= 0) {
+            return;
+        }
+
+        // Pass 1: mines only. A packed board already keeps its mines in a bitset, so write straight into it.
+        BitSet mines = board instanceof PackedBoard ? ((PackedBoard)board).getMines() : new BitSet(cells);
+        for(int j = cells - toPlace; j < cells; j++) {
+            int t = rand.nextInt(j + 1);
+            mines.set(mines.get(t) ? j : t);
+        }
+
+        // Pass 2: clues.
+        pool.invoke(new ClueStencil(board, mines, 0, cells));
+
+        this.num_mines += toPlace;
+    }
+
+    /**
+     * Original mine scattering: redraws random positions until it finds an unmined space.
+     * Slows down without bound as the density approaches 1; kept for comparison.
+     * @param num_mines : The number of mines to put out.
+     */
+    public void scatter_mines_rejection(int num_mines) {
         // Generate random position.
-        Random rand = new Random();
         int row = rand.nextInt(dim);
         int col = rand.nextInt(dim);
         int placed = 0;
@@ -94,33 +258,12 @@ public class Environment {
             }
 
             // Generate a unique, unmined location.
-            while(board[row][col] == -1) {
+            while(board.isMine(row, col)) {
                 row = rand.nextInt(dim);
                 col = rand.nextInt(dim);
             }
 
-            board[row][col] = -1;   // Set mine.
-
-            // Increment the unmined spaces around the mine.
-            // Expand from center.
-            int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
-            int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
-            int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
-            int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-
-            int current_row = start_row;
-            int current_col = start_col;
-            while(current_row < end_row + 1) {
-                while(current_col < end_col + 1) {
-                    if(board[current_row][current_col] != -1) {
-                        board[current_row][current_col]++;  // Increment non-mined space.
-                    }
-                    current_col++;
-                }
-                current_row++;
-                current_col = start_col;
-            }
-
+            place_mine(row, col);
             placed ++;
         }
 
@@ -128,4 +271,107 @@ public class Environment {
 
         return;
     }
+
+    /**
+     * Helper method to set a mine and increment the unmined spaces around it.
+     * @param row   : The row of the mine.
+     * @param col   : The col of the mine.
+     */
+    private void place_mine(int row, int col) {
+        board.setValue(row, col, -1);   // Set mine.
+
+        // Increment the unmined spaces around the mine.
+        // Expand from center.
+        int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+        int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+        int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+        int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+
+        int current_row = start_row;
+        int current_col = start_col;
+        while(current_row < end_row + 1) {
+            while(current_col < end_col + 1) {
+                if(!board.isMine(current_row, current_col)) {
+                    board.setValue(current_row, current_col, board.getValue(current_row, current_col) + 1);  // Increment non-mined space.
+                }
+                current_col++;
+            }
+            current_row++;
+            current_col = start_col;
+        }
+    }
+
+    /**
+     * Fork/join task that fills in a band of spaces from the mine bitset.
+     * Bands are split on multiples of 64 spaces, so no two tasks write to the same bitset or clue word.
+     */
+    private static class ClueStencil extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private static final int BAND_SIZE = 1 << 16;   // Spaces per task before splitting stops.
+        private static final int ALIGNMENT = 64;
+
+        private Board board;
+        private BitSet mines;
+        private int from;
+        private int to;
+
+        /**
+         * Constructor method for a band of spaces.
+         * @param board : The board to write clues to.
+         * @param mines : The mines, indexed by row * dim + col.
+         * @param from  : The first space of the band.
+         * @param to    : One past the last space of the band.
+         */
+        ClueStencil(Board board, BitSet mines, int from, int to) {
+            this.board = board;
+            this.mines = mines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= BAND_SIZE) {
+                fill();
+                return;
+            }
+
+            int mid = (from + ((to - from) / 2)) / ALIGNMENT * ALIGNMENT;
+            invokeAll(new ClueStencil(board, mines, from, mid), new ClueStencil(board, mines, mid, to));
+        }
+
+        /**
+         * Helper method to count the mines around every space in the band.
+         */
+        private void fill() {
+            int dim = board.getDim();
+
+            for(int cell = from; cell < to; cell++) {
+                int row = cell / dim;
+                int col = cell % dim;
+
+                if(mines.get(cell)) {
+                    board.setValue(row, col, -1);
+                    continue;
+                }
+
+                // Expand from center.
+                int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+                int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+                int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+                int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+
+                int clue = 0;
+                for(int current_row = start_row; current_row <= end_row; current_row++) {
+                    for(int current_col = start_col; current_col <= end_col; current_col++) {
+                        if(mines.get(current_row * dim + current_col)) {
+                            clue++;
+                        }
+                    }
+                }
+                board.setValue(row, col, clue);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,274 @@
+package Minesweeper;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Exact inference over frontier components.
+ * Each component is enumerated by backtracking over its cells in solve order: after every assignment,
+ * each clue on the cell is checked against its mines so far and its cells left, so dead branches stop at once.
+ * Components are independent, so a list of them is solved in parallel on a fork/join pool.
+ * Components bigger than the size cap, or that need more than the node budget, are left unsolved
+ * so one awkward component can't hold up a move.
+ * With a ComponentCache, components seen before (in any game, up to symmetry) are looked up instead of solved.
+ * Solves can also be given a deadline, which every search checks now and then; work cut off by it is cancelled,
+ * not cached.
+ * Holds no per-solve state, so one solver can be shared between threads.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ExactSolver {
+    public static final int DEFAULT_MAX_COMPONENT_SIZE = 48;
+    public static final long DEFAULT_NODE_BUDGET = 1L << 22;
+
+    static final ComponentSolution CANCELLED = new ComponentSolution(0);    // A search cut off by its deadline.
+
+    private static final int NODES_PER_CHECK = 4096;    // Search nodes between deadline checks.
+
+    private ForkJoinPool pool;      // null to solve components one after another.
+    private int maxComponentSize;
+    private long nodeBudget;
+    private ComponentCache cache;   // null to always solve.
+
+    /**
+     * Constructor method for a solver with the default cap and budget.
+     * @param pool  : The pool to solve components on, or null to solve them sequentially.
+     */
+    public ExactSolver(ForkJoinPool pool) {
+        this(pool, DEFAULT_MAX_COMPONENT_SIZE, DEFAULT_NODE_BUDGET, null);
+    }
+
+    /**
+     * Constructor method for a solver with the default cap and budget that looks components up in a cache first.
+     * @param pool  : The pool to solve components on, or null to solve them sequentially.
+     * @param cache : The cache, which may be shared with other solvers, or null to always solve.
+     */
+    public ExactSolver(ForkJoinPool pool, ComponentCache cache) {
+        this(pool, DEFAULT_MAX_COMPONENT_SIZE, DEFAULT_NODE_BUDGET, cache);
+    }
+
+    /**
+     * Constructor method for a solver.
+     * @param pool  : The pool to solve components on, or null to solve them sequentially.
+     * @param maxComponentSize  : The most cells a component may have and still be solved.
+     * @param nodeBudget    : The most search nodes one component may use before it is given up on.
+     * @param cache : The cache, which may be shared with other solvers, or null to always solve.
+     */
+    public ExactSolver(ForkJoinPool pool, int maxComponentSize, long nodeBudget, ComponentCache cache) {
+        this.pool = pool;
+        this.maxComponentSize = maxComponentSize;
+        this.nodeBudget = nodeBudget;
+        this.cache = cache;
+    }
+
+    /**
+     * Solves a list of components.
+     * @param components    : The components.
+     * @return The solution of each component, or null where a component was left unsolved.
+     */
+    public ComponentSolution[] solveAll(List<Component> components) {
+        return solveAll(components, Deadline.NONE);
+    }
+
+    /**
+     * Solves a list of components before a deadline.
+     * @param components    : The components.
+     * @param deadline  : The deadline (see Deadline).
+     * @return The solution of each component, or null where a component was left unsolved,
+     *         or null overall if the deadline cut the work off.
+     */
+    public ComponentSolution[] solveAll(List<Component> components, long deadline) {
+        ComponentSolution[] solutions = new ComponentSolution[components.size()];
+        if(pool == null || components.size() < 2) {
+            for(int i = 0; i < solutions.length && !Deadline.passed(deadline); i++) {
+                solutions[i] = solve(components.get(i), deadline);
+            }
+        } else {
+            pool.invoke(new SolveComponents(components, solutions, 0, solutions.length, deadline));
+        }
+
+        if(Deadline.passed(deadline)) {
+            return null;
+        }
+        for(ComponentSolution solution : solutions) {
+            if(solution == CANCELLED) {
+                return null;
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Solves one component.
+     * @param component : The component.
+     * @return The solution counts, or null if the component is over the size cap or the node budget.
+     */
+    public ComponentSolution solve(Component component) {
+        return solve(component, Deadline.NONE);
+    }
+
+    /**
+     * Helper method to solve one component before a deadline.
+     * @param component : The component.
+     * @param deadline  : The deadline (see Deadline).
+     * @return The solution counts, null if the component is over the size cap or the node budget,
+     *         or CANCELLED if the deadline passed.
+     */
+    ComponentSolution solve(Component component, long deadline) {
+        if(component.size() > maxComponentSize) {
+            return null;
+        }
+        return cache == null ? search(component, deadline) : cache.solve(component, this, deadline);
+    }
+
+    /**
+     * Solves one component by search, without the size cap or the cache.
+     * @param component : The component.
+     * @param deadline  : The deadline (see Deadline).
+     * @return The solution counts, null if the component is over the node budget, or CANCELLED if the deadline passed.
+     */
+    ComponentSolution search(Component component, long deadline) {
+        return new Search(component, nodeBudget, deadline).run();
+    }
+
+    /**
+     * Backtracking search over one component. Not thread-safe; one per solve.
+     */
+    private static class Search {
+        private Component component;
+        private int[] cellConstraints;
+        private int[] sum;          // Mines assigned so far, per clue.
+        private int[] left;         // Cells not assigned yet, per clue.
+        private byte[] assignment;
+        private ComponentSolution solution;
+        private long nodesLeft;
+        private long deadline;
+        private boolean cancelled;
+
+        Search(Component component, long nodeBudget, long deadline) {
+            this.component = component;
+            this.cellConstraints = component.getCellConstraints();
+            this.sum = new int[component.getNumConstraints()];
+            this.left = new int[component.getNumConstraints()];
+            this.assignment = new byte[component.size()];
+            this.solution = new ComponentSolution(component.size());
+            this.nodesLeft = nodeBudget;
+            this.deadline = deadline;
+
+            for(int c = 0; c < left.length; c++) {
+                left[c] = component.getConstraintStart(c + 1) - component.getConstraintStart(c);
+            }
+        }
+
+        /**
+         * Runs the search.
+         * @return The solution counts, null if the node budget ran out, or CANCELLED if the deadline passed.
+         */
+        ComponentSolution run() {
+            if(assign(0, 0)) {
+                return solution;
+            }
+            return cancelled ? CANCELLED : null;
+        }
+
+        /**
+         * Tries both values for cell i, then recurses.
+         * @param i : The cell to assign.
+         * @param mines : Mines assigned so far.
+         * @return false if the node budget ran out or the deadline passed.
+         */
+        private boolean assign(int i, int mines) {
+            if(i == assignment.length) {
+                solution.addSolution(mines, assignment);
+                return true;
+            }
+            if(--nodesLeft < 0) {
+                return false;
+            }
+            if(nodesLeft % NODES_PER_CHECK == 0 && Deadline.passed(deadline)) {
+                cancelled = true;
+                return false;
+            }
+
+            for(byte value = 0; value <= 1; value++) {
+                if(set(i, value)) {
+                    assignment[i] = value;
+                    if(!assign(i + 1, mines + value)) {
+                        return false;
+                    }
+                }
+                unset(i, value);
+            }
+            assignment[i] = 0;
+            return true;
+        }
+
+        /**
+         * Helper method to apply a cell's value to its clues.
+         * @param i : The cell.
+         * @param value : 1 for a mine, 0 for safe.
+         * @return false if some clue can no longer be met.
+         */
+        private boolean set(int i, int value) {
+            boolean ok = true;
+            for(int j = component.getCellStart(i); j < component.getCellStart(i + 1); j++) {
+                int c = cellConstraints[j];
+                sum[c] += value;
+                left[c]--;
+                int target = component.getTarget(c);
+                if(sum[c] > target || sum[c] + left[c] < target) {
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+
+        /**
+         * Helper method to take a cell's value back off its clues.
+         * @param i : The cell.
+         * @param value : The value set() applied.
+         */
+        private void unset(int i, int value) {
+            for(int j = component.getCellStart(i); j < component.getCellStart(i + 1); j++) {
+                int c = cellConstraints[j];
+                sum[c] -= value;
+                left[c]++;
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that solves a range of components, splitting the range in half until it is one component.
+     */
+    private class SolveComponents extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Component> components;
+        private final ComponentSolution[] solutions;
+        private final int from;
+        private final int to;
+        private final long deadline;
+
+        SolveComponents(List<Component> components, ComponentSolution[] solutions, int from, int to, long deadline) {
+            this.components = components;
+            this.solutions = solutions;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                if(!Deadline.passed(deadline)) {
+                    solutions[from] = solve(components.get(from), deadline);
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SolveComponents(components, solutions, from, mid, deadline),
+                      new SolveComponents(components, solutions, mid, to, deadline));
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package Minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The constraint system an agent's knowledge base implies: every revealed clue with hidden neighbors says
+ * how many of those neighbors are mines. Hidden cells next to at least one such clue make up the frontier,
+ * which is split into independent components (cells linked through shared clues, found with union-find).
+ * Only what was actually revealed is used; the agents' marks are guesses and are left out.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class Frontier {
+    private List<Component> components;
+    private int frontierCells;      // Hidden cells next to a revealed clue.
+    private long[] interiorWords;   // Hidden cells next to no revealed clue, as bits of row * dim + col.
+    private int interiorCells;      // Bits set in interiorWords.
+    private int revealedMines;      // Mines the agent has set off.
+
+    /**
+     * Constructor method for the frontier of a knowledge base.
+     * Scans the whole board; an agent that reveals cells one at a time can keep its frontier with a FrontierTracker instead.
+     * @param knowledgeBase : What the agent knows.
+     */
+    public Frontier(KnowledgeBase knowledgeBase) {
+        int dim = knowledgeBase.getDim();
+        BitSet clues = new BitSet(dim * dim);
+        BitSet interior = new BitSet(dim * dim);
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                if(!knowledgeBase.getRevealed(row, col)) {
+                    interior.set(row * dim + col);
+                } else if(knowledgeBase.getClue(row, col) < 0) {
+                    revealedMines++;
+                } else if(knowledgeBase.getNumHiddenCells(row, col) > 0) {
+                    clues.set(row * dim + col);
+                }
+            }
+        }
+
+        components = split(knowledgeBase, clues, new int[dim * dim]);
+        for(int k = 0; k < components.size(); k++) {
+            Component component = components.get(k);
+            frontierCells += component.size();
+            for(int i = 0; i < component.size(); i++) {
+                interior.clear(component.getCell(i));
+            }
+        }
+        interiorWords = interior.toLongArray();
+        interiorCells = interior.cardinality();
+    }
+
+    /**
+     * Constructor method for a frontier whose components are already split.
+     * @param components    : The components, in the order of their first clue in row-major order.
+     * @param interior  : The hidden cells next to no revealed clue, as bits of row * dim + col (copied).
+     * @param revealedMines : The number of mines the agent has set off.
+     */
+    public Frontier(List<Component> components, BitSet interior, int revealedMines) {
+        this.components = components;
+        for(int k = 0; k < components.size(); k++) {
+            frontierCells += components.get(k).size();
+        }
+        this.interiorWords = interior.toLongArray();
+        this.interiorCells = interior.cardinality();
+        this.revealedMines = revealedMines;
+    }
+
+    /**
+     * Splits the hidden neighbors of some revealed clues into components.
+     * Every clue of a component must be given, or the component comes out cut short.
+     * A component's cells and clues come out the same whichever other clues are given with it,
+     * and its first clue is its first in row-major order.
+     * @param knowledgeBase : What the agent knows.
+     * @param clueSet   : The clues, as bits of row * dim + col.
+     * @param variable  : Scratch of dim * dim zeros, left all zeros again.
+     * @return The components, in the order of their first clue in row-major order.
+     */
+    public static List<Component> split(KnowledgeBase knowledgeBase, BitSet clueSet, int[] variable) {
+        int dim = knowledgeBase.getDim();
+        int[] cells = new int[16];
+        int numCells = 0;
+
+        // Collect the clues in row-major order, and number their hidden neighbors as they are met.
+        int[] clues = new int[Math.max(clueSet.cardinality(), 1)];
+        int numClues = 0;
+        for(int clue = clueSet.nextSetBit(0); clue >= 0; clue = clueSet.nextSetBit(clue + 1)) {
+            int row = clue / dim;
+            int col = clue % dim;
+            clues[numClues++] = clue;
+
+            // Expand from center.
+            int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+            int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+            int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+            int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+            for(int current_row = start_row; current_row <= end_row; current_row++) {
+                for(int current_col = start_col; current_col <= end_col; current_col++) {
+                    int cell = current_row * dim + current_col;
+                    if(!knowledgeBase.getRevealed(current_row, current_col) && variable[cell] == 0) {
+                        if(numCells == cells.length) {
+                            cells = Arrays.copyOf(cells, numCells * 2);
+                        }
+                        cells[numCells++] = cell;
+                        variable[cell] = numCells;
+                    }
+                }
+            }
+        }
+
+        List<Component> components = group(knowledgeBase, clues, numClues, cells, numCells, variable);
+        for(int i = 0; i < numCells; i++) {
+            variable[cells[i]] = 0;
+        }
+        return components;
+    }
+
+    /**
+     * Getter method for the independent components.
+     * @return The components, in the order of their first clue in row-major order.
+     */
+    public List<Component> getComponents() {
+        return components;
+    }
+
+    /**
+     * Getter method for the number of hidden cells next to a revealed clue.
+     * @return The number of frontier cells.
+     */
+    public int getFrontierCells() {
+        return frontierCells;
+    }
+
+    /**
+     * Getter method for the number of hidden cells next to no revealed clue.
+     * @return The number of interior cells.
+     */
+    public int getInteriorCells() {
+        return interiorCells;
+    }
+
+    /**
+     * Getter method for an interior cell.
+     * @param i : The interior cell number, in row-major order.
+     * @return The position, as row * dim + col.
+     */
+    public int getInteriorCell(int i) {
+        // Skip whole words, then clear the word's lowest bits up to the one wanted.
+        int w = 0;
+        while(i >= Long.bitCount(interiorWords[w])) {
+            i -= Long.bitCount(interiorWords[w]);
+            w++;
+        }
+        long word = interiorWords[w];
+        for(; i > 0; i--) {
+            word &= word - 1;
+        }
+        return w * 64 + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Getter method for the number of mines revealed so far.
+     * @return The number of revealed mines.
+     */
+    public int getRevealedMines() {
+        return revealedMines;
+    }
+
+    /**
+     * Helper method to group numbered frontier cells into components and renumber each one's cells in solve order.
+     * @param knowledgeBase : What the agent knows.
+     * @param clues : Positions of the clues with hidden neighbors.
+     * @param numClues  : Number of clues.
+     * @param cells : Positions of the frontier cells.
+     * @param numCells  : Number of frontier cells.
+     * @param variable  : Frontier number + 1 of each position, or 0.
+     * @return The components.
+     */
+    private static List<Component> group(KnowledgeBase knowledgeBase, int[] clues, int numClues,
+                                         int[] cells, int numCells, int[] variable) {
+        int dim = knowledgeBase.getDim();
+
+        // Clue -> frontier cells, flat.
+        int[] clueStart = new int[numClues + 1];
+        int[] clueCells = new int[numClues * 8];
+        int[] parent = new int[numCells];
+        for(int i = 0; i < numCells; i++) {
+            parent[i] = i;
+        }
+
+        int size = 0;
+        for(int c = 0; c < numClues; c++) {
+            int row = clues[c] / dim;
+            int col = clues[c] % dim;
+            int first = -1;
+
+            // Expand from center.
+            int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+            int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+            int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+            int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+            for(int current_row = start_row; current_row <= end_row; current_row++) {
+                for(int current_col = start_col; current_col <= end_col; current_col++) {
+                    int v = variable[current_row * dim + current_col] - 1;
+                    if(v >= 0 && !knowledgeBase.getRevealed(current_row, current_col)) {
+                        clueCells[size++] = v;
+                        if(first < 0) {
+                            first = v;
+                        } else {
+                            union(parent, first, v);
+                        }
+                    }
+                }
+            }
+            clueStart[c + 1] = size;
+        }
+
+        // Group cells and clues by root.
+        int[] componentOf = new int[numCells];
+        int numComponents = 0;
+        for(int i = 0; i < numCells; i++) {
+            int root = find(parent, i);
+            if(root == i) {
+                componentOf[i] = numComponents++;
+            }
+        }
+        for(int i = 0; i < numCells; i++) {
+            componentOf[i] = componentOf[find(parent, i)];
+        }
+
+        List<List<Integer>> componentClues = new ArrayList<List<Integer>>(numComponents);
+        for(int k = 0; k < numComponents; k++) {
+            componentClues.add(new ArrayList<Integer>());
+        }
+        for(int c = 0; c < numClues; c++) {
+            componentClues.get(componentOf[clueCells[clueStart[c]]]).add(c);
+        }
+
+        // Number each component's cells breadth first through its clues, so clues close early during search.
+        int[] local = new int[numCells];
+        Arrays.fill(local, -1);
+        int[] cellClueStart = new int[numCells + 1];
+        for(int j = 0; j < size; j++) {
+            cellClueStart[clueCells[j] + 1]++;
+        }
+        for(int i = 0; i < numCells; i++) {
+            cellClueStart[i + 1] += cellClueStart[i];
+        }
+        int[] cellClues = new int[size];
+        int[] next = cellClueStart.clone();
+        for(int c = 0; c < numClues; c++) {
+            for(int j = clueStart[c]; j < clueStart[c + 1]; j++) {
+                cellClues[next[clueCells[j]]++] = c;
+            }
+        }
+
+        boolean[] clueSeen = new boolean[numClues];
+        List<Component> components = new ArrayList<Component>(numComponents);
+        for(int k = 0; k < numComponents; k++) {
+            List<Integer> ownClues = componentClues.get(k);
+            int[] order = new int[16];
+            int count = 0;
+
+            // Breadth first over clues, starting from the component's first clue.
+            int[] clueQueue = new int[ownClues.size()];
+            int head = 0;
+            int tail = 0;
+            clueQueue[tail++] = ownClues.get(0);
+            clueSeen[ownClues.get(0)] = true;
+            while(head < tail) {
+                int c = clueQueue[head++];
+                for(int j = clueStart[c]; j < clueStart[c + 1]; j++) {
+                    int v = clueCells[j];
+                    if(local[v] >= 0) {
+                        continue;
+                    }
+                    if(count == order.length) {
+                        order = Arrays.copyOf(order, count * 2);
+                    }
+                    local[v] = count;
+                    order[count++] = v;
+
+                    for(int m = cellClueStart[v]; m < cellClueStart[v + 1]; m++) {
+                        int other = cellClues[m];
+                        if(!clueSeen[other]) {
+                            clueSeen[other] = true;
+                            clueQueue[tail++] = other;
+                        }
+                    }
+                }
+            }
+
+            // Build the component's arrays in local numbering, with clues in the order they were reached.
+            int[] positions = new int[count];
+            for(int i = 0; i < count; i++) {
+                positions[i] = cells[order[i]];
+            }
+            int[] cluePositions = new int[tail];
+            int[] targets = new int[tail];
+            int[] constraintStart = new int[tail + 1];
+            int total = 0;
+            for(int q = 0; q < tail; q++) {
+                total += clueStart[clueQueue[q] + 1] - clueStart[clueQueue[q]];
+            }
+            int[] constraintCells = new int[total];
+            int offset = 0;
+            for(int q = 0; q < tail; q++) {
+                int c = clueQueue[q];
+                int row = clues[c] / dim;
+                int col = clues[c] % dim;
+                cluePositions[q] = clues[c];
+                targets[q] = knowledgeBase.getClue(row, col) - knowledgeBase.getNumMineCells(row, col);
+                for(int j = clueStart[c]; j < clueStart[c + 1]; j++) {
+                    constraintCells[offset++] = local[clueCells[j]];
+                }
+                constraintStart[q + 1] = offset;
+            }
+
+            components.add(new Component(dim, positions, cluePositions, targets, constraintStart, constraintCells));
+        }
+
+        return components;
+    }
+
+    /**
+     * Helper method to find a cell's root, halving the path on the way.
+     * @param parent    : The union-find parents.
+     * @param i : The cell.
+     * @return The root.
+     */
+    private static int find(int[] parent, int i) {
+        while(parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Helper method to join the sets of two cells.
+     * @param parent    : The union-find parents.
+     * @param a : The first cell.
+     * @param b : The second cell.
+     */
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if(rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package Minesweeper;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An agent's Frontier, kept up to date as it reveals cells instead of rebuilt from a scan of the board.
+ * The clues with hidden neighbors and the interior are kept as bitsets, changed around each reveal.
+ * A reveal can only change the components with a clue within two cells of it, so only those are split again
+ * when the frontier is next asked for; the rest are reused as they are. The frontier comes out the same
+ * as a Frontier built from the knowledge base.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class FrontierTracker {
+    private KnowledgeBase knowledgeBase;
+    private int dim;
+
+    // Keyed by row * dim + col.
+    private BitSet clues;           // Revealed clues with hidden neighbors.
+    private BitSet interior;        // Hidden cells next to no revealed clue.
+    private BitSet dirtyClues;      // Positions within two cells of a reveal since the frontier was last built.
+    private BitSet splitClues;      // Reused set of clues to split again.
+    private Component[] owners;     // Component of the last frontier each clue is in, or null.
+    private int[] variable;         // Scratch for Frontier.split(); all zeros between builds.
+    private int revealedMines;      // Mines set off so far.
+
+    private List<Component> components = new ArrayList<Component>();   // Components of the last frontier built.
+    private Frontier frontier;      // Frontier of the current position, or null until it is asked for.
+
+    /**
+     * Constructor method for the tracker of a knowledge base where nothing is revealed yet.
+     * @param knowledgeBase : What the agent knows.
+     */
+    public FrontierTracker(KnowledgeBase knowledgeBase) {
+        this.knowledgeBase = knowledgeBase;
+        this.dim = knowledgeBase.getDim();
+        clues = new BitSet(dim * dim);
+        interior = new BitSet(dim * dim);
+        interior.set(0, dim * dim);
+        dirtyClues = new BitSet(dim * dim);
+        splitClues = new BitSet(dim * dim);
+        owners = new Component[dim * dim];
+        variable = new int[dim * dim];
+    }
+
+    /**
+     * Updates the clues and interior after the cell at (row, col) was revealed.
+     * The knowledge base must already hold the cell's clue and its neighbors' counts.
+     * The revealed cell leaves the interior, and if it is a clue, it joins the clues and its hidden neighbors leave
+     * the interior. Clues around it that no longer have hidden neighbors leave the clues.
+     * @param row
+     * @param col
+     */
+    public void reveal(int row, int col) {
+        int clue = knowledgeBase.getClue(row, col);
+        frontier = null;
+        interior.clear(row * dim + col);
+        if(clue < 0) {
+            revealedMines++;
+        } else if(knowledgeBase.getNumHiddenCells(row, col) > 0) {
+            clues.set(row * dim + col);
+        }
+
+        // Expand from center.
+        int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+        int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+        int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+        int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                int cell = current_row * dim + current_col;
+                if(!knowledgeBase.getRevealed(current_row, current_col)) {
+                    if(clue >= 0) {
+                        interior.clear(cell);
+                    }
+                } else if(knowledgeBase.getNumHiddenCells(current_row, current_col) == 0) {
+                    clues.clear(cell);
+                }
+            }
+        }
+
+        // Clues that shared a hidden neighbor with this cell, or lost one to it.
+        for(int current_row = Math.max(row - 2, 0); current_row <= Math.min(row + 2, dim - 1); current_row++) {
+            int first = current_row * dim + Math.max(col - 2, 0);
+            dirtyClues.set(first, current_row * dim + Math.min(col + 2, dim - 1) + 1);
+        }
+    }
+
+    /**
+     * Getter method for the frontier of the current position.
+     * It is built at most once between reveals, splitting only the components a reveal may have changed.
+     * @return The frontier.
+     */
+    public Frontier getFrontier() {
+        if(frontier != null) {
+            return frontier;
+        }
+
+        // Every clue of a touched component is split again, along with the new clues.
+        splitClues.clear();
+        for(int cell = dirtyClues.nextSetBit(0); cell >= 0; cell = dirtyClues.nextSetBit(cell + 1)) {
+            Component owner = owners[cell];
+            if(owner != null) {
+                for(int c = 0; c < owner.getNumConstraints(); c++) {
+                    splitClues.set(owner.getClue(c));
+                    owners[owner.getClue(c)] = null;   // Marks the component as dropped.
+                }
+            }
+            if(clues.get(cell)) {
+                splitClues.set(cell);
+            }
+        }
+        dirtyClues.clear();
+        splitClues.and(clues);
+        List<Component> split = Frontier.split(knowledgeBase, splitClues, variable);
+        for(int k = 0; k < split.size(); k++) {
+            Component component = split.get(k);
+            for(int c = 0; c < component.getNumConstraints(); c++) {
+                owners[component.getClue(c)] = component;
+            }
+        }
+
+        // Merge the kept and new components by first clue, which is each one's first in row-major order.
+        List<Component> merged = new ArrayList<Component>(components.size() + split.size());
+        int k = 0;
+        for(int j = 0; j < components.size(); j++) {
+            Component kept = components.get(j);
+            if(owners[kept.getClue(0)] != kept) {
+                continue;
+            }
+            while(k < split.size() && split.get(k).getClue(0) < kept.getClue(0)) {
+                merged.add(split.get(k++));
+            }
+            merged.add(kept);
+        }
+        while(k < split.size()) {
+            merged.add(split.get(k++));
+        }
+
+        components = merged;
+        frontier = new Frontier(merged, interior, revealedMines);
+        return frontier;
+    }
+}
@@ -59,6 +59,15 @@ public class Index implements Comparable<Index>, Comparator<Index> {
         return false;
     }
 
+    /**
+     * Hash code method consistent with equals, so indices can be used in hash-based collections.
+     * @return Hash code built from the row and col.
+     */
+    @Override
+    public int hashCode() {
+        return (31 * row) + col;
+    }
+
     /**
      * Compare method for 2 Modified Cell objects.
      * @param obj - Index object.
@@ -0,0 +1,156 @@
+package Minesweeper;
+
+/**
+ * Set of board positions that also remembers insertion order, for the agents' safe and mine marks.
+ * Positions are packed as row * dim + col. Membership is a bitset (O(1) contains),
+ * and order is kept in an int array used as a stack, so no Index objects are created.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class IndexSet {
+    private int dim;
+    private long[] members;     // Bit per position: 1 if in the set.
+    private int[] cells;        // Positions in insertion order.
+    private int size;
+
+    /**
+     * Constructor method for an empty set.
+     * @param dim   : The board dimension.
+     */
+    public IndexSet(int dim) {
+        this.dim = dim;
+        this.members = new long[(int)(((long)dim * dim + 63) / 64)];
+        this.cells = new int[16];
+        this.size = 0;
+    }
+
+    /**
+     * A toString method for an IndexSet, in insertion order.
+     * @return A string representation of the set, e.g. [(0, 1), (2, 3)].
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("[");
+        for(int i = 0; i < size; i++) {
+            if(i > 0) {
+                str.append(", ");
+            }
+            str.append('(').append(getRow(cells[i])).append(", ").append(getCol(cells[i])).append(')');
+        }
+        return str.append(']').toString();
+    }
+
+    /**
+     * Adds a position to the top of the set, if it isn't in it already.
+     * @param row   : The row of the position.
+     * @param col   : The col of the position.
+     * @return true if the position was added, false if it was already in the set.
+     */
+    public boolean add(int row, int col) {
+        int cell = row * dim + col;
+        if(contains(cell)) {
+            return false;
+        }
+
+        members[cell >>> 6] |= 1L << cell;
+        if(size == cells.length) {
+            int[] grown = new int[cells.length * 2];
+            System.arraycopy(cells, 0, grown, 0, size);
+            cells = grown;
+        }
+        cells[size++] = cell;
+        return true;
+    }
+
+    /**
+     * Checks if a position is in the set.
+     * @param row   : The row of the position.
+     * @param col   : The col of the position.
+     * @return true if the position is in the set.
+     */
+    public boolean contains(int row, int col) {
+        return contains(row * dim + col);
+    }
+
+    /**
+     * Checks if a packed position is in the set.
+     * @param cell  : The position, as row * dim + col.
+     * @return true if the position is in the set.
+     */
+    public boolean contains(int cell) {
+        return (members[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Removes the most recently added position.
+     * @return The position, as row * dim + col.
+     */
+    public int pop() {
+        int cell = cells[--size];
+        members[cell >>> 6] &= ~(1L << cell);
+        return cell;
+    }
+
+    /**
+     * Removes a position from anywhere in the set, keeping the others in insertion order.
+     * Takes time in the number of positions added after it, so it is meant for the odd correction, not every move.
+     * @param cell  : The position, as row * dim + col.
+     * @return true if the position was removed, false if it wasn't in the set.
+     */
+    public boolean remove(int cell) {
+        if(!contains(cell)) {
+            return false;
+        }
+
+        members[cell >>> 6] &= ~(1L << cell);
+        int i = size - 1;
+        while(cells[i] != cell) {
+            i--;
+        }
+        System.arraycopy(cells, i + 1, cells, i, size - 1 - i);
+        size--;
+        return true;
+    }
+
+    /**
+     * Getter method for the i-th position added that is still in the set.
+     * @param i : The position's place in insertion order.
+     * @return The position, as row * dim + col.
+     */
+    public int get(int i) {
+        return cells[i];
+    }
+
+    /**
+     * Getter method for the number of positions in the set.
+     * @return The number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     * @return true if there are no positions in the set.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Helper method to get the row of a packed position.
+     * @param cell  : The position, as row * dim + col.
+     * @return The row.
+     */
+    public int getRow(int cell) {
+        return cell / dim;
+    }
+
+    /**
+     * Helper method to get the col of a packed position.
+     * @param cell  : The position, as row * dim + col.
+     * @return The col.
+     */
+    public int getCol(int cell) {
+        return cell % dim;
+    }
+}
@@ -0,0 +1,236 @@
+package Minesweeper;
+
+/**
+ * The agents' knowledge about every cell, stored as one packed int per cell
+ * (plus one double per cell for mine probabilities, if the agent needs them)
+ * instead of one Cell object per cell.
+ * The getters and setters mirror Cell/ModifiedCell, taking the cell's (row, col) first.
+ *
+ * Bits of a cell's word:
+ * 0       revealed
+ * 1 - 4   clue + 2        (-2 = unknown, -1 = mine, 0 - 8)
+ * 5 - 8   safe neighbors
+ * 9 - 12  mine neighbors
+ * 13 - 16 hidden neighbors
+ * 17 - 18 agent's guess + 1 (-1 = mine, 0 = unknown, 1 = safe)
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class KnowledgeBase {
+    private static final int REVEALED = 0;
+    private static final int CLUE = 1;
+    private static final int SAFE = 5;
+    private static final int MINE = 9;
+    private static final int HIDDEN = 13;
+    private static final int GUESS = 17;
+    private static final int NIBBLE = 0xF;
+
+    private int dim;
+    private int[] cells;
+    private double[] probabilities;     // null if the agent doesn't track probabilities.
+
+    /**
+     * Constructor method for a knowledge base where nothing is revealed yet.
+     * @param dim   : The board dimension.
+     * @param withProbabilities : True to also store a mine probability per cell.
+     */
+    public KnowledgeBase(int dim, boolean withProbabilities) {
+        this.dim = dim;
+        this.cells = new int[dim * dim];
+        this.probabilities = withProbabilities ? new double[dim * dim] : null;
+
+        // Every cell starts hidden with an unknown clue, an unknown guess and all neighbors hidden.
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                int rows = (row > 0 ? 1 : 0) + 1 + (row < dim - 1 ? 1 : 0);
+                int cols = (col > 0 ? 1 : 0) + 1 + (col < dim - 1 ? 1 : 0);
+                int cell = row * dim + col;
+                setField(cell, CLUE, -2 + 2);
+                setField(cell, HIDDEN, (rows * cols) - 1);
+                setField(cell, GUESS, 0 + 1);
+            }
+        }
+    }
+
+    /**
+     * Getter method for the board's dimension.
+     * @return The dimension of the board.
+     */
+    public int getDim() {
+        return dim;
+    }
+
+    /**
+     * Builds a Cell holding a copy of what is known about (row, col), e.g. for printing.
+     * If the knowledge base stores probabilities, the copy is a ModifiedCell.
+     * @param row
+     * @param col
+     * @return A snapshot of the cell.
+     */
+    public Cell getCell(int row, int col) {
+        if(probabilities == null) {
+            return new Cell(getRevealed(row, col), getClue(row, col), getNumSafeCells(row, col),
+                    getNumMineCells(row, col), getNumHiddenCells(row, col), getAgentsGuess(row, col));
+        }
+
+        ModifiedCell cell = new ModifiedCell(getRevealed(row, col), getClue(row, col), getNumSafeCells(row, col),
+                getNumMineCells(row, col), getNumHiddenCells(row, col), getAgentsGuess(row, col));
+        cell.setProbability(getProbability(row, col));
+        return cell;
+    }
+
+    /**
+     * Getter method for cell's state.
+     * @return The state of the cell; true if revealed, false otherwise.
+     */
+    public boolean getRevealed(int row, int col) {
+        return getField(row * dim + col, REVEALED, 1) != 0;
+    }
+
+    /**
+     * Getter method for cell's clue.
+     * -2 If unkown/not set. -1 if mine. Values >= 0 indicate number of mines adjacent to cell.
+     * @return Cell's clue.
+     */
+    public int getClue(int row, int col) {
+        return getField(row * dim + col, CLUE, NIBBLE) - 2;
+    }
+
+    /**
+     * Getter method for number of safe cells around cell.
+     * @return The number of safe cells around cell.
+     */
+    public int getNumSafeCells(int row, int col) {
+        return getField(row * dim + col, SAFE, NIBBLE);
+    }
+
+    /**
+     * Getter method for number of revealed mines around cell.
+     * @return The number of revealed mines around cell.
+     */
+    public int getNumMineCells(int row, int col) {
+        return getField(row * dim + col, MINE, NIBBLE);
+    }
+
+    /**
+     * Getter method for number of hidden cells around cell.
+     * @return The number of hidden cells around cell.
+     */
+    public int getNumHiddenCells(int row, int col) {
+        return getField(row * dim + col, HIDDEN, NIBBLE);
+    }
+
+    /**
+     * Getter method for agent's guess.
+     * @return -1 if probably mine, 0 if unknown, 1 if probably safe.
+     */
+    public int getAgentsGuess(int row, int col) {
+        return getField(row * dim + col, GUESS, 0x3) - 1;
+    }
+
+    /**
+     * Getter method for cell's probability of being a mine.
+     * @return The probability.
+     */
+    public double getProbability(int row, int col) {
+        return probabilities[row * dim + col];
+    }
+
+    /**
+     * Setter method for changing cell state.
+     * @param revealed : True if revealed, false if not.
+     */
+    public void setRevealed(int row, int col, boolean revealed) {
+        setField(row * dim + col, REVEALED, revealed ? 1 : 0);
+    }
+
+    /**
+     * Setter method for cell's clue.
+     * @param clue : Cell's clue.
+     */
+    public void setClue(int row, int col, int clue) {
+        setField(row * dim + col, CLUE, clue + 2);
+    }
+
+    /**
+     * Setter method for changing number of safe cells around cell.
+     * @param numSafeCells: The number of safe cells around cell.
+     */
+    public void setNumSafeCells(int row, int col, int numSafeCells) {
+        setField(row * dim + col, SAFE, numSafeCells);
+    }
+
+    /**
+     * Setter method for changing number of revealed mine cells around cell.
+     * @param numMineCells : The number of revealed mine cells around cell.
+     */
+    public void setNumMineCells(int row, int col, int numMineCells) {
+        setField(row * dim + col, MINE, numMineCells);
+    }
+
+    /**
+     * Setter method for changing number of hidden cells around cell.
+     * @param numHiddenCells : The number of hidden cells around cell.
+     */
+    public void setNumHiddenCells(int row, int col, int numHiddenCells) {
+        setField(row * dim + col, HIDDEN, numHiddenCells);
+    }
+
+    /**
+     * Setter method for agent's guess.
+     * @param agentsGuess : Agent's guess; -1 if probably mine, 0 if unknown, 1 if probably safe.
+     */
+    public void setAgentsGuess(int row, int col, int agentsGuess) {
+        setField(row * dim + col, GUESS, agentsGuess + 1);
+    }
+
+    /**
+     * Setter method for cell's probability of being a mine.
+     * @param probability : The probability.
+     */
+    public void setProbability(int row, int col, double probability) {
+        probabilities[row * dim + col] = probability;
+    }
+
+    /**
+     * Moves one of a cell's hidden neighbors over to its safe or mine neighbors, in a single write to the cell's word.
+     * The counts stay within their fields, so no field borrows from or carries into another.
+     * @param mine : True if the neighbor turned out to be a mine.
+     */
+    public void revealNeighbor(int row, int col, boolean mine) {
+        cells[row * dim + col] += (1 << (mine ? MINE : SAFE)) - (1 << HIDDEN);
+    }
+
+    /**
+     * Approximate number of bytes the knowledge base takes up on the heap.
+     * @return The size in bytes.
+     */
+    public long sizeInBytes() {
+        long size = 16 + ((long)cells.length * 4);
+        if(probabilities != null) {
+            size += 16 + ((long)probabilities.length * 8);
+        }
+        return size;
+    }
+
+    /**
+     * Helper method to read a field of a cell's word.
+     * @param cell  : The cell, as row * dim + col.
+     * @param shift : The field's lowest bit.
+     * @param mask  : The field's mask, once shifted down.
+     * @return The field's stored value.
+     */
+    private int getField(int cell, int shift, int mask) {
+        return (cells[cell] >>> shift) & mask;
+    }
+
+    /**
+     * Helper method to write a 4-bit (or smaller) field of a cell's word.
+     * @param cell  : The cell, as row * dim + col.
+     * @param shift : The field's lowest bit.
+     * @param value : The value to store (must fit the field).
+     */
+    private void setField(int cell, int shift, int value) {
+        int mask = (shift == REVEALED ? 0x1 : (shift == GUESS ? 0x3 : NIBBLE)) << shift;
+        cells[cell] = (cells[cell] & ~mask) | ((value << shift) & mask);
+    }
+}
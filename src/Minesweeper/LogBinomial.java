@@ -0,0 +1,50 @@
+package Minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * Binomial coefficients in log space, for counting mine placements on boards far too big for exact counts.
+ * Keeps a table of log(n!) that grows as larger n are asked for, so each coefficient after the first
+ * is two subtractions. Not thread-safe; one per agent.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class LogBinomial {
+    private double[] logFactorials;     // log(n!) at n.
+
+    /**
+     * Constructor method for a table that starts out covering a board.
+     * @param n : The largest n expected, e.g. the number of cells on the board.
+     */
+    public LogBinomial(int n) {
+        logFactorials = new double[Math.max(n, 1) + 1];
+        fill(1);
+    }
+
+    /**
+     * Calculates log(n choose k).
+     * @param n : The number of cells.
+     * @param k : The number of mines.
+     * @return The log of the number of ways to place k mines in n cells, or -Infinity if there are none.
+     */
+    public double logChoose(int n, int k) {
+        if(k < 0 || k > n) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if(n >= logFactorials.length) {
+            int filled = logFactorials.length;
+            logFactorials = Arrays.copyOf(logFactorials, Math.max(n + 1, filled * 2));
+            fill(filled);
+        }
+        return logFactorials[n] - logFactorials[k] - logFactorials[n - k];
+    }
+
+    /**
+     * Helper method to fill in the table from a given n to the end.
+     * @param from  : The first n to fill in.
+     */
+    private void fill(int from) {
+        for(int n = Math.max(from, 1); n < logFactorials.length; n++) {
+            logFactorials[n] = logFactorials[n - 1] + Math.log(n);
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package Minesweeper;
 
-import java.util.ArrayList;
-import java.util.PriorityQueue;
-import java.util.Random;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
 
 /**
  * This class contains the terminal UI for Minesweeper.
@@ -14,6 +13,8 @@ public class Main {
     private static BasicAgent basicAgent = null;
     private static ModifiedAgent advancedAgent = null;
     private static Scanner sc = new Scanner(System.in);
+    private static Long seed = null;                    // null = unseeded.
+    private static TrialRandom trialRandom = new TrialRandom();
 
     /**
      * Method to create environment.
@@ -29,8 +30,9 @@ public class Main {
             int numMines = Integer.parseInt(str);
     
             if(dim > 0 && numMines >= 0) {
-                System.out.println("Successfully generated " + dim + " x " + dim + " board and scattered " + numMines + " mines.");
-                env = new Environment(dim, numMines);
+                trialRandom = newTrialRandom();
+                env = new Environment(dim, numMines, trialRandom.boardRandom());
+                System.out.println("Successfully generated " + dim + " x " + dim + " board and scattered " + numMines + " mines (seed " + trialRandom.getSeed() + ").");
             } else {
                 System.out.println("One of your inputs may be invalid. Try again!");
                 env = null;
@@ -41,63 +43,45 @@ public class Main {
         }
     }
 
+    /**
+     * Method to set the seed used for new boards and agents.
+     */
+    private static void setSeed() {
+        System.out.print("Enter a seed (blank for unseeded): ");
+        String str = sc.nextLine().trim();
+
+        if(str.isEmpty()) {
+            seed = null;
+            System.out.println("New boards will be unseeded.");
+            return;
+        }
+
+        try {
+            seed = Long.parseLong(str);
+            System.out.println("New boards will use seed " + seed + ".");
+        } catch(Exception e) {
+            System.out.println("One of your inputs may be invalid. Try again!");
+        }
+    }
+
+    /**
+     * Helper method to get the random streams for a new board.
+     * @return Streams from the current seed, or unseeded streams if no seed is set.
+     */
+    private static TrialRandom newTrialRandom() {
+        return seed == null ? new TrialRandom() : new TrialRandom(seed);
+    }
+
     /**
      * Method to create and run basic agent on current board.
      */
     private static void runBasicAgent() {
         if(env != null) {
             // Create the agent.
-            basicAgent = new BasicAgent(env.getBoard());
-            Random rand = new Random();
-
-            while(true) {
-                Cell[][] knowledgeBase = basicAgent.getKnowledgeBase();
-                ArrayList<Index> mineCells = basicAgent.getMineCells();
+            basicAgent = new BasicAgent(env.getBoardView());
+            SplittableRandom rand = trialRandom.basicRandom();
 
-                int row = 0;
-                int col = 0;
-
-                // Check safe cells before resorting to random.
-                if(!basicAgent.getSafeCells().isEmpty()) {
-                    Index index = basicAgent.getSafeCells().pop();
-                    row = index.getRow();
-                    col = index.getCol();
-                } else {
-                    // Build a list of unprocessed cells.
-                    ArrayList<Index> unprocessed = new ArrayList<Index>();
-                    for(int i = 0; i < knowledgeBase.length; i++) {
-                        for(int j = 0; j < knowledgeBase.length; j++) {
-                            Index index = new Index(i, j);
-                            // If not processed and not marked a mine:
-                            if(!knowledgeBase[i][j].getRevealed() && !mineCells.contains(index)) {
-                                unprocessed.add(index);
-                            }
-                        }
-                    }
-
-                    // If unprocessed is empty, then there are no cells left to be processed.
-                    if(unprocessed.isEmpty()) {
-                        break;
-                    }
-
-                    // Select a cell at random from the list of unprocessed cells.
-                    Index index = unprocessed.get(rand.nextInt(unprocessed.size()));
-                    row = index.getRow();
-                    col = index.getCol();
-                }
-
-                basicAgent.selectCell(row, col);    // Select the cell to reveal it.
-                basicAgent.queryCell(row, col);     // Query the cell for information.
-
-                System.out.println("Selected (" + row + ", " + col + "); " + basicAgent.getKnowledgeBase()[row][col]);
-                if(!basicAgent.getSafeCells().empty()) {
-                    System.out.println("Marked safe: " + basicAgent.getSafeCells());
-                }
-                
-                if(!basicAgent.getMineCells().isEmpty()) {
-                    System.out.println("Marked mines: " + basicAgent.getMineCells());
-                }
-            }
+            AgentRunner.runBasic(basicAgent, rand, true);
 
             // Check score.
             System.out.println("The basic agent scored: " + basicAgent.calcScore() + " / " + env.getNum_mines());
@@ -113,136 +97,11 @@ public class Main {
     private static void runAdvancedAgent() {
         if(env != null) {
             // Create the agent.
-            advancedAgent = new ModifiedAgent(env.getBoard());
-            Random rand = new Random();
-
-            while(true) {
-                ModifiedCell[][] knowledgeBase = advancedAgent.getKnowledgeBase();
-                ArrayList<Index> mineCells = advancedAgent.getMineCells();
-
-                int row = 0;
-                int col = 0;
-    
-                // Pick from list of safe cells if not empty.
-                if(!advancedAgent.getSafeCells().isEmpty()) {
-                    Index index = advancedAgent.getSafeCells().pop();
-                    row = index.getRow();
-                    col = index.getCol();
-                } else {
-                    // Build a min heap of unprocessed cells with probabilities < 0.5.
-                    PriorityQueue<Index> unprocessedKnown = new PriorityQueue<Index>();
-                    for(int i = 0; i < knowledgeBase.length; i++) {
-                        for(int j = 0; j < knowledgeBase.length; j++) {
-                            Index index = new Index(i, j, knowledgeBase[i][j].getProbability());
-                            if(!knowledgeBase[i][j].getRevealed()
-                                && !mineCells.contains(index)
-                                && knowledgeBase[i][j].getProbability() > 0
-                                && knowledgeBase[i][j].getProbability() < 0.5) {
-                                unprocessedKnown.add(index);
-                            }
-                        }
-                    }
-    
-                    // If heap is empty (no cells with probabilities < 0.5):
-                    if(unprocessedKnown.isEmpty()) {
-                        /*
-                        // Build a list of unprocessed cells.
-                        ArrayList<Index> unprocessed = new ArrayList<Index>();
-                        for(int i = 0; i < knowledgeBase.length; i++) {
-                            for(int j = 0; j < knowledgeBase.length; j++) {
-                                Index index = new Index(i, j);
-                                if(!knowledgeBase[i][j].getRevealed() && !mineCells.contains(index)) {
-                                    unprocessed.add(index);
-                                }
-                            }
-                        }
-                        */
-
-                        
-                        // Comment out above! This bit is for prioritizing inner cell > edge cells > corner cells.
-                        // Build a list of inner cells to process.
-                        ArrayList<Index> unprocessed = new ArrayList<Index>();
-
-                        for(int i = 0; i < knowledgeBase.length; i++) {
-                            for(int j = 0; j < knowledgeBase.length; j++) {
-                                Index index = new Index(i, j);
-                                if(!knowledgeBase[i][j].getRevealed()
-                                    && !mineCells.contains(index)
-                                    && (i != 0 && j != 0 && i != knowledgeBase.length - 1 && j != knowledgeBase.length - 1)) {
-                                        unprocessed.add(index);
-                                }
-                            }
-                        }
-
-                        // Build a list of edge cells to process.
-                        if(unprocessed.isEmpty()) {
-                            for(int i = 0; i < knowledgeBase.length; i++) {
-                                for(int j = 0; j < knowledgeBase.length; j++) {
-                                    Index index = new Index(i, j);
-                                    if(!knowledgeBase[i][j].getRevealed()
-                                        && !mineCells.contains(index)
-                                        && (!((i == 0 && j == 0) || (i == 0 && j == knowledgeBase.length - 1) || (i == knowledgeBase.length && j == 0) || (i == knowledgeBase.length && j == knowledgeBase.length)))) {
-                                            unprocessed.add(index);
-                                    }
-                                }
-                            }
-                        }
-
-                        // Build a list of corner cells to process.
-                        if(unprocessed.isEmpty()) {
-                            Index topLeft = new Index(0, 0);
-                            Index topRight = new Index(0, knowledgeBase.length - 1);
-                            Index bottomLeft = new Index(knowledgeBase.length - 1, 0);
-                            Index bottomRight = new Index(knowledgeBase.length - 1, knowledgeBase.length - 1);
-
-                            if(!knowledgeBase[0][0].getRevealed() && !mineCells.contains(topLeft)) {
-                                unprocessed.add(topLeft);
-                            }
-
-                            if(!knowledgeBase[0][knowledgeBase.length - 1].getRevealed() && !mineCells.contains(topRight)) {
-                                unprocessed.add(topRight);
-                            }
+            advancedAgent = new ModifiedAgent(env.getBoardView());
+            SplittableRandom rand = trialRandom.advancedRandom();
 
-                            if(!knowledgeBase[knowledgeBase.length - 1][0].getRevealed() && !mineCells.contains(bottomLeft)) {
-                                unprocessed.add(bottomLeft);
-                            }
+            AgentRunner.runAdvanced(advancedAgent, rand, true);
 
-                            if(!knowledgeBase[knowledgeBase.length - 1][knowledgeBase.length - 1].getRevealed() && !mineCells.contains(bottomRight)) {
-                                unprocessed.add(bottomRight);
-                            }
-                        }
-                        
-                    
-                        // If the list is empty, then there is nothing left to process.
-                        if(unprocessed.isEmpty()) {
-                            break;
-                        }
-    
-                        // Select an unprocessed cell randomly.
-                        Index index = unprocessed.get(rand.nextInt(unprocessed.size()));
-                        row = index.getRow();
-                        col = index.getCol();
-                    } else {
-                        // Pick the cell with the lowest probability of being a mine from the min heap.
-                        row = unprocessedKnown.peek().getRow();
-                        col = unprocessedKnown.peek().getCol();
-                    }
-                }
-    
-                advancedAgent.selectCell(row, col);             // Select the cell to reveal it.
-                advancedAgent.queryCell(row, col);              // Query the cell for information.
-                advancedAgent.updateAllKnownProbabilities();    // Update probabilities w/ new clue.
-
-                System.out.println("Selected (" + row + ", " + col + "); " + advancedAgent.getKnowledgeBase()[row][col]);
-                if(!advancedAgent.getSafeCells().isEmpty()) {
-                    System.out.println("Marked safe: " + advancedAgent.getSafeCells());
-                }
-
-                if(!advancedAgent.getMineCells().isEmpty()) {
-                    System.out.println("Marked mines: " + advancedAgent.getMineCells());
-                }
-            }
-    
             // Check score.
             System.out.println("The advanced agent scored: " + advancedAgent.calcScore() + " / " + env.getNum_mines());
         } else {
@@ -253,13 +112,12 @@ public class Main {
 
     /**
      * Method to get the average final score for each agent, in percentage.
+     * Trials run in parallel on one thread per core; with a seed set the averages are reproducible.
      */
     private static void calcAgentsAvgFinalScore() {
         String str = new String();
         try {
             if(env != null) {
-                Environment temp = env;
-
                 System.out.print("Enter the number of trials: ");
                 str = sc.nextLine();
                 int trials = Integer.parseInt(str);
@@ -270,29 +128,22 @@ public class Main {
 
                 int dim = 10;
                 int numMines = (int)(mineDensity * (dim * dim));
-                double basicAgentSum = 0;
-                double advancedAgentSum = 0;
 
                 if(trials > 0) {
-
-                    for(int i = 0; i < trials; i++) {
-                        env = new Environment(dim, numMines);
-                        runBasicAgent();
-                        runAdvancedAgent();
-                        basicAgentSum += ((double)basicAgent.calcScore() / (double)env.getNum_mines());
-                        advancedAgentSum += ((double)advancedAgent.calcScore() / (double)env.getNum_mines());
+                    ExecutorService executor = TrialEngine.newFixedPool(0);
+                    TrialResult result;
+                    try {
+                        result = new TrialEngine(executor).run(trials, dim, numMines, seed);
+                    } finally {
+                        executor.shutdown();
                     }
 
-                    double basicAgentAvg = (basicAgentSum / (double)trials) * 100;
-                    double advancedAgentAvg = (advancedAgentSum / (double)trials) * 100;
-
                     System.out.println(numMines);
-                    System.out.println("Basic agent average score over " + trials + " trials: " + basicAgentAvg);
-                    System.out.println("Advanced agent average score over " + trials + " trials: " + advancedAgentAvg);
+                    System.out.println("Basic agent average score over " + trials + " trials: " + result.getBasicAverage());
+                    System.out.println("Advanced agent average score over " + trials + " trials: " + result.getAdvancedAverage());
                 } else {
                     System.out.println("One of your inputs may be invalid. Try again!");
                 }
-                env = temp;
             } else {
                 System.out.println("Please generate a valid board before attempting this.");
             }
@@ -303,9 +154,9 @@ public class Main {
 
     public static void main(String[] args) {
         // Generate a 16x16 board with 40 mines by default.
-        env = new Environment(16, 40);
+        env = new Environment(16, 40, trialRandom.boardRandom());
 
-        String commandsList = "'g' to generate new board.\n'b' to run basic agent.\n'a' to run advanced agent.\n'avg' to get the average scores of both agents for current board.\n'pb' to print the original board.\n'pkb' to run and print the basic agent's resulting knowledge base.\n'pka' to run and print the advanced agent's resulting knowledge base.\n'h' to bring this list up again.\n'q' to quit the program.";
+        String commandsList = "'g' to generate new board.\n's' to set the seed for new boards.\n'b' to run basic agent.\n'a' to run advanced agent.\n'avg' to get the average scores of both agents for current board.\n'pb' to print the original board.\n'pkb' to run and print the basic agent's resulting knowledge base.\n'pka' to run and print the advanced agent's resulting knowledge base.\n'h' to bring this list up again.\n'q' to quit the program.";
 
         System.out.println("Welcome to Minesweeper!");
         System.out.println("The commands are as follows:");
@@ -323,6 +174,8 @@ public class Main {
             } else if(cmd.equalsIgnoreCase("g")) {
                 System.out.println("Generating new environment...");
                 createEnv();
+            } else if(cmd.equalsIgnoreCase("s")) {
+                setSeed();
             } else if(cmd.equalsIgnoreCase("b")) {
                 System.out.println("Running basic agent...");
                 runBasicAgent();
@@ -0,0 +1,246 @@
+package Minesweeper;
+
+/**
+ * Mine probabilities over the whole hidden board when the total number of mines is known.
+ * Every solution of the frontier is weighted by the number of ways to place the mines it leaves over
+ * in the free cells (interior cells, plus the cells of components the solver gave up on):
+ * weight(frontier with m mines) = C(free cells, mines left - m).
+ * Components are independent apart from that shared count, so the weight each component sees for its own
+ * mine count comes from convolving the other components' counts: a backward pass folds the weights into
+ * suffix tables, and a forward pass carries the prefix convolution, which is O(frontier cells^2) over all
+ * components rather than per component. Tables are rescaled to a maximum of 1 as they go, since only
+ * ratios matter, so huge boards don't overflow.
+ * Rescaling can round a very unlikely count down to 0, so which counts are possible at all is tracked
+ * exactly alongside, and only those decide whether a probability is exactly 0 or 1.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class MineCountWeighting {
+    private double[][] probabilities;   // Probability of each cell of each solved component, or null for unsolved ones.
+    private double freeProbability;     // Probability of each free cell.
+    private boolean consistent;         // false if no frontier solution fits the mines left.
+
+    /**
+     * Constructor method that weighs a solved frontier.
+     * @param solutions : The solution of each component, or null where a component was left unsolved.
+     * @param freeCells : Hidden cells no solved component covers.
+     * @param minesLeft : Mines not revealed yet.
+     * @param logBinomial   : Table for the binomial weights.
+     */
+    public MineCountWeighting(ComponentSolution[] solutions, int freeCells, int minesLeft, LogBinomial logBinomial) {
+        int numComponents = solutions.length;
+        probabilities = new double[numComponents][];
+
+        // Before component c, solved components can hold at most prefixSize[c] mines.
+        int[] prefixSize = new int[numComponents + 1];
+        for(int c = 0; c < numComponents; c++) {
+            prefixSize[c + 1] = prefixSize[c] + (solutions[c] == null ? 0 : solutions[c].size());
+        }
+        int frontierSize = prefixSize[numComponents];
+
+        // Weight of m frontier mines from the free cells.
+        double[] free = new double[frontierSize + 1];
+        boolean[] freeFits = new boolean[frontierSize + 1];
+        double maxLog = Double.NEGATIVE_INFINITY;
+        for(int m = 0; m <= frontierSize; m++) {
+            maxLog = Math.max(maxLog, logBinomial.logChoose(freeCells, minesLeft - m));
+            freeFits[m] = minesLeft - m >= 0 && minesLeft - m <= freeCells;
+        }
+        if(maxLog == Double.NEGATIVE_INFINITY) {
+            return;     // Too many or too few mines left for any frontier.
+        }
+        for(int m = 0; m <= frontierSize; m++) {
+            free[m] = Math.exp(logBinomial.logChoose(freeCells, minesLeft - m) - maxLog);
+        }
+
+        // suffix[c][p]: weight of components c onward and the free cells, given p mines before c.
+        // suffixFits[c][p]: whether that weight is really above 0.
+        double[][] suffix = new double[numComponents + 1][];
+        boolean[][] suffixFits = new boolean[numComponents + 1][];
+        suffix[numComponents] = free;
+        suffixFits[numComponents] = freeFits;
+        for(int c = numComponents - 1; c >= 0; c--) {
+            ComponentSolution solution = solutions[c];
+            if(solution == null) {
+                suffix[c] = suffix[c + 1];
+                suffixFits[c] = suffixFits[c + 1];
+                continue;
+            }
+            double[] next = suffix[c + 1];
+            boolean[] nextFits = suffixFits[c + 1];
+            double[] table = new double[prefixSize[c] + 1];
+            boolean[] fits = new boolean[prefixSize[c] + 1];
+            for(int p = 0; p < table.length; p++) {
+                double sum = 0;
+                for(int k = 0; k <= solution.size(); k++) {
+                    if(solution.getSolutions(k) > 0) {
+                        sum += solution.getSolutions(k) * next[p + k];
+                        fits[p] |= nextFits[p + k];
+                    }
+                }
+                table[p] = sum;
+            }
+            suffix[c] = rescale(table);
+            suffixFits[c] = fits;
+        }
+
+        // prefix[p]: weight of p mines in the components before c, and whether that is possible at all.
+        double[] prefix = {1};
+        boolean[] prefixFits = {true};
+        double[] weights = new double[0];
+        boolean[] possible = new boolean[0];
+        for(int c = 0; c < numComponents; c++) {
+            ComponentSolution solution = solutions[c];
+            if(solution == null) {
+                continue;
+            }
+            int size = solution.size();
+            double[] next = suffix[c + 1];
+            boolean[] nextFits = suffixFits[c + 1];
+
+            // Weight each mine count of this component by every way the rest of the board can go with it.
+            if(weights.length < size + 1) {
+                weights = new double[size + 1];
+                possible = new boolean[size + 1];
+            }
+            double total = 0;
+            for(int k = 0; k <= size; k++) {
+                double weight = 0;
+                possible[k] = false;
+                if(solution.getSolutions(k) > 0) {
+                    for(int p = 0; p < prefix.length; p++) {
+                        weight += prefix[p] * next[p + k];
+                        possible[k] |= prefixFits[p] && nextFits[p + k];
+                    }
+                }
+                weights[k] = weight;
+                total += solution.getSolutions(k) * weight;
+            }
+            if(total == 0) {
+                return;
+            }
+
+            double[] cellProbabilities = new double[size];
+            for(int i = 0; i < size; i++) {
+                double mines = 0;
+                boolean alwaysMine = true;
+                boolean neverMine = true;
+                for(int k = 0; k <= size; k++) {
+                    mines += solution.getMineCount(k, i) * weights[k];
+                    if(possible[k]) {
+                        alwaysMine &= solution.getMineCount(k, i) == solution.getSolutions(k);
+                        neverMine &= solution.getMineCount(k, i) == 0;
+                    }
+                }
+                cellProbabilities[i] = settle(mines / total, alwaysMine, neverMine);
+            }
+            probabilities[c] = cellProbabilities;
+
+            double[] combined = new double[prefix.length + size];
+            boolean[] combinedFits = new boolean[prefix.length + size];
+            for(int p = 0; p < prefix.length; p++) {
+                if(!prefixFits[p]) {
+                    continue;
+                }
+                for(int k = 0; k <= size; k++) {
+                    if(solution.getSolutions(k) > 0) {
+                        combined[p + k] += prefix[p] * solution.getSolutions(k);
+                        combinedFits[p + k] = true;
+                    }
+                }
+            }
+            prefix = rescale(combined);
+            prefixFits = combinedFits;
+        }
+
+        // Expected mines in the free cells, over every frontier mine count.
+        double total = 0;
+        double mines = 0;
+        boolean alwaysFull = true;
+        boolean alwaysEmpty = true;
+        for(int m = 0; m < prefix.length; m++) {
+            double weight = prefix[m] * free[m];
+            total += weight;
+            mines += weight * (minesLeft - m);
+            if(prefixFits[m] && freeFits[m]) {
+                alwaysFull &= minesLeft - m == freeCells;
+                alwaysEmpty &= minesLeft - m == 0;
+            }
+        }
+        if(total == 0) {
+            return;
+        }
+        freeProbability = freeCells == 0 ? 0 : settle(mines / total / freeCells, alwaysFull, alwaysEmpty);
+        consistent = true;
+    }
+
+    /**
+     * Checks if some frontier solution fits the mines left.
+     * If not, none of the probabilities are set.
+     * @return true if the probabilities are set.
+     */
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    /**
+     * Getter method for the probability of a frontier cell.
+     * @param k : The component number.
+     * @param i : The cell number in the component.
+     * @return The probability the cell is a mine.
+     */
+    public double getProbability(int k, int i) {
+        return probabilities[k][i];
+    }
+
+    /**
+     * Checks if a component was weighed.
+     * @param k : The component number.
+     * @return true if the component was solved, so its cells have probabilities.
+     */
+    public boolean isSolved(int k) {
+        return probabilities[k] != null;
+    }
+
+    /**
+     * Getter method for the probability of each free cell.
+     * @return The probability any one free cell is a mine.
+     */
+    public double getFreeProbability() {
+        return freeProbability;
+    }
+
+    /**
+     * Helper method to keep a rounded probability off 0 and 1 unless it is certain.
+     * @param prob  : The probability as calculated.
+     * @param alwaysMine    : true if the cell is a mine in every possible placement.
+     * @param neverMine : true if the cell is a mine in no possible placement.
+     * @return The probability.
+     */
+    private static double settle(double prob, boolean alwaysMine, boolean neverMine) {
+        if(alwaysMine) {
+            return 1;
+        }
+        if(neverMine) {
+            return 0;
+        }
+        return Math.min(Math.max(prob, Double.MIN_VALUE), Math.nextDown(1.0));
+    }
+
+    /**
+     * Helper method to scale a table so its largest entry is 1.
+     * @param table : The table.
+     * @return The same table.
+     */
+    private static double[] rescale(double[] table) {
+        double max = 0;
+        for(double value : table) {
+            max = Math.max(max, value);
+        }
+        if(max > 0) {
+            for(int i = 0; i < table.length; i++) {
+                table[i] /= max;
+            }
+        }
+        return table;
+    }
+}
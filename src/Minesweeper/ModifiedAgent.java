@@ -1,35 +1,153 @@
 package Minesweeper;
 
-import java.util.ArrayList;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public class ModifiedAgent {
-    private int[][] board;          // The board the agent will be working with.
-    private ModifiedCell[][] knowledgeBase; // Parallel matrix that stores information about cells.
+    private static final double MARK_MARGIN = 0.05;    // How far an approximate price may be from a heuristic mark that stays.
 
-    // ArrayLists for guesses.
-    private Stack<Index> safeCells;
-    private ArrayList<Index> mineCells;
+    private Board board;            // The board the agent will be working with.
+    private KnowledgeBase knowledgeBase; // Packed per-cell words that store information about cells.
+
+    // Sets for guesses, keyed by row * dim + col.
+    private IndexSet safeCells;
+    private IndexSet mineCells;
+    private BitSet provenCells;         // Marked cells whose mark came from an exact result.
+    private int[] cascadeCells = new int[64];   // Reused queue for revealCascade().
+
+    // Worklists for updateChangedProbabilities(), keyed by row * dim + col.
+    private IndexSet pendingClues;              // Revealed clues whose probability is out of date.
+    private int[] clueQueue;                    // Min-heap of clues left to update in the current pass.
+    private int queuedCount;                    // Clues in clueQueue.
+    private BitSet queuedClues;                 // Clues in clueQueue.
+    private IndexSet changedCells;              // Hidden cells next to a reveal or an updated clue.
+    private int[] changedOrder;                 // Reused buffer to sort changedCells in.
+    private int sweepPosition = -1;             // Clue being updated, or -1 outside the clue pass.
+
+    // Cells left to guess, kept current as cells are revealed, marked and re-priced.
+    private CandidateHeap candidates;   // Unrevealed, unmarked cells with 0 < probability < 0.5.
+    private CellBucket innerCells;      // Unrevealed, unmarked cells off the border.
+    private CellBucket edgeCells;       // Unrevealed, unmarked border cells, bar the top corners.
+    private CellBucket cornerCells;     // Unrevealed, unmarked top corners.
+
+    private AgentOptions options;       // Engines to price guesses by; none means the heuristic alone.
+    private int numMines;               // Mines on the board, or -1 if the agent isn't told (or has no engine to use it).
+    private LogBinomial logBinomial;    // Binomial weights for the mine count, or null without it.
+    private double interiorProbability = -1;    // Chance an interior cell is a mine, or -1 if unknown.
+    private FrontierTracker frontierTracker;    // The frontier the engines price, kept current as cells are revealed.
+    private int patternBucket;          // The pattern table's density bucket for this board.
+    private CandidateHeap patternPrices;    // Unrevealed cells not marked mines, by pattern price, or null without a table.
+    private double[] patternPrice;      // Table price of each hidden cell, or -1 where the table has none.
 
     /**
      * Constructor method for modified agent.
      * @param board : The board the agent will be working with/querying from.
      */
     public ModifiedAgent(int[][] board) {
+        this(new ArrayBoard(board));
+    }
+
+    /**
+     * Constructor method for modified agent.
+     * @param board : The board the agent will be working with/querying from.
+     */
+    public ModifiedAgent(Board board) {
+        this(board, new AgentOptions());
+    }
+
+    /**
+     * Constructor method for modified agent.
+     * The options pick the engines that price guesses (see AgentOptions); with none, the agent guesses from the heuristic alone.
+     * @param board : The board the agent will be working with/querying from.
+     * @param options   : The agent's options.
+     */
+    public ModifiedAgent(Board board, AgentOptions options) {
         this.board = board;
-        this.knowledgeBase = new ModifiedCell[board.length][board.length];
+        this.options = options;
+        boolean counts = options.getExactSolver() != null || options.getBeliefPropagation() != null
+            || options.getScheduler() != null;
+        this.numMines = counts ? options.getNumMines() : -1;
+        if(this.numMines >= 0) {
+            this.logBinomial = new LogBinomial(board.getDim() * board.getDim());
+        }
+        if(options.getPatternTable() != null && options.getNumMines() >= 0) {
+            this.patternBucket = options.getPatternTable().bucketFor(
+                (double)options.getNumMines() / (board.getDim() * board.getDim()));
+        }
+        this.knowledgeBase = new KnowledgeBase(board.getDim(), true);
+        this.frontierTracker = new FrontierTracker(knowledgeBase);
+
+        safeCells = new IndexSet(board.getDim());
+        mineCells = new IndexSet(board.getDim());
+        provenCells = new BitSet(board.getDim() * board.getDim());
+
+        pendingClues = new IndexSet(board.getDim());
+        clueQueue = new int[board.getDim() * board.getDim()];
+        queuedClues = new BitSet(board.getDim() * board.getDim());
+        changedCells = new IndexSet(board.getDim());
+        changedOrder = new int[board.getDim() * board.getDim()];
+
+        candidates = new CandidateHeap(board.getDim());
+        buildBuckets(board.getDim());
+        if(options.getPatternTable() != null) {
+            buildPatternPrices(board.getDim());
+        }
+    }
+
+    /**
+     * Helper method to price every cell by the pattern table, before anything is revealed.
+     * From then on a cell is only re-priced when a cell in its 5x5 neighborhood is revealed (see refreshPatterns()).
+     * @param dim   : The board dimension.
+     */
+    private void buildPatternPrices(int dim) {
+        patternPrices = new CandidateHeap(dim);
+        patternPrice = new double[dim * dim];
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                patternPrice[row * dim + col] = options.getPatternTable().lookup(knowledgeBase, row, col, patternBucket);
+                updatePattern(row * dim + col);
+            }
+        }
+    }
 
-        // Initialize cells.
-        for(int row = 0; row < knowledgeBase.length; row++) {
-            for(int col = 0; col < knowledgeBase.length; col++) {
-                knowledgeBase[row][col] = new ModifiedCell(false, -2, -1, -1, -1, 0);
-                knowledgeBase[row][col].setProbability(0);
-                knowledgeBase[row][col].setClueSum(0);
+    /**
+     * Helper method to split the board into the buckets guesses fall back on.
+     * As in the original fallback lists, the bottom corners count as edge cells,
+     * so the corner bucket only ever gets used for the top corners.
+     * @param dim   : The board dimension.
+     */
+    private void buildBuckets(int dim) {
+        int inner = Math.max(0, dim - 2) * Math.max(0, dim - 2);
+        int corners = dim > 1 ? 2 : 1;
+        int[] innerGroup = new int[inner];
+        int[] edgeGroup = new int[(dim * dim) - inner - corners];
+        int[] cornerGroup = new int[corners];
+        int[] slots = new int[dim * dim];
+
+        int i = 0;
+        int e = 0;
+        int c = 0;
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                int cell = row * dim + col;
+                if(row != 0 && col != 0 && row != dim - 1 && col != dim - 1) {
+                    slots[cell] = i;
+                    innerGroup[i++] = cell;
+                } else if(row == 0 && (col == 0 || col == dim - 1)) {
+                    slots[cell] = c;
+                    cornerGroup[c++] = cell;
+                } else {
+                    slots[cell] = e;
+                    edgeGroup[e++] = cell;
+                }
             }
         }
 
-        safeCells = new Stack<Index>();
-        mineCells = new ArrayList<Index>();
+        innerCells = new CellBucket(innerGroup, slots);
+        edgeCells = new CellBucket(edgeGroup, slots);
+        cornerCells = new CellBucket(cornerGroup, slots);
     }
 
     /**
@@ -40,19 +158,18 @@ public class ModifiedAgent {
     public String toString() {
         String knowledgeBase = new String();
 
-        for(int row = 0; row < board.length; row++) {
-            for(int col = 0; col < board.length; col++) {
-                if(this.knowledgeBase[row][col].getRevealed()) {
-                    if(this.knowledgeBase[row][col].getClue() < 0) {
-                        knowledgeBase += this.knowledgeBase[row][col].getClue() + " ";
+        for(int row = 0; row < board.getDim(); row++) {
+            for(int col = 0; col < board.getDim(); col++) {
+                if(this.knowledgeBase.getRevealed(row, col)) {
+                    if(this.knowledgeBase.getClue(row, col) < 0) {
+                        knowledgeBase += this.knowledgeBase.getClue(row, col) + " ";
                         continue;
                     }
-                    knowledgeBase += " " + this.knowledgeBase[row][col].getClue() + " ";
+                    knowledgeBase += " " + this.knowledgeBase.getClue(row, col) + " ";
                 } else {
-                    Index index = new Index(row, col);
-                    if(mineCells.contains(index)) {
+                    if(mineCells.contains(row, col)) {
                         knowledgeBase += " m ";
-                    } else if(safeCells.contains(index)) {
+                    } else if(safeCells.contains(row, col)) {
                         knowledgeBase += " s ";
                     } else {    // Unknown.
                         knowledgeBase += " ? ";
@@ -71,42 +188,99 @@ public class ModifiedAgent {
      * @param col
      */
     public void selectCell(int row, int col) {
+        if(knowledgeBase.getRevealed(row, col)) {
+            return;
+        }
+
         // Mark revealed and set clue.
-        knowledgeBase[row][col].setRevealed(true);
-        knowledgeBase[row][col].setClue(board[row][col]);
+        knowledgeBase.setRevealed(row, col, true);
+        knowledgeBase.setClue(row, col, board.getValue(row, col));
+        updateNeighborCounts(row, col, knowledgeBase.getClue(row, col) == -1);
+        frontierTracker.reveal(row, col);
+        refreshPatterns(row, col);
+        removeGuess(row * board.getDim() + col);
 
-        if(knowledgeBase[row][col].getClue() == -1) {
-            knowledgeBase[row][col].setProbability(1.0);
+        if(knowledgeBase.getClue(row, col) == -1) {
+            knowledgeBase.setProbability(row, col, 1.0);
+        } else {
+            // A cascade can open a cell the heuristic wrongly marked a mine; the board settles it.
+            mineCells.remove(row * board.getDim() + col);
+            dirtyClue(row, col);
         }
     }
 
     /**
-     * Agent gets/updates information for cell at (row, col) on board and makes guesses.
+     * Reveals the cell at (row, col) and, if it is a 0, the whole region of 0s around it plus the region's border.
+     * The region is flood-filled with an int queue rather than one move per cell; the knowledge base's
+     * revealed bits act as the visited set, so no cell is queued twice.
+     * Once the region is open, inference runs once on the newly revealed clues along its border.
+     * @param row
+     * @param col
+     * @return The number of cells revealed.
      */
-    public void queryCell(int row, int col) {
-        // Update knowledge base.
-        knowledgeBase[row][col].setNumSafeCells(countSafeNeighbors(row, col));
-        knowledgeBase[row][col].setNumMineCells(countMineNeighbors(row, col));
-        knowledgeBase[row][col].setNumHiddenCells(countHiddenNeighbors(row, col));
-
-        // Make guesses.
-        int clue = knowledgeBase[row][col].getClue();
-        int revealedSafe = knowledgeBase[row][col].getNumSafeCells();
-        int revealedMine = knowledgeBase[row][col].getNumMineCells();
-        int revealed = revealedSafe + revealedMine;
-        int hidden = knowledgeBase[row][col].getNumHiddenCells();
-        int numNeighbors = revealed + hidden;   // Total number of neighbors.
+    public int revealCascade(int row, int col) {
+        if(knowledgeBase.getRevealed(row, col)) {
+            return 0;
+        }
 
-        int agentsGuess = 0;
-        // If clue - revealed = hidden, every hidden is mine.
-        if(clue - revealedMine == hidden) {
-            agentsGuess = -1;   // Mark hidden probably mines.
-        } else if((numNeighbors - clue) - revealedSafe == hidden) { // If 8 - clue = hidden, every hidden is safe.
-            agentsGuess = 1;    // Mark hidden probably safe.
+        selectCell(row, col);
+        if(knowledgeBase.getClue(row, col) != 0) {
+            return 1;
         }
 
+        int dim = board.getDim();
+        int[] revealed = cascadeCells;  // Every cell revealed so far; the 0s among them get expanded.
+        int count = 0;
+        revealed[count++] = row * dim + col;
+
+        for(int head = 0; head < count; head++) {
+            int cell_row = revealed[head] / dim;
+            int cell_col = revealed[head] % dim;
+            if(knowledgeBase.getClue(cell_row, cell_col) != 0) {
+                continue;
+            }
+
+            // Expand from center.
+            int start_row = cell_row - 1 >= 0 ? cell_row - 1 : cell_row;   // If expanding up is possible ...
+            int start_col = cell_col - 1 >= 0 ? cell_col - 1 : cell_col;   // If expanding left is possible ...
+            int end_row = cell_row + 1 < dim ? cell_row + 1 : cell_row;    // If expanding down is possible ...
+            int end_col = cell_col + 1 < dim ? cell_col + 1 : cell_col;    // If expanding right is possible ...
+            for(int current_row = start_row; current_row <= end_row; current_row++) {
+                for(int current_col = start_col; current_col <= end_col; current_col++) {
+                    // Every neighbor of a 0 is safe.
+                    if(!knowledgeBase.getRevealed(current_row, current_col)) {
+                        selectCell(current_row, current_col);
+                        if(count == revealed.length) {
+                            revealed = Arrays.copyOf(revealed, count * 2);
+                            cascadeCells = revealed;
+                        }
+                        revealed[count++] = current_row * dim + current_col;
+                    }
+                }
+            }
+        }
+
+        // Only the border clues can still have hidden neighbors.
+        for(int i = 0; i < count; i++) {
+            int cell_row = revealed[i] / dim;
+            int cell_col = revealed[i] % dim;
+            if(knowledgeBase.getClue(cell_row, cell_col) > 0) {
+                queryCell(cell_row, cell_col);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Agent gets/updates information for cell at (row, col) on board and makes guesses.
+     */
+    public void queryCell(int row, int col) {
+        // Neighbor counts are kept current by selectCell, so just make guesses.
+        int agentsGuess = guessFor(row, col);
+
         // Mark guess.
-        int dim = board.length;
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
@@ -118,20 +292,19 @@ public class ModifiedAgent {
         while(current_row < end_row + 1) {
             while(current_col < end_col + 1) {
                 // If not center and not revealed:
-                if(!(current_row == row && current_col == col) && !knowledgeBase[current_row][current_col].getRevealed()) {
-                    Index index = new Index(current_row, current_col);
-                    if(agentsGuess == -1 && !mineCells.contains(index)) {
-                        mineCells.add(index);
-                        // System.out.println(index + " suspected unsafe."); // DEBUG
-                    } else if(agentsGuess == 1 && !safeCells.contains(index)) {
-                        safeCells.add(index);
-                        // System.out.println(index + " should be safe."); // DEBUG
+                if(!(current_row == row && current_col == col) && !knowledgeBase.getRevealed(current_row, current_col)) {
+                    if(agentsGuess == -1) {
+                        markMine(current_row, current_col);
+                        // System.out.println(new Index(current_row, current_col) + " suspected unsafe."); // DEBUG
+                    } else if(agentsGuess == 1) {
+                        markSafe(current_row, current_col);
+                        // System.out.println(new Index(current_row, current_col) + " should be safe."); // DEBUG
                     }
 
-                    knowledgeBase[current_row][current_col].setAgentsGuess(agentsGuess);
+                    knowledgeBase.setAgentsGuess(current_row, current_col, agentsGuess);
 
                     // Update probability of current hidden (neighboring) cell.
-                    if(knowledgeBase[row][col].getClue() >= 0) {
+                    if(knowledgeBase.getClue(row, col) >= 0) {
                         // updateCellProbability(current_row, current_col);
                     }
                 }
@@ -143,103 +316,374 @@ public class ModifiedAgent {
     }
 
     /**
-     * Helper method to count + update number of safe neighbors around cell.
+     * Helper method to work out the guess a revealed cell makes about its hidden neighbors.
      * @param row
      * @param col
-     * @return Number of safe neighbors around cell.
+     * @return -1 if every hidden neighbor must be a mine, 1 if every hidden neighbor must be safe, 0 otherwise.
      */
-    private int countSafeNeighbors(int row, int col) {
-        int safeNeighbors = 0;
-        int dim = board.length;
+    private int guessFor(int row, int col) {
+        int clue = knowledgeBase.getClue(row, col);
+        int revealedSafe = knowledgeBase.getNumSafeCells(row, col);
+        int revealedMine = knowledgeBase.getNumMineCells(row, col);
+        int revealed = revealedSafe + revealedMine;
+        int hidden = knowledgeBase.getNumHiddenCells(row, col);
+        int numNeighbors = revealed + hidden;   // Total number of neighbors.
+
+        // If clue - revealed = hidden, every hidden is mine.
+        if(clue - revealedMine == hidden) {
+            return -1;  // Mark hidden probably mines.
+        } else if((numNeighbors - clue) - revealedSafe == hidden) { // If 8 - clue = hidden, every hidden is safe.
+            return 1;   // Mark hidden probably safe.
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to push a reveal into the neighbor counts of the cells around it.
+     * Each neighbor loses a hidden neighbor and gains a safe or mine neighbor, so the counts never need rescanning.
+     * @param row
+     * @param col
+     * @param mine : True if the revealed cell is a mine.
+     */
+    private void updateNeighborCounts(int row, int col, boolean mine) {
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center, revealed, and not a mine, increment number of safe neighbors.
-                if(!(current_row == row && current_col == col)
-                        && knowledgeBase[current_row][current_col].getRevealed()
-                        && knowledgeBase[current_row][current_col].getClue() >= 0) {
-                    safeNeighbors++;
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(current_row == row && current_col == col) {
+                    continue;
+                }
+
+                knowledgeBase.revealNeighbor(current_row, current_col, mine);
+
+                // Every neighbor's counts changed, so its clue is out of date and its guess may be.
+                if(knowledgeBase.getRevealed(current_row, current_col)) {
+                    dirtyClue(current_row, current_col);
+                } else {
+                    changedCells.add(current_row, current_col);
                 }
-                current_col++;
             }
-            current_row++;
-            current_col = start_col;
         }
+    }
 
-        return safeNeighbors;
+    /**
+     * Helper method to mark a cell as a mine.
+     * The clues around it count marked mines, so they are queued for updating.
+     * @param row
+     * @param col
+     */
+    private void markMine(int row, int col) {
+        if(mineCells.add(row, col)) {
+            removeGuess(row * board.getDim() + col);
+            dirtyCluesAround(row, col);
+        }
     }
 
     /**
-     * Helper method to count + update number of revealed mines around cell.
+     * Helper method to mark a cell as safe.
+     * The clues around it count marked safe cells, so they are queued for updating.
      * @param row
      * @param col
-     * @return Number of revealed mines neighboring cell.
      */
-    private int countMineNeighbors(int row, int col) {
-        int mineNeighbors = 0;
-        int dim = board.length;
+    private void markSafe(int row, int col) {
+        if(safeCells.add(row, col)) {
+            dirtyCluesAround(row, col);
+        }
+    }
+
+    /**
+     * Helper method to take a mark off a cell, when an inference engine shows it was wrong.
+     * A cell that was marked a mine goes back to the cells guesses are picked from,
+     * and the clues around it are queued for updating, since they count marks.
+     * @param cell  : The cell, as row * dim + col.
+     */
+    private void unmark(int cell) {
+        int dim = board.getDim();
+        int row = cell / dim;
+        int col = cell % dim;
+        provenCells.clear(cell);
+        if(mineCells.remove(cell)) {
+            if(row != 0 && col != 0 && row != dim - 1 && col != dim - 1) {
+                innerCells.add(cell);
+            } else if(row == 0 && (col == 0 || col == dim - 1)) {
+                cornerCells.add(cell);
+            } else {
+                edgeCells.add(cell);
+            }
+            updatePattern(cell);
+            dirtyCluesAround(row, col);
+        } else if(safeCells.remove(cell)) {
+            dirtyCluesAround(row, col);
+        }
+    }
+
+    /**
+     * Helper method to check the heuristic's marks in a component the exact solver gave up on.
+     * The heuristic marks mines from summed clue probabilities, which can be wrong, and later marks build on them.
+     * A mark is kept, and proven, only if a clue next to the cell forces it from revealed cells and proven marks
+     * alone: a clue with all its mines accounted for makes the cell safe, and a clue with as many mines left
+     * as unsettled neighbors makes it a mine. Every other mark is taken off.
+     * @param component : The component.
+     */
+    private void settleMarks(Component component) {
+        for(int i = 0; i < component.size(); i++) {
+            int cell = component.getCell(i);
+            boolean mine = mineCells.contains(cell);
+            if(provenCells.get(cell) || !(mine || safeCells.contains(cell))) {
+                continue;
+            }
+
+            if(forcedByClue(cell, mine)) {
+                provenCells.set(cell);
+            } else {
+                unmark(cell);
+            }
+        }
+    }
+
+    /**
+     * Helper method to check if a clue next to a hidden cell forces its value, from revealed cells and proven marks alone.
+     * @param cell  : The cell, as row * dim + col.
+     * @param mine  : True to check that the cell must be a mine, false to check that it must be safe.
+     * @return true if some clue forces it.
+     */
+    private boolean forcedByClue(int cell, boolean mine) {
+        int dim = board.getDim();
+        int row = cell / dim;
+        int col = cell % dim;
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center, revealed, and is a mine, increment number of mine neighbors.
-                if(!(current_row == row && current_col == col)
-                        && knowledgeBase[current_row][current_col].getRevealed()
-                        && knowledgeBase[current_row][current_col].getClue() == -1) {
-                    mineNeighbors++;
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(!knowledgeBase.getRevealed(current_row, current_col) || knowledgeBase.getClue(current_row, current_col) < 0) {
+                    continue;
+                }
+
+                int minesLeft = knowledgeBase.getClue(current_row, current_col) - knowledgeBase.getNumMineCells(current_row, current_col);
+                int unsettled = 0;
+                int clue_start_row = current_row - 1 >= 0 ? current_row - 1 : current_row;
+                int clue_start_col = current_col - 1 >= 0 ? current_col - 1 : current_col;
+                int clue_end_row = current_row + 1 < dim ? current_row + 1 : current_row;
+                int clue_end_col = current_col + 1 < dim ? current_col + 1 : current_col;
+                for(int r = clue_start_row; r <= clue_end_row; r++) {
+                    for(int c = clue_start_col; c <= clue_end_col; c++) {
+                        int neighbor = r * dim + c;
+                        if(knowledgeBase.getRevealed(r, c)) {
+                            continue;
+                        }
+                        if(provenCells.get(neighbor) && mineCells.contains(neighbor)) {
+                            minesLeft--;
+                        } else if(!provenCells.get(neighbor)) {
+                            unsettled++;
+                        }
+                    }
+                }
+
+                if((!mine && minesLeft == 0) || (mine && minesLeft == unsettled)) {
+                    return true;
                 }
-                current_col++;
             }
-            current_row++;
-            current_col = start_col;
         }
+        return false;
+    }
 
-        return mineNeighbors;
+    /**
+     * Helper method to apply an inference engine's probability to a hidden cell, with one policy for marks.
+     * An exact probability is authoritative: 0 marks the cell safe and 1 marks it a mine, replacing a mark
+     * the other way, and anything in between takes a mark off, since the cell can't be known either way.
+     * An approximate probability never marks a cell and is kept off 0 and 1. It leaves proven marks alone,
+     * and a heuristic mark only if it is within MARK_MARGIN of it; any other mark is taken off.
+     * @param cell  : The cell, as row * dim + col.
+     * @param prob  : The probability of a mine.
+     * @param exact : True if the probability is exact.
+     */
+    private void applyProbability(int cell, double prob, boolean exact) {
+        int row = cell / board.getDim();
+        int col = cell % board.getDim();
+        if(!exact) {
+            if(provenCells.get(cell) || (safeCells.contains(cell) && prob <= MARK_MARGIN)
+               || (mineCells.contains(cell) && prob >= 1 - MARK_MARGIN)) {
+                return;
+            }
+            unmark(cell);
+            knowledgeBase.setProbability(row, col, Math.min(Math.max(prob, Double.MIN_VALUE), Math.nextDown(1.0)));
+            updateGuess(row, col);
+            return;
+        }
+
+        if((prob == 0 && mineCells.contains(cell)) || (prob == 1 && safeCells.contains(cell)) || (prob > 0 && prob < 1)) {
+            unmark(cell);
+        }
+
+        knowledgeBase.setProbability(row, col, prob);
+        if(prob == 0) {
+            markSafe(row, col);
+            candidates.remove(cell);
+            updatePattern(cell);
+            provenCells.set(cell);
+        } else if(prob == 1) {
+            markMine(row, col);
+            provenCells.set(cell);
+        } else {
+            updateGuess(row, col);
+        }
     }
 
     /**
-     * Helper method to count + update number of hidden neighbors around cell.
+     * Helper method to queue every revealed clue around a cell for updating.
      * @param row
      * @param col
-     * @return Number of hidden neighbors around cell.
      */
-    private int countHiddenNeighbors(int row, int col) {
-        int hiddenNeighbors = 0;
-        int dim = board.length;
+    private void dirtyCluesAround(int row, int col) {
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
         int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
         int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
         int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
-        int current_row = start_row;
-        int current_col = start_col;
-        while(current_row < end_row + 1) {
-            while(current_col < end_col + 1) {
-                // If not center, and not revealed, count.
-                if(!(current_row == row && current_col == col) && !knowledgeBase[current_row][current_col].getRevealed()) {
-                    hiddenNeighbors++;
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(!(current_row == row && current_col == col) && knowledgeBase.getRevealed(current_row, current_col)) {
+                    dirtyClue(current_row, current_col);
                 }
-                current_col++;
             }
-            current_row++;
-            current_col = start_col;
+        }
+    }
+
+    /**
+     * Helper method to queue a revealed clue for updating.
+     * A full sweep visits clues in row-major order, so a clue after the one being updated
+     * still sees this change in the current pass; any other clue only sees it on the next pass.
+     * @param row
+     * @param col
+     */
+    private void dirtyClue(int row, int col) {
+        if(knowledgeBase.getClue(row, col) < 0) {
+            return;
+        }
+
+        // With no hidden neighbors left the clue can't mark anything and its probability is 0 for good,
+        // so settle it now instead of queueing it (this keeps the inside of a cascade out of the worklist).
+        if(knowledgeBase.getNumHiddenCells(row, col) == 0) {
+            knowledgeBase.setProbability(row, col, 0);
+            return;
         }
 
-        return hiddenNeighbors;
+        int cell = row * board.getDim() + col;
+        if(sweepPosition >= 0 && cell > sweepPosition) {
+            queueClue(cell);
+        } else {
+            pendingClues.add(row, col);
+        }
+    }
+
+    /**
+     * Helper method to add a clue to the current pass, once.
+     * @param cell  : The clue, as row * dim + col.
+     */
+    private void queueClue(int cell) {
+        if(queuedClues.get(cell)) {
+            return;
+        }
+        queuedClues.set(cell);
+
+        // Sift up.
+        int i = queuedCount++;
+        while(i > 0 && clueQueue[(i - 1) >>> 1] > cell) {
+            clueQueue[i] = clueQueue[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        clueQueue[i] = cell;
+    }
+
+    /**
+     * Helper method to take the smallest clue off the current pass.
+     * @return The clue, as row * dim + col.
+     */
+    private int pollClue() {
+        int smallest = clueQueue[0];
+        int last = clueQueue[--queuedCount];
+
+        // Sift down.
+        int i = 0;
+        while(2 * i + 1 < queuedCount) {
+            int child = 2 * i + 1;
+            if(child + 1 < queuedCount && clueQueue[child + 1] < clueQueue[child]) {
+                child++;
+            }
+            if(clueQueue[child] >= last) {
+                break;
+            }
+            clueQueue[i] = clueQueue[child];
+            i = child;
+        }
+        clueQueue[i] = last;
+        return smallest;
+    }
+
+    /**
+     * Helper method to queue a revealed cell's hidden neighbors for updating.
+     * @param row
+     * @param col
+     */
+    private void addHiddenNeighbors(int row, int col) {
+        int dim = board.getDim();
+
+        // Expand from center.
+        int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+        int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+        int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+        int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(!(current_row == row && current_col == col) && !knowledgeBase.getRevealed(current_row, current_col)) {
+                    changedCells.add(current_row, current_col);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to set a hidden cell's guess to what a full sweep leaves it at:
+     * the guess of the last revealed clue around it, in row-major order.
+     * Cells with no revealed clue around them keep their guess.
+     * @param row
+     * @param col
+     */
+    private void restoreGuess(int row, int col) {
+        int dim = board.getDim();
+        int last_row = -1;
+        int last_col = -1;
+
+        // Expand from center.
+        int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+        int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+        int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+        int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(!(current_row == row && current_col == col)
+                    && knowledgeBase.getRevealed(current_row, current_col)
+                    && knowledgeBase.getClue(current_row, current_col) >= 0) {
+                    last_row = current_row;
+                    last_col = current_col;
+                }
+            }
+        }
+
+        if(last_row >= 0) {
+            knowledgeBase.setAgentsGuess(row, col, guessFor(last_row, last_col));
+        }
     }
 
     /**
@@ -247,7 +691,7 @@ public class ModifiedAgent {
      */
     private int countMarkedSafe(int row, int col) {
         int markedSafe = 0;
-        int dim = board.length;
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
@@ -260,8 +704,8 @@ public class ModifiedAgent {
             while(current_col < end_col + 1) {
                 // If not center, not revealed, and is a marked mine, count.
                 if(!(current_row == row && current_col == col) 
-                    && !knowledgeBase[current_row][current_col].getRevealed()
-                    && safeCells.contains(new Index(current_row, current_col))) {
+                    && !knowledgeBase.getRevealed(current_row, current_col)
+                    && safeCells.contains(current_row, current_col)) {
                     markedSafe++;
                 }
                 current_col++;
@@ -278,7 +722,7 @@ public class ModifiedAgent {
      */
     private int countMarkedMines(int row, int col) {
         int markedMines = 0;
-        int dim = board.length;
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
@@ -291,8 +735,8 @@ public class ModifiedAgent {
             while(current_col < end_col + 1) {
                 // If not center, not revealed, and is a marked mine, count.
                 if(!(current_row == row && current_col == col) 
-                    && !knowledgeBase[current_row][current_col].getRevealed()
-                    && mineCells.contains(new Index(current_row, current_col))) {
+                    && !knowledgeBase.getRevealed(current_row, current_col)
+                    && mineCells.contains(current_row, current_col)) {
                     markedMines++;
                 }
                 current_col++;
@@ -313,10 +757,10 @@ public class ModifiedAgent {
     private double calcProbability(int row, int col) {
         // Count up number of marked mines around neighbor.
         int markedMines = countMarkedMines(row, col);
-        int minesLeft = knowledgeBase[row][col].getClue() - (knowledgeBase[row][col].getNumMineCells() + markedMines);
+        int minesLeft = knowledgeBase.getClue(row, col) - (knowledgeBase.getNumMineCells(row, col) + markedMines);
 
         // If there are mines left...
-        int hiddenCells = knowledgeBase[row][col].getNumHiddenCells();
+        int hiddenCells = knowledgeBase.getNumHiddenCells(row, col);
         int markedSafe = countMarkedSafe(row, col);
         if(minesLeft > 0 && (hiddenCells -  (markedSafe + markedMines)) > 0) {
             // System.out.println(new Index(row, col) + " unknowns left = " + (hiddenCells - (markedSafe + markedMines))); // DEBUG
@@ -332,15 +776,13 @@ public class ModifiedAgent {
      * @param col
      */
     public void updateCellProbability(int row, int col) {
-        Index index = new Index(row, col);
-
         // No point to updating off of tripped mine.
-        if(knowledgeBase[row][col].getProbability() >= 1) {
+        if(knowledgeBase.getProbability(row, col) >= 1) {
             return;
         }
 
         double prob = 0;
-        int dim = board.length;
+        int dim = board.getDim();
 
         // Expand from center.
         int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
@@ -353,9 +795,9 @@ public class ModifiedAgent {
             while(current_col < end_col + 1) {
                 // If not center, revealed, and not a mine:
                 if(!(current_row == row && current_col == col)
-                    && knowledgeBase[current_row][current_col].getRevealed()
-                    && knowledgeBase[current_row][current_col].getClue() >= 0) {
-                    double neighboringProb = knowledgeBase[current_row][current_col].getProbability();
+                    && knowledgeBase.getRevealed(current_row, current_col)
+                    && knowledgeBase.getClue(current_row, current_col) >= 0) {
+                    double neighboringProb = knowledgeBase.getProbability(current_row, current_col);
                     if(neighboringProb >= 0) {
                         prob += neighboringProb;
                     }
@@ -367,16 +809,17 @@ public class ModifiedAgent {
         }
 
         // If cell is hidden:
-        if(!knowledgeBase[row][col].getRevealed()) {
-            if(prob == 0 && knowledgeBase[row][col].getProbability() != prob && !safeCells.contains(index)) {
-                safeCells.add(index);
-                // System.out.println(index + " safe."); // DEBUG
+        if(!knowledgeBase.getRevealed(row, col)) {
+            if(prob == 0 && knowledgeBase.getProbability(row, col) != prob && !safeCells.contains(row, col)) {
+                markSafe(row, col);
+                // System.out.println(new Index(row, col) + " safe."); // DEBUG
             } else {
-                knowledgeBase[row][col].setProbability(prob);
+                knowledgeBase.setProbability(row, col, prob);
+                updateGuess(row, col);
                 // System.out.println(new Index(row, col) + " probability = " + prob);
-                if(prob >= 1 && !mineCells.contains(index)) {
-                    mineCells.add(index);
-                    // System.out.println(index + " unsafe."); // DEBUG
+                if(prob >= 1) {
+                    markMine(row, col);
+                    // System.out.println(new Index(row, col) + " unsafe."); // DEBUG
                 }
             }
         }
@@ -384,18 +827,20 @@ public class ModifiedAgent {
 
     /**
      * Helper method to update probabilties based off known cells.
+     * Visits every cell on the board; updateChangedProbabilities() gets the same result by only
+     * visiting what changed since the last update.
      */
     public void updateAllKnownProbabilities() {
-        int dim = board.length;
+        int dim = board.getDim();
 
         // Update probabilities for neighbors of revealed cells.
         for(int row = 0; row < dim; row++) {
             for(int col = 0; col < dim; col++) {
-                if(knowledgeBase[row][col].getRevealed() && knowledgeBase[row][col].getClue() >= 0) {
+                if(knowledgeBase.getRevealed(row, col) && knowledgeBase.getClue(row, col) >= 0) {
                     // System.out.println("Updating probability for " + new Index(row, col)); // DEBUG
                     queryCell(row, col);
-                    knowledgeBase[row][col].setProbability(calcProbability(row, col));
-                    // System.out.println(new Index(row, col) + " probability = " + knowledgeBase[row][col].getProbability()); // DEBUG
+                    knowledgeBase.setProbability(row, col, calcProbability(row, col));
+                    // System.out.println(new Index(row, col) + " probability = " + knowledgeBase.getProbability(row, col)); // DEBUG
                 }
             }
         }
@@ -403,14 +848,556 @@ public class ModifiedAgent {
         //  Assign probabilities to unknown, unmarked cells.
         for(int row = 0; row < dim; row++) {
             for(int col = 0; col < dim; col++) {
-                Index index = new Index(row, col);
-                if(!knowledgeBase[row][col].getRevealed() && !safeCells.contains(index) && !mineCells.contains(index)) {
+                if(!knowledgeBase.getRevealed(row, col) && !safeCells.contains(row, col) && !mineCells.contains(row, col)) {
                     updateCellProbability(row, col);
                 }
             }
         }
     }
 
+    /**
+     * Updates probabilities like updateAllKnownProbabilities(), but only for the cells that can change.
+     * A reveal or a new mark queues the revealed clues around it; only those clues are re-queried and
+     * recalculated (in the same row-major order as the full sweep), and only their hidden neighbors are reassigned.
+     * Every other cell would be left as it is by a full sweep, so the knowledge base, the marks and
+     * the order of the marks all come out the same, at a cost that follows the size of the change.
+     * Use one of the two methods for the whole game: the full sweep does not clear the worklists.
+     */
+    public void updateChangedProbabilities() {
+        int dim = board.getDim();
+
+        // Update probabilities of the queued clues, in row-major order.
+        while(!pendingClues.isEmpty()) {
+            int cell = pendingClues.pop();
+            if(knowledgeBase.getNumHiddenCells(cell / dim, cell % dim) == 0) {
+                knowledgeBase.setProbability(cell / dim, cell % dim, 0);   // See dirtyClue().
+            } else {
+                queueClue(cell);
+            }
+        }
+        while(queuedCount > 0) {
+            int cell = pollClue();
+            queuedClues.clear(cell);
+            int row = cell / dim;
+            int col = cell % dim;
+
+            sweepPosition = cell;
+            queryCell(row, col);
+            knowledgeBase.setProbability(row, col, calcProbability(row, col));
+            addHiddenNeighbors(row, col);
+        }
+        sweepPosition = -1;
+
+        // Assign probabilities to the hidden cells around them, in row-major order.
+        int count = 0;
+        while(!changedCells.isEmpty()) {
+            int cell = changedCells.pop();
+            if(!knowledgeBase.getRevealed(cell / dim, cell % dim)) {
+                changedOrder[count++] = cell;
+            }
+        }
+        Arrays.sort(changedOrder, 0, count);
+
+        for(int i = 0; i < count; i++) {
+            int row = changedOrder[i] / dim;
+            int col = changedOrder[i] % dim;
+
+            restoreGuess(row, col);
+            if(!safeCells.contains(row, col) && !mineCells.contains(row, col)) {
+                updateCellProbability(row, col);
+            }
+        }
+    }
+
+    /**
+     * Picks the cell to guess when no cell is known to be safe.
+     * Goes for the unrevealed, unmarked cell least likely to be a mine (if 0 < probability < 0.5),
+     * otherwise a random unrevealed, unmarked cell, preferring inner cells over edge cells over corner cells.
+     * With an exact solver, the frontier is solved first, and a cell it proves safe is picked over any guess.
+     * With the total mine count as well, an interior cell is picked if it is less likely to be a mine than
+     * any frontier cell, and there is no guess left once every mine is accounted for.
+     * With a pattern table, the cell whose neighborhood was least often a mine is picked instead.
+     * With a scheduler, the frontier is priced component by component by the engine it picks, and then as with a solver.
+     * @param rand  : The stream for random picks.
+     * @return The cell, as row * dim + col, or -1 if there is nothing left to guess.
+     */
+    public int nextGuess(SplittableRandom rand) {
+        if(options.getScheduler() != null) {
+            Frontier frontier = frontierTracker.getFrontier();
+            List<Component> components = frontier.getComponents();
+            ComponentSolution[] solutions = new ComponentSolution[components.size()];
+            double[][] probabilities = new double[components.size()][];
+            options.getScheduler().run(components, beliefPrior(frontier), rand, solutions, probabilities);
+            if(applyExactProbabilities(frontier, solutions, rand, false)) {
+                return -1;  // Every mine is accounted for.
+            }
+            for(int k = 0; k < probabilities.length; k++) {
+                if(probabilities[k] != null) {
+                    applyApproximate(components.get(k), probabilities[k]);
+                }
+            }
+            int cell = popSafeCell(Deadline.NONE, true);
+            return cell >= 0 ? cell : frontierGuess(frontier, rand);
+        } else if(options.getExactSolver() != null) {
+            Frontier frontier = frontierTracker.getFrontier();
+            ComponentSolution[] solutions = options.getExactSolver().solveAll(frontier.getComponents());
+            if(applyExactProbabilities(frontier, solutions, rand, true)) {
+                return -1;  // Every mine is accounted for.
+            }
+            int cell = popSafeCell(Deadline.NONE, true);
+            return cell >= 0 ? cell : frontierGuess(frontier, rand);
+        } else if(options.getBeliefPropagation() != null) {
+            Frontier frontier = frontierTracker.getFrontier();
+            applyBeliefs(frontier, Deadline.NONE);
+            return frontierGuess(frontier, rand);
+        }
+
+        if(options.getPatternTable() != null) {
+            int cell = patternGuess();
+            if(cell >= 0) {
+                return cell;
+            }
+        }
+        return heuristicGuess(rand);
+    }
+
+    /**
+     * Picks the next move before a deadline, refining the answer for as long as the deadline allows.
+     * A cell already known to be safe is taken at once (with a solver, once the solver agrees; see nextSafeCell()).
+     * Otherwise the heuristic's pick is the answer so far, then the pattern table's (with a table),
+     * then belief propagation re-prices the frontier (with an engine), then exact solving does (with a solver),
+     * each replacing the answer if it finishes in time. A tier the deadline cuts off is cancelled,
+     * its work is thrown away, and the answer of the tier before it stands. Sampling is never used here.
+     * @param rand  : The stream for random picks.
+     * @param deadline  : The deadline (see Deadline).
+     * @return The move, with the tier that produced it and each tier's time.
+     */
+    public Move nextMove(SplittableRandom rand, long deadline) {
+        long[] tierNanos = new long[Move.NUM_TIERS];
+        long start = System.nanoTime();
+        int cell = popSafeCell(deadline, false);
+        tierNanos[Move.SAFE] = System.nanoTime() - start;
+        if(cell >= 0) {
+            return new Move(cell, Move.SAFE, -1, tierNanos);
+        }
+
+        start = System.nanoTime();
+        cell = heuristicGuess(rand);
+        int tier = Move.HEURISTIC;
+        tierNanos[Move.HEURISTIC] = System.nanoTime() - start;
+
+        if(options.getPatternTable() != null && !Deadline.passed(deadline)) {
+            start = System.nanoTime();
+            int patternCell = patternGuess();
+            if(patternCell >= 0) {
+                cell = patternCell;
+                tier = Move.PATTERN;
+            }
+            tierNanos[Move.PATTERN] = System.nanoTime() - start;
+        }
+        if(options.getBeliefPropagation() == null && options.getExactSolver() == null) {
+            return new Move(cell, tier, -1, tierNanos);
+        }
+
+        int cancelled = -1;
+        Frontier frontier = null;
+        if(options.getBeliefPropagation() != null && !Deadline.passed(deadline)) {
+            start = System.nanoTime();
+            frontier = frontierTracker.getFrontier();
+            if(applyBeliefs(frontier, deadline)) {
+                cell = frontierGuess(frontier, rand);
+                tier = Move.BELIEF;
+            } else {
+                cancelled = Move.BELIEF;
+            }
+            tierNanos[Move.BELIEF] = System.nanoTime() - start;
+        }
+
+        if(options.getExactSolver() != null && cancelled < 0 && !Deadline.passed(deadline)) {
+            start = System.nanoTime();
+            if(frontier == null) {
+                frontier = frontierTracker.getFrontier();
+            }
+            ComponentSolution[] solutions = options.getExactSolver().solveAll(frontier.getComponents(), deadline);
+            if(solutions == null) {
+                cancelled = Move.EXACT;
+            } else {
+                tier = Move.EXACT;
+                if(applyExactProbabilities(frontier, solutions, rand, false)) {
+                    cell = -1;  // Every mine is accounted for.
+                } else {
+                    cell = popSafeCell(deadline, true);
+                    if(cell < 0) {
+                        cell = frontierGuess(frontier, rand);
+                    }
+                }
+            }
+            tierNanos[Move.EXACT] = System.nanoTime() - start;
+        }
+        return new Move(cell, tier, cancelled, tierNanos);
+    }
+
+    /**
+     * Takes the next cell marked safe that isn't revealed yet.
+     * With an exact solver (the scheduler's, with a scheduler), a mark the heuristic made is checked by solving
+     * the frontier first, which replaces every heuristic mark the solver can decide.
+     * @return The cell, as row * dim + col, or -1 if there is none.
+     */
+    public int nextSafeCell() {
+        return popSafeCell(Deadline.NONE, false);
+    }
+
+    /**
+     * Helper method to take the next cell marked safe that isn't revealed yet, checking heuristic marks
+     * with the exact solver first (at most once per call). A mark the solver can't decide, or can't check
+     * before the deadline, is taken as it is.
+     * @param deadline  : The deadline for the check (see Deadline).
+     * @param checked   : True if the frontier was just solved, so there is nothing to check.
+     * @return The cell, as row * dim + col, or -1 if there is none.
+     */
+    private int popSafeCell(long deadline, boolean checked) {
+        while(!safeCells.isEmpty()) {
+            int cell = safeCells.get(safeCells.size() - 1);
+            if(knowledgeBase.getRevealed(safeCells.getRow(cell), safeCells.getCol(cell))) {
+                safeCells.pop();
+                continue;
+            }
+            if(markSolver() != null && !checked && !provenCells.get(cell)) {
+                checked = true;
+                checkMarks(deadline);   // May take the cell off safeCells.
+                continue;
+            }
+            return safeCells.pop();
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to solve the frontier and apply the result, to settle the heuristic's marks.
+     * Nothing is checked if the deadline has already passed, not even the frontier built.
+     * @param deadline  : The deadline (see Deadline).
+     */
+    private void checkMarks(long deadline) {
+        if(Deadline.passed(deadline)) {
+            return;
+        }
+        Frontier frontier = frontierTracker.getFrontier();
+        ComponentSolution[] solutions = markSolver().solveAll(frontier.getComponents(), deadline);
+        if(solutions != null) {
+            applyExactProbabilities(frontier, solutions, null, false);
+        }
+    }
+
+    /**
+     * Helper method to get the solver the heuristic's marks are checked with.
+     * @return The exact solver, the scheduler's if there is a scheduler, or null.
+     */
+    private ExactSolver markSolver() {
+        return options.getScheduler() != null ? options.getScheduler().getExactSolver() : options.getExactSolver();
+    }
+
+    /**
+     * Helper method to pick a guess once the frontier is priced: a random interior cell if the interior
+     * is less likely to hold a mine than the best candidate (interior cells are all equally likely,
+     * so any of them will do), otherwise the heuristic's pick.
+     * @param frontier  : The current frontier.
+     * @param rand  : The stream for random picks.
+     * @return The cell, as row * dim + col, or -1 if there is nothing left to guess.
+     */
+    private int frontierGuess(Frontier frontier, SplittableRandom rand) {
+        if(interiorBeatsFrontier(frontier)) {
+            return frontier.getInteriorCell(rand.nextInt(frontier.getInteriorCells()));
+        }
+        return heuristicGuess(rand);
+    }
+
+    /**
+     * Helper method to pick the heuristic's guess: the candidate least likely to be a mine,
+     * otherwise a random inner, edge or corner cell.
+     * @param rand  : The stream for random picks.
+     * @return The cell, as row * dim + col, or -1 if there is nothing left to guess.
+     */
+    private int heuristicGuess(SplittableRandom rand) {
+        if(!candidates.isEmpty()) {
+            return candidates.peek();
+        }
+
+        CellBucket bucket = innerCells;
+        if(bucket.isEmpty()) {
+            bucket = edgeCells;
+        }
+        if(bucket.isEmpty()) {
+            bucket = cornerCells;
+        }
+        if(bucket.isEmpty()) {
+            return -1;
+        }
+        return bucket.get(rand.nextInt(bucket.size()));
+    }
+
+    /**
+     * Solves the frontier exactly and applies the marginals of every component the solver finished.
+     * A cell that is a mine in no solution is marked safe, one that is a mine in every solution is marked a mine,
+     * and the rest get their true probability (the next heuristic update may re-price them).
+     * With the total mine count, solutions are weighted by how the leftover mines fit in the interior,
+     * and the interior cells get a probability too (kept in interiorProbability).
+     * Solved cells go through applyProbability(), so the solver's result replaces any mark the heuristic made.
+     * In components the solver gives up on, marks are kept only where the local rules prove them (see settleMarks()).
+     * Components the solver gives up on are sampled, if there is an estimator and no cell was proven safe.
+     * @param frontier  : The current frontier.
+     * @param solutions : The solver's solution of each component, or null where it gave up.
+     * @param rand  : The stream the estimator's chains split from.
+     * @param sample    : False to never sample.
+     * @return true if every hidden cell is now known to be safe or a mine.
+     */
+    private boolean applyExactProbabilities(Frontier frontier, ComponentSolution[] solutions, SplittableRandom rand,
+                                            boolean sample) {
+        List<Component> components = frontier.getComponents();
+
+        MineCountWeighting weighting = null;
+        interiorProbability = -1;
+        if(numMines >= 0) {
+            // Components the solver gave up on are counted as free cells.
+            int freeCells = frontier.getInteriorCells();
+            for(int k = 0; k < solutions.length; k++) {
+                if(solutions[k] == null) {
+                    freeCells += components.get(k).size();
+                }
+            }
+            weighting = new MineCountWeighting(solutions, freeCells, numMines - frontier.getRevealedMines(), logBinomial);
+            if(!weighting.isConsistent()) {
+                weighting = null;
+            }
+        }
+
+        boolean decided = weighting != null;
+        for(int k = 0; k < solutions.length; k++) {
+            ComponentSolution solution = solutions[k];
+            if(solution == null || solution.getTotalSolutions() == 0) {
+                decided = false;
+                settleMarks(components.get(k));
+                continue;   // Over the cap, or over the budget.
+            }
+
+            Component component = components.get(k);
+            for(int i = 0; i < component.size(); i++) {
+                double prob = weighting != null ? weighting.getProbability(k, i) : solution.getProbability(i);
+                if(prob > 0 && prob < 1) {
+                    decided = false;
+                }
+                applyProbability(component.getCell(i), prob, true);
+            }
+        }
+
+        // Strict interior probabilities stay out of the knowledge base: the heuristic reads an interior cell's
+        // probability there to tell whether it has been priced yet. A 0 or 1 is exact, so it marks every
+        // interior cell like any other exact result, replacing whatever mark was there.
+        if(weighting != null) {
+            interiorProbability = weighting.getFreeProbability();
+            if(interiorProbability > 0 && interiorProbability < 1) {
+                decided = false;
+            } else {
+                for(int i = 0; i < frontier.getInteriorCells(); i++) {
+                    applyProbability(frontier.getInteriorCell(i), interiorProbability, true);
+                }
+            }
+        }
+
+        // Sampling is only worth it if there is still a guess to make.
+        if(sample && options.getEstimator() != null && safeCells.isEmpty() && !decided) {
+            for(int k = 0; k < solutions.length; k++) {
+                if(solutions[k] == null) {
+                    applyEstimate(components.get(k), rand);
+                }
+            }
+        }
+        return decided;
+    }
+
+    /**
+     * Helper method to price a component's cells by sampling.
+     * Samples only show a cell was never a mine so far, so estimates are applied as approximate prices
+     * (see applyProbability()).
+     * @param component : The component.
+     * @param rand  : The stream the estimator's chains split from.
+     */
+    private void applyEstimate(Component component, SplittableRandom rand) {
+        ComponentEstimate estimate = options.getEstimator().estimate(component, rand);
+        if(estimate == null) {
+            return;     // No starting solution found; leave the heuristic's prices.
+        }
+
+        double[] probabilities = new double[component.size()];
+        for(int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = estimate.getProbability(i);
+        }
+        applyApproximate(component, probabilities);
+    }
+
+    /**
+     * Prices the frontier by belief propagation, with beliefPrior() as the prior.
+     * With the mine count, the interior gets whatever mines the frontier's beliefs leave over (kept in interiorProbability).
+     * Beliefs are applied as approximate prices (see applyProbability()).
+     * @param frontier  : The current frontier.
+     * @param deadline  : The deadline (see Deadline).
+     * @return false if the deadline cut the run off, leaving every price as it was.
+     */
+    private boolean applyBeliefs(Frontier frontier, long deadline) {
+        List<Component> components = frontier.getComponents();
+        int minesLeft = numMines - frontier.getRevealedMines();
+        double[][] beliefs = options.getBeliefPropagation().run(components, beliefPrior(frontier), deadline);
+        if(beliefs == null) {
+            return false;
+        }
+
+        double frontierMines = 0;
+        for(int k = 0; k < beliefs.length; k++) {
+            for(int i = 0; i < beliefs[k].length; i++) {
+                frontierMines += beliefs[k][i];
+            }
+            applyApproximate(components.get(k), beliefs[k]);
+        }
+
+        interiorProbability = -1;
+        if(numMines >= 0 && frontier.getInteriorCells() > 0) {
+            double interior = (minesLeft - frontierMines) / frontier.getInteriorCells();
+            interiorProbability = Math.min(Math.max(interior, Double.MIN_VALUE), Math.nextDown(1.0));
+        }
+        return true;
+    }
+
+    /**
+     * Helper method for the chance of a mine with nothing else known: the density of the mines left,
+     * if the agent knows the mine count, and 0.5 otherwise.
+     * @param frontier  : The current frontier.
+     * @return The prior.
+     */
+    private double beliefPrior(Frontier frontier) {
+        int minesLeft = numMines - frontier.getRevealedMines();
+        int hidden = frontier.getFrontierCells() + frontier.getInteriorCells();
+        return numMines >= 0 && hidden > 0 ? Math.min(Math.max((double)minesLeft / hidden, 0), 1) : 0.5;
+    }
+
+    /**
+     * Helper method to price a component's cells by approximate probabilities (see applyProbability()).
+     * @param component : The component.
+     * @param probabilities : Each cell's probability.
+     */
+    private void applyApproximate(Component component, double[] probabilities) {
+        for(int i = 0; i < component.size(); i++) {
+            applyProbability(component.getCell(i), probabilities[i], false);
+        }
+    }
+
+    /**
+     * Helper method to check if a random interior cell is a better guess than the best frontier cell.
+     * @param frontier  : The current frontier.
+     * @return true if there are interior cells and they are less likely to be mines.
+     */
+    private boolean interiorBeatsFrontier(Frontier frontier) {
+        return frontier.getInteriorCells() > 0 && interiorProbability >= 0 && interiorProbability < 1
+               && (candidates.isEmpty() || interiorProbability < candidateProbability());
+    }
+
+    /**
+     * Helper method to pick a guess by the pattern table.
+     * A cell whose neighborhood isn't in the table is priced by the heuristic if it is a candidate, and skipped otherwise.
+     * @return The cell with the lowest price, or -1 if no cell could be priced.
+     */
+    private int patternGuess() {
+        return patternPrices.isEmpty() ? -1 : patternPrices.peek();
+    }
+
+    /**
+     * Helper method to re-price the hidden cells whose 5x5 neighborhood holds (row, col), after it was revealed.
+     * @param row
+     * @param col
+     */
+    private void refreshPatterns(int row, int col) {
+        if(patternPrices == null) {
+            return;
+        }
+
+        int dim = board.getDim();
+        for(int current_row = Math.max(row - 2, 0); current_row <= Math.min(row + 2, dim - 1); current_row++) {
+            for(int current_col = Math.max(col - 2, 0); current_col <= Math.min(col + 2, dim - 1); current_col++) {
+                if(!knowledgeBase.getRevealed(current_row, current_col)) {
+                    int cell = current_row * dim + current_col;
+                    patternPrice[cell] = options.getPatternTable().lookup(knowledgeBase, current_row, current_col, patternBucket);
+                    updatePattern(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to re-key a cell in the pattern heap: by its table price, or by the heuristic's price
+     * if the table has none and it is a candidate. Revealed cells, marked mines and unpriced cells are dropped.
+     * @param cell  : The cell, as row * dim + col.
+     */
+    private void updatePattern(int cell) {
+        if(patternPrices == null) {
+            return;
+        }
+
+        int row = cell / board.getDim();
+        int col = cell % board.getDim();
+        if(knowledgeBase.getRevealed(row, col) || mineCells.contains(cell)) {
+            patternPrices.remove(cell);
+        } else if(patternPrice[cell] >= 0) {
+            patternPrices.update(cell, patternPrice[cell]);
+        } else if(candidates.contains(cell)) {
+            patternPrices.update(cell, knowledgeBase.getProbability(row, col));
+        } else {
+            patternPrices.remove(cell);
+        }
+    }
+
+    /**
+     * Helper method to get the probability of the best candidate.
+     * @return The probability of the cell at the top of the candidate heap.
+     */
+    private double candidateProbability() {
+        int cell = candidates.peek();
+        return knowledgeBase.getProbability(cell / board.getDim(), cell % board.getDim());
+    }
+
+    /**
+     * Helper method to re-price a hidden cell in the candidate heap after its probability changed.
+     * @param row
+     * @param col
+     */
+    private void updateGuess(int row, int col) {
+        int cell = row * board.getDim() + col;
+        double prob = knowledgeBase.getProbability(row, col);
+        if(!knowledgeBase.getRevealed(row, col) && !mineCells.contains(cell) && prob > 0 && prob < 0.5) {
+            candidates.update(cell, prob);
+        } else {
+            candidates.remove(cell);
+        }
+        updatePattern(cell);
+    }
+
+    /**
+     * Helper method to drop a revealed or marked cell from everything guesses are picked from.
+     * @param cell  : The cell, as row * dim + col.
+     */
+    private void removeGuess(int cell) {
+        int dim = board.getDim();
+        int row = cell / dim;
+        int col = cell % dim;
+
+        candidates.remove(cell);
+        updatePattern(cell);
+        if(row != 0 && col != 0 && row != dim - 1 && col != dim - 1) {
+            innerCells.remove(cell);
+        } else if(row == 0 && (col == 0 || col == dim - 1)) {
+            cornerCells.remove(cell);
+        } else {
+            edgeCells.remove(cell);
+        }
+    }
+
     /**
      * Helper method to get the score.
      * Goes through list of marked mines and compares against the board.
@@ -419,9 +1406,9 @@ public class ModifiedAgent {
     public int calcScore() {
         int score = 0;
         for(int i = 0; i < mineCells.size(); i++) {
-            Index markedMine = mineCells.get(i);
+            int markedMine = mineCells.get(i);
 
-            if(board[markedMine.getRow()][markedMine.getCol()] == -1) {
+            if(board.isMine(mineCells.getRow(markedMine), mineCells.getCol(markedMine))) {
                 score++;
             }
         }
@@ -436,9 +1423,9 @@ public class ModifiedAgent {
     public int calcFalsePositive() {
         int falseMines = 0;
         for(int i = 0; i < mineCells.size(); i++) {
-            Index markedMine = mineCells.get(i);
+            int markedMine = mineCells.get(i);
 
-            if(board[markedMine.getRow()][markedMine.getCol()] != -1) {
+            if(!board.isMine(mineCells.getRow(markedMine), mineCells.getCol(markedMine))) {
                 falseMines++;
             }
         }
@@ -449,7 +1436,7 @@ public class ModifiedAgent {
      * Getter method for agent's knowledgebase.
      * @return Agent's knowledgebase.
      */
-    public ModifiedCell[][] getKnowledgeBase() {
+    public KnowledgeBase getKnowledgeBase() {
         return knowledgeBase;
     }
 
@@ -457,7 +1444,7 @@ public class ModifiedAgent {
      * Getter method for list of safe cells.
      * @return List of safe cells.
      */
-    public Stack<Index> getSafeCells() {
+    public IndexSet getSafeCells() {
         return safeCells;
     }
 
@@ -465,7 +1452,7 @@ public class ModifiedAgent {
      * Getter method for list of mine cells.
      * @return List of mine cells.
      */
-    public ArrayList<Index> getMineCells() {
+    public IndexSet getMineCells() {
         return mineCells;
     }
 }
\ No newline at end of file
@@ -0,0 +1,682 @@
+package Minesweeper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampled inference over frontier components too big for ExactSolver.
+ * Runs several block-Gibbs chains over the mine assignments that satisfy every clue of a component:
+ * each step picks a clue and redraws the cells of it and the clues around it uniformly from every
+ * assignment that keeps all the clues around them satisfied, so each chain stays on solutions and samples
+ * them uniformly. Redrawing a clue's neighborhood at once lets the chain move between solutions that
+ * differ on several clues, and now and then a step redraws a wide block, ring after ring of clues around
+ * the clue for as long as it stays under MAX_BLOCK_CELLS (all of a small component), for solutions that
+ * differ on many clues; if a block has too many assignments, the clue's own cells are redrawn.
+ * Chains start from their own random solution and draw from their own split random stream, so they are
+ * independent and run in parallel on a fork/join pool. After each round of sweeps the spread between the
+ * chains' means gives every cell a 95% bound, never tighter than 3 over the samples taken (the rule of three).
+ * The agent only guesses a component's safest cell, so sampling stops once the bound of every cell that could
+ * still be the safest is under the tolerance, or when the sweep limit or the time budget runs out, whichever
+ * comes first. Cells that are clearly riskier keep wider bounds.
+ * With a ComponentCache, components sampled before (in any game, up to symmetry) are looked up instead of sampled again.
+ * Holds no per-estimate state apart from its counters, so one estimator can be shared between threads.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class MonteCarloEstimator {
+    public static final int DEFAULT_CHAINS = 4;
+    public static final double DEFAULT_TOLERANCE = 0.05;
+    public static final int DEFAULT_MAX_SWEEPS = 200;
+    public static final long DEFAULT_ESTIMATE_NANOS = 20000000L;  // 20 ms.
+
+    private static final int BURN_IN = 10;              // Sweeps thrown away before sampling.
+    private static final int SWEEPS_PER_ROUND = 10;     // Sweeps between checks of the bounds.
+    private static final long START_BUDGET = 1L << 20;  // Search nodes for a chain's starting solution.
+    private static final int NODES_PER_CHECK = 4096;    // Start search nodes between deadline checks.
+    private static final int MAX_BLOCK_CELLS = 24;      // Most cells a clue's neighborhood block may have.
+    private static final long REDRAW_BUDGET = 1L << 14; // Search nodes for a neighborhood redraw.
+    private static final int NEIGHBORHOOD_ODDS = 4;     // One step in this many redraws a whole neighborhood.
+    private static final int WIDE_ODDS = 16;            // One step in this many redraws a wide block.
+    private static final double[] T_975 = {12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228}; // Student t, by degrees of freedom - 1.
+
+    private ForkJoinPool pool;      // null to run chains one after another.
+    private int chains;
+    private double tolerance;
+    private int maxSweeps;
+    private long estimateNanos;     // Time budget of one estimate, or 0 for none.
+    private ComponentCache cache;   // null to always sample.
+
+    private final LongAdder estimates = new LongAdder();    // Components sampled (cache hits aside).
+    private final LongAdder converged = new LongAdder();    // Of those, estimates whose safest cells met the tolerance.
+    private final LongAdder sampleNanos = new LongAdder();  // Time spent sampling.
+
+    /**
+     * Constructor method for an estimator with the default chains, tolerance, sweep limit and time budget.
+     * @param pool  : The pool to run chains on, or null to run them sequentially.
+     */
+    public MonteCarloEstimator(ForkJoinPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * Constructor method for an estimator with the default chains, tolerance, sweep limit and time budget
+     * that looks components up in a cache first.
+     * @param pool  : The pool to run chains on, or null to run them sequentially.
+     * @param cache : The cache, which may be shared with solvers and other estimators, or null to always sample.
+     */
+    public MonteCarloEstimator(ForkJoinPool pool, ComponentCache cache) {
+        this(pool, DEFAULT_CHAINS, DEFAULT_TOLERANCE, DEFAULT_MAX_SWEEPS, DEFAULT_ESTIMATE_NANOS, cache);
+    }
+
+    /**
+     * Constructor method for an estimator.
+     * @param pool  : The pool to run chains on, or null to run them sequentially.
+     * @param chains    : The number of chains (at least 2, for the bounds).
+     * @param tolerance : The widest bound the cells that could be the safest may have to stop.
+     * @param maxSweeps : The most sweeps per chain, converged or not.
+     * @param estimateNanos : The most time one estimate may take, converged or not, or 0 for no limit.
+     * @param cache : The cache, which may be shared with solvers and other estimators, or null to always sample.
+     */
+    public MonteCarloEstimator(ForkJoinPool pool, int chains, double tolerance, int maxSweeps, long estimateNanos,
+                               ComponentCache cache) {
+        if(chains < 2) {
+            throw new IllegalArgumentException("Need at least 2 chains for confidence bounds.");
+        }
+        this.pool = pool;
+        this.chains = chains;
+        this.tolerance = tolerance;
+        this.maxSweeps = maxSweeps;
+        this.estimateNanos = estimateNanos;
+        this.cache = cache;
+    }
+
+    /**
+     * Getter method for the tolerance.
+     * @return The widest bound sampling stops at.
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Estimates the mine probability of every cell of a component.
+     * @param component : The component.
+     * @param rand  : The stream the chains' streams are split from.
+     * @return The estimate, or null if some chain found no starting solution within its budget.
+     */
+    public ComponentEstimate estimate(Component component, SplittableRandom rand) {
+        return estimate(component, rand, Deadline.NONE);
+    }
+
+    /**
+     * Estimates the mine probability of every cell of a component before a deadline.
+     * Sampling stops at the deadline or the estimator's own time budget, whichever comes first, and an estimate
+     * stopped early comes back unconverged. An estimate cut off by the deadline is not cached.
+     * @param component : The component.
+     * @param rand  : The stream the chains' streams are split from.
+     * @param deadline  : The deadline (see Deadline).
+     * @return The estimate, or null if some chain found no starting solution within its budget
+     *         or the time ran out before every chain took a sample.
+     */
+    public ComponentEstimate estimate(Component component, SplittableRandom rand, long deadline) {
+        return cache == null ? sample(component, rand, deadline) : cache.estimate(component, this, rand, deadline);
+    }
+
+    /**
+     * Samples one component, without the cache.
+     * @param component : The component.
+     * @param rand  : The stream the chains' streams are split from.
+     * @param deadline  : The deadline (see Deadline).
+     * @return The estimate, or null if there is none (see estimate()).
+     */
+    ComponentEstimate sample(Component component, SplittableRandom rand, long deadline) {
+        long start = System.nanoTime();
+        if(estimateNanos > 0 && (deadline == Deadline.NONE || deadline - (start + estimateNanos) > 0)) {
+            deadline = start + estimateNanos;
+        }
+
+        Blocks wide = new Blocks(component, Integer.MAX_VALUE, MAX_BLOCK_CELLS);
+        Blocks neighborhoods = new Blocks(component, 1, MAX_BLOCK_CELLS);
+        Blocks ownCells = new Blocks(component, 0, MAX_BLOCK_CELLS);
+        Chain[] chainList = new Chain[chains];
+        for(int r = 0; r < chains; r++) {
+            chainList[r] = new Chain(component, wide, neighborhoods, ownCells, rand.split());
+        }
+
+        // Find starting solutions and burn in.
+        run(chainList, -1, deadline);
+        for(Chain chain : chainList) {
+            if(!chain.isStarted()) {
+                return null;
+            }
+        }
+
+        int size = component.size();
+        double[] probabilities = new double[size];
+        double[] bounds = new double[size];
+        int sweeps = 0;
+        boolean done = false;
+        while(!done && sweeps < maxSweeps && !Deadline.passed(deadline)) {
+            int round = Math.min(SWEEPS_PER_ROUND, maxSweeps - sweeps);
+            run(chainList, round, deadline);
+            sweeps += round;
+
+            // Mean of the chain means, and the t interval from their spread. No bound is tighter than the rule of
+            // three, so a cell no chain has seen as a mine (or as safe) yet doesn't settle the estimate.
+            double t = T_975[Math.min(chains - 2, T_975.length - 1)];
+            long total = 0;
+            for(Chain chain : chainList) {
+                total += chain.getSamples();
+            }
+            double floor = total == 0 ? Double.POSITIVE_INFINITY : 3.0 / total;
+            for(int i = 0; i < size; i++) {
+                double sum = 0;
+                for(Chain chain : chainList) {
+                    sum += chain.getMean(i);
+                }
+                double mean = sum / chains;
+                double spread = 0;
+                for(Chain chain : chainList) {
+                    double diff = chain.getMean(i) - mean;
+                    spread += diff * diff;
+                }
+                probabilities[i] = mean;
+                bounds[i] = Math.max(t * Math.sqrt(spread / (chains - 1) / chains), floor);
+            }
+            done = isSettled(probabilities, bounds);
+        }
+
+        long samples = Long.MAX_VALUE;
+        for(Chain chain : chainList) {
+            samples = Math.min(samples, chain.getSamples());
+        }
+        if(samples == 0) {
+            return null;    // Out of time before every chain had a sample.
+        }
+
+        estimates.increment();
+        if(done) {
+            converged.increment();
+        }
+        sampleNanos.add(System.nanoTime() - start);
+        return new ComponentEstimate(probabilities, bounds, samples, done);
+    }
+
+    /**
+     * Helper method to check if the cells that could be the component's safest have bounds under the tolerance.
+     * A cell could be the safest if its interval reaches below the lowest upper end of any cell's interval.
+     * @param probabilities : The estimated probability of each cell.
+     * @param bounds    : The half-width of each cell's interval.
+     * @return true if sampling can stop.
+     */
+    private boolean isSettled(double[] probabilities, double[] bounds) {
+        double safest = Double.POSITIVE_INFINITY;     // Highest the safest cell's probability can be.
+        for(int i = 0; i < probabilities.length; i++) {
+            safest = Math.min(safest, probabilities[i] + bounds[i]);
+        }
+        for(int i = 0; i < probabilities.length; i++) {
+            if(probabilities[i] - bounds[i] <= safest && bounds[i] > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter method for the number of components sampled, not counting ones answered from the cache.
+     * @return The number of estimates.
+     */
+    public long getEstimates() {
+        return estimates.sum();
+    }
+
+    /**
+     * Getter method for the number of estimates whose safest cells' bounds came in under the tolerance.
+     * @return The number of converged estimates.
+     */
+    public long getConverged() {
+        return converged.sum();
+    }
+
+    @Override
+    public String toString() {
+        long count = estimates.sum();
+        return String.format("%d estimates, %d converged (%.1f%%), %.3f s sampling",
+                             count, converged.sum(), count == 0 ? 0 : 100.0 * converged.sum() / count,
+                             sampleNanos.sum() / 1e9);
+    }
+
+    /**
+     * Helper method to run every chain, on the pool if there is one.
+     * @param chainList : The chains.
+     * @param sweeps    : Sweeps to sample, or -1 to find a start and burn in.
+     * @param deadline  : The deadline each chain stops sampling at (see Deadline).
+     */
+    private void run(Chain[] chainList, int sweeps, long deadline) {
+        if(pool == null) {
+            for(Chain chain : chainList) {
+                chain.run(sweeps, deadline);
+            }
+        } else {
+            pool.invoke(new RunChains(chainList, sweeps, deadline, 0, chainList.length));
+        }
+    }
+
+    /**
+     * The block of cells each clue redraws, with the clues around the block, as flat arrays.
+     * Read-only once built, so the chains share it.
+     */
+    private static class Blocks {
+        private int[] cellStart;        // Block c's cells are cells[cellStart[c] ... cellStart[c + 1] - 1].
+        private int[] cells;
+        private int[] linkStart;        // Block cell j's clues are links[linkStart[j] ... linkStart[j + 1] - 1] ...
+        private int[] links;            // ... as slots in constraints, counted from constraintStart of its block.
+        private int[] constraintStart;  // Block c's clues are constraints[constraintStart[c] ... constraintStart[c + 1] - 1].
+        private int[] constraints;
+        private int[] constraintSizes;  // Cells of the block in each of its clues.
+        private int maxCells;           // Most cells in one block.
+        private int maxConstraints;     // Most clues around one block.
+
+        /**
+         * Constructor method for every clue's block.
+         * @param component : The component.
+         * @param rings : The rings of clues around each clue whose cells join its block (0 for just the clue's own cells).
+         * @param limit : The most cells a block may have; it stops at the last ring that fits,
+         *                or at the clue's own cells if not even the first ring does.
+         */
+        Blocks(Component component, int rings, int limit) {
+            int numConstraints = component.getNumConstraints();
+            int[] constraintCells = component.getConstraintCells();
+            int[] cellConstraints = component.getCellConstraints();
+            int[] cellSeen = new int[component.size()];         // Block + 1 that last took each cell.
+            int[] constraintSeen = new int[numConstraints];     // Block + 1 that last took each clue.
+            int[] slot = new int[numConstraints];               // Slot of each clue in the current block.
+            int[] block = new int[16];
+
+            cellStart = new int[numConstraints + 1];
+            constraintStart = new int[numConstraints + 1];
+            cells = new int[16];
+            links = new int[16];
+            linkStart = new int[17];
+            constraints = new int[16];
+            constraintSizes = new int[16];
+            int numCells = 0;
+            int numLinks = 0;
+            int numTouching = 0;
+            for(int c = 0; c < numConstraints; c++) {
+                // Gather the block: the clue's cells, then those of clues sharing a cell with it, and so on.
+                int count = 0;
+                int stamp = c + 1;
+                for(int j = component.getConstraintStart(c); j < component.getConstraintStart(c + 1); j++) {
+                    int cell = constraintCells[j];
+                    if(cellSeen[cell] != stamp) {
+                        cellSeen[cell] = stamp;
+                        block = append(block, count++, cell);
+                    }
+                }
+
+                // Add the cells of the clues around the block, ring after ring, while the block fits.
+                int ringStart = 0;
+                int fitted = count;
+                for(int ring = 0; ring < rings && ringStart < fitted; ring++) {
+                    for(int k = ringStart; k < fitted; k++) {
+                        for(int m = component.getCellStart(block[k]); m < component.getCellStart(block[k] + 1); m++) {
+                            int d = cellConstraints[m];
+                            for(int j = component.getConstraintStart(d); j < component.getConstraintStart(d + 1); j++) {
+                                int cell = constraintCells[j];
+                                if(cellSeen[cell] != stamp) {
+                                    cellSeen[cell] = stamp;
+                                    block = append(block, count++, cell);
+                                }
+                            }
+                        }
+                    }
+                    if(count > limit) {
+                        break;
+                    }
+                    ringStart = fitted;
+                    fitted = count;
+                }
+                count = fitted;
+
+                // Record the cells, and the clues each one is in.
+                int firstTouching = numTouching;
+                for(int k = 0; k < count; k++) {
+                    int cell = block[k];
+                    cells = append(cells, numCells, cell);
+                    for(int m = component.getCellStart(cell); m < component.getCellStart(cell + 1); m++) {
+                        int d = cellConstraints[m];
+                        if(constraintSeen[d] != stamp) {
+                            constraintSeen[d] = stamp;
+                            slot[d] = numTouching - firstTouching;
+                            constraints = append(constraints, numTouching, d);
+                            constraintSizes = append(constraintSizes, numTouching++, 0);
+                        }
+                        constraintSizes[firstTouching + slot[d]]++;
+                        links = append(links, numLinks++, slot[d]);
+                    }
+                    numCells++;
+                    linkStart = append(linkStart, numCells, numLinks);
+                }
+                cellStart[c + 1] = numCells;
+                constraintStart[c + 1] = numTouching;
+                maxCells = Math.max(maxCells, count);
+                maxConstraints = Math.max(maxConstraints, numTouching - firstTouching);
+            }
+        }
+
+        /**
+         * Helper method to set an entry of an array, growing it if needed.
+         * @param array : The array.
+         * @param i : The entry.
+         * @param value : The value.
+         * @return The array, or a bigger copy of it.
+         */
+        private static int[] append(int[] array, int i, int value) {
+            if(i >= array.length) {
+                array = Arrays.copyOf(array, Math.max(i + 1, array.length * 2));
+            }
+            array[i] = value;
+            return array;
+        }
+    }
+
+    /**
+     * One Markov chain over the solutions of a component. Not thread-safe; each runs on one thread at a time.
+     */
+    private static class Chain {
+        private Component component;
+        private Blocks wide;
+        private Blocks neighborhoods;
+        private Blocks ownCells;
+        private SplittableRandom rand;
+        private byte[] assignment;
+        private int[] sum;              // Mines per clue in the current assignment.
+        private long[] mineSamples;     // Samples in which each cell was a mine.
+        private long samples;
+        private boolean started;
+
+        // Scratch for redraw().
+        private int[] need;             // Mines each clue around the block still needs.
+        private int[] left;             // Block cells each clue around the block has left to assign.
+        private byte[] trial;           // The block assignment being built.
+        private byte[] chosen;          // The block assignment kept so far.
+        private long nodesLeft;
+        private int fits;
+
+        Chain(Component component, Blocks wide, Blocks neighborhoods, Blocks ownCells, SplittableRandom rand) {
+            this.component = component;
+            this.wide = wide;
+            this.neighborhoods = neighborhoods;
+            this.ownCells = ownCells;
+            this.rand = rand;
+            this.assignment = new byte[component.size()];
+            this.sum = new int[component.getNumConstraints()];
+            this.mineSamples = new long[component.size()];
+
+            int maxConstraints = Math.max(wide.maxConstraints, Math.max(neighborhoods.maxConstraints, ownCells.maxConstraints));
+            int maxCells = Math.max(wide.maxCells, Math.max(neighborhoods.maxCells, ownCells.maxCells));
+            this.need = new int[maxConstraints];
+            this.left = new int[maxConstraints];
+            this.trial = new byte[maxCells];
+            this.chosen = new byte[maxCells];
+        }
+
+        /**
+         * Runs the chain.
+         * @param sweeps    : Sweeps to sample, or -1 to find a start and burn in.
+         * @param deadline  : The deadline to stop at, checked after every sweep (see Deadline).
+         *                    A chain the deadline stops before its burn-in is done is not started.
+         */
+        void run(int sweeps, long deadline) {
+            if(sweeps < 0) {
+                started = findStart(deadline);
+                for(int s = 0; started && s < BURN_IN; s++) {
+                    if(Deadline.passed(deadline)) {
+                        started = false;
+                    } else {
+                        sweep();
+                    }
+                }
+                return;
+            }
+
+            int size = assignment.length;
+            for(int s = 0; s < sweeps && !Deadline.passed(deadline); s++) {
+                sweep();
+                for(int i = 0; i < size; i++) {
+                    mineSamples[i] += assignment[i];
+                }
+                samples++;
+            }
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        long getSamples() {
+            return samples;
+        }
+
+        double getMean(int i) {
+            return (double)mineSamples[i] / samples;
+        }
+
+        /**
+         * Helper method to find a random solution by depth-first search, trying a random value first at each cell.
+         * @param deadline  : The deadline, checked every NODES_PER_CHECK nodes (see Deadline).
+         * @return false if the search ran out of budget or time.
+         */
+        private boolean findStart(long deadline) {
+            int size = assignment.length;
+            int numConstraints = sum.length;
+            int[] left = new int[numConstraints];
+            for(int c = 0; c < numConstraints; c++) {
+                left[c] = component.getConstraintStart(c + 1) - component.getConstraintStart(c);
+            }
+            byte[] tried = new byte[size];
+            byte[] firstValue = new byte[size];
+            long budget = START_BUDGET;
+
+            int i = 0;
+            while(i < size) {
+                if(--budget < 0 || budget % NODES_PER_CHECK == 0 && Deadline.passed(deadline)) {
+                    return false;
+                }
+                if(tried[i] == 2) {
+                    // Both values failed; step back and try the other value of the cell before.
+                    tried[i] = 0;
+                    if(--i < 0) {
+                        return false;
+                    }
+                    apply(i, -assignment[i], left, 1);
+                    continue;
+                }
+
+                if(tried[i] == 0) {
+                    firstValue[i] = (byte)(rand.nextInt(4) == 0 ? 1 : 0);    // Mines are the rarer value.
+                }
+                byte value = tried[i] == 0 ? firstValue[i] : (byte)(1 - firstValue[i]);
+                tried[i]++;
+                assignment[i] = value;
+                if(apply(i, value, left, -1)) {
+                    i++;
+                } else {
+                    apply(i, -value, left, 1);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Helper method to add a cell's value to its clues during the start search.
+         * @param i : The cell.
+         * @param value : The mines to add (negative to take back).
+         * @param left  : Unassigned cells per clue.
+         * @param leftChange    : The change to the unassigned count.
+         * @return false if some clue can no longer be met.
+         */
+        private boolean apply(int i, int value, int[] left, int leftChange) {
+            int[] cellConstraints = component.getCellConstraints();
+            boolean ok = true;
+            for(int j = component.getCellStart(i); j < component.getCellStart(i + 1); j++) {
+                int c = cellConstraints[j];
+                sum[c] += value;
+                left[c] += leftChange;
+                int target = component.getTarget(c);
+                if(sum[c] > target || sum[c] + left[c] < target) {
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+
+        /**
+         * Helper method to redraw one random clue's block per clue in the component.
+         * Most steps redraw just the clue's cells; some redraw its whole neighborhood or a wide block,
+         * which cost more but mix better.
+         */
+        private void sweep() {
+            int numConstraints = sum.length;
+            for(int step = 0; step < numConstraints; step++) {
+                int c = rand.nextInt(numConstraints);
+                boolean moved = false;
+                if(rand.nextInt(WIDE_ODDS) == 0) {
+                    moved = redraw(wide, c, REDRAW_BUDGET);
+                } else if(rand.nextInt(NEIGHBORHOOD_ODDS) == 0) {
+                    moved = redraw(neighborhoods, c, REDRAW_BUDGET);
+                }
+                if(!moved) {
+                    redraw(ownCells, c, Long.MAX_VALUE);
+                }
+            }
+        }
+
+        /**
+         * Helper method to redraw a block uniformly from every assignment that keeps the clues around it met.
+         * Gives up if there are too many to go through; whether it does depends only on the cells outside
+         * the block, which no redraw of the block changes, so every move is still reversible at the same odds.
+         * @param blocks    : The blocks to use.
+         * @param c : The block's clue.
+         * @param budget    : The most search nodes to spend.
+         * @return false if the budget ran out (the assignment is then unchanged).
+         */
+        private boolean redraw(Blocks blocks, int c, long budget) {
+            int firstCell = blocks.cellStart[c];
+            int numCells = blocks.cellStart[c + 1] - firstCell;
+            int firstConstraint = blocks.constraintStart[c];
+            int numConstraints = blocks.constraintStart[c + 1] - firstConstraint;
+
+            // Mines each clue still needs from the block, once the block's own mines are taken off.
+            for(int t = 0; t < numConstraints; t++) {
+                int d = blocks.constraints[firstConstraint + t];
+                need[t] = component.getTarget(d) - sum[d];
+                left[t] = blocks.constraintSizes[firstConstraint + t];
+            }
+            for(int k = 0; k < numCells; k++) {
+                int j = firstCell + k;
+                chosen[k] = assignment[blocks.cells[j]];
+                for(int l = blocks.linkStart[j]; l < blocks.linkStart[j + 1]; l++) {
+                    need[blocks.links[l]] += chosen[k];
+                }
+            }
+
+            nodesLeft = budget;
+            fits = 0;
+            if(!enumerate(blocks, firstCell, numCells, 0)) {
+                return false;
+            }
+
+            for(int k = 0; k < numCells; k++) {
+                int cell = blocks.cells[firstCell + k];
+                int change = chosen[k] - assignment[cell];
+                if(change != 0) {
+                    assignment[cell] = chosen[k];
+                    for(int m = component.getCellStart(cell); m < component.getCellStart(cell + 1); m++) {
+                        sum[component.getCellConstraints()[m]] += change;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Helper method to go through a block's assignments depth first, keeping one of the complete ones
+         * uniformly at random (reservoir sampling).
+         * @param blocks    : The blocks in use.
+         * @param firstCell : The block's first entry in blocks.cells.
+         * @param numCells  : The block's size.
+         * @param k : The block cell to assign.
+         * @return false if the node budget ran out.
+         */
+        private boolean enumerate(Blocks blocks, int firstCell, int numCells, int k) {
+            if(k == numCells) {
+                if(rand.nextInt(++fits) == 0) {
+                    System.arraycopy(trial, 0, chosen, 0, numCells);
+                }
+                return true;
+            }
+            if(--nodesLeft < 0) {
+                return false;
+            }
+
+            int j = firstCell + k;
+            for(byte value = 0; value <= 1; value++) {
+                boolean ok = true;
+                for(int l = blocks.linkStart[j]; l < blocks.linkStart[j + 1]; l++) {
+                    int t = blocks.links[l];
+                    need[t] -= value;
+                    left[t]--;
+                    ok &= need[t] >= 0 && need[t] <= left[t];
+                }
+                trial[k] = value;
+                boolean finished = !ok || enumerate(blocks, firstCell, numCells, k + 1);
+                for(int l = blocks.linkStart[j]; l < blocks.linkStart[j + 1]; l++) {
+                    int t = blocks.links[l];
+                    need[t] += value;
+                    left[t]++;
+                }
+                if(!finished) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Fork/join task that runs a range of chains, splitting the range in half until it is one chain.
+     */
+    private static class RunChains extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Chain[] chainList;
+        private final int sweeps;
+        private final long deadline;
+        private final int from;
+        private final int to;
+
+        RunChains(Chain[] chainList, int sweeps, long deadline, int from, int to) {
+            this.chainList = chainList;
+            this.sweeps = sweeps;
+            this.deadline = deadline;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from == 1) {
+                chainList[from].run(sweeps, deadline);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new RunChains(chainList, sweeps, deadline, from, mid),
+                      new RunChains(chainList, sweeps, deadline, mid, to));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Minesweeper;
+
+/**
+ * A move picked under a time budget (see ModifiedAgent.nextMove()), with which tier of the agent's
+ * reasoning produced it and how long each tier took.
+ * Tiers run cheapest first, each refining the last one's answer: cells already known to be safe,
+ * the heuristic's probabilities, the pattern table, belief propagation, then exact solving.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class Move {
+    public static final int SAFE = 0;
+    public static final int HEURISTIC = 1;
+    public static final int PATTERN = 2;
+    public static final int BELIEF = 3;
+    public static final int EXACT = 4;
+    public static final int NUM_TIERS = 5;
+
+    private static final String[] TIER_NAMES = {"safe", "heuristic", "pattern", "belief", "exact"};
+
+    private int cell;
+    private int tier;
+    private int cancelledTier;
+    private long[] tierNanos;
+
+    /**
+     * Constructor method for a move.
+     * @param cell  : The cell, as row * dim + col, or -1 if there is nothing left to guess.
+     * @param tier  : The tier that produced it.
+     * @param cancelledTier : The tier the deadline cut off, or -1 if none was.
+     * @param tierNanos : The time each tier took, in nanoseconds (0 for tiers that didn't run).
+     */
+    public Move(int cell, int tier, int cancelledTier, long[] tierNanos) {
+        this.cell = cell;
+        this.tier = tier;
+        this.cancelledTier = cancelledTier;
+        this.tierNanos = tierNanos;
+    }
+
+    /**
+     * Getter method for the cell.
+     * @return The cell, as row * dim + col, or -1 if there is nothing left to guess.
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    /**
+     * Getter method for the tier that produced the move.
+     * @return SAFE, HEURISTIC, PATTERN, BELIEF or EXACT.
+     */
+    public int getTier() {
+        return tier;
+    }
+
+    /**
+     * Getter method for the tier the deadline cut off.
+     * @return The tier, or -1 if every tier that ran finished.
+     */
+    public int getCancelledTier() {
+        return cancelledTier;
+    }
+
+    /**
+     * Getter method for how long a tier took, including a tier that was cut off.
+     * @param tier  : The tier.
+     * @return The time, in nanoseconds, or 0 if the tier didn't run.
+     */
+    public long getTierNanos(int tier) {
+        return tierNanos[tier];
+    }
+
+    /**
+     * Getter method for a tier's name.
+     * @param tier  : The tier.
+     * @return The name.
+     */
+    public static String getTierName(int tier) {
+        return TIER_NAMES[tier];
+    }
+
+    @Override
+    public String toString() {
+        String move = "cell " + cell + " from " + getTierName(tier);
+        if(cancelledTier >= 0) {
+            move += " (" + getTierName(cancelledTier) + " cancelled)";
+        }
+        for(int t = 0; t < NUM_TIERS; t++) {
+            if(tierNanos[t] > 0) {
+                move += String.format(", %s %.3f ms", getTierName(t), tierNanos[t] / 1e6);
+            }
+        }
+        return move;
+    }
+}
@@ -0,0 +1,111 @@
+package Minesweeper;
+
+import java.util.BitSet;
+
+/**
+ * Compact board layout for very large boards.
+ * Mines are kept in a bitset (1 bit per space) and clues are packed 16 to a long (4 bits per space),
+ * so a space costs 5 bits instead of the 32 bits an int[][] board needs.
+ * Spaces are numbered row * dim + col, so dim can be at most 46340.
+ * Writes to different 16-space words never share state, so clue-only writes to disjoint,
+ * 16-aligned ranges of spaces can run in parallel.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class PackedBoard implements Board {
+    private static final int CLUES_PER_WORD = 16;
+    private static final int MAX_DIM = 46340;   // dim * dim must fit in an int.
+
+    private int dim;
+    private BitSet mines;
+    private long[] clues;
+
+    /**
+     * Constructor method for an empty board.
+     * @param dim   : The board dimension.
+     */
+    public PackedBoard(int dim) {
+        if(dim > MAX_DIM) {
+            throw new IllegalArgumentException("Packed boards can be at most " + MAX_DIM + " x " + MAX_DIM + ".");
+        }
+
+        int cells = dim * dim;
+        this.dim = dim;
+        this.mines = new BitSet(cells);
+        this.clues = new long[(cells + CLUES_PER_WORD - 1) / CLUES_PER_WORD];
+    }
+
+    @Override
+    public int getDim() {
+        return dim;
+    }
+
+    @Override
+    public int getValue(int row, int col) {
+        int cell = row * dim + col;
+        if(mines.get(cell)) {
+            return -1;
+        }
+        return getClue(cell);
+    }
+
+    @Override
+    public boolean isMine(int row, int col) {
+        return mines.get(row * dim + col);
+    }
+
+    @Override
+    public void setValue(int row, int col, int value) {
+        int cell = row * dim + col;
+        boolean mine = mines.get(cell);
+
+        // Only write to the bitset when the bit changes, so clue-only writes never touch it.
+        if(value < 0) {
+            if(!mine) {
+                mines.set(cell);
+            }
+            setClue(cell, 0);
+        } else {
+            if(mine) {
+                mines.clear(cell);
+            }
+            setClue(cell, value);
+        }
+    }
+
+    @Override
+    public long sizeInBytes() {
+        // BitSet words plus the clue words (16 byte array headers each).
+        long cells = (long)dim * dim;
+        return (16 + ((cells + 63) / 64) * 8) + (16 + (long)clues.length * 8);
+    }
+
+    /**
+     * Getter method for the mine bitset, indexed by row * dim + col.
+     * @return The mine bitset (not a copy).
+     */
+    public BitSet getMines() {
+        return mines;
+    }
+
+    /**
+     * Helper method to read the clue nibble for a space.
+     * @param cell  : The space, as row * dim + col.
+     * @return The clue stored for the space.
+     */
+    private int getClue(int cell) {
+        long word = clues[cell / CLUES_PER_WORD];
+        int shift = (cell % CLUES_PER_WORD) * 4;
+        return (int)((word >>> shift) & 0xF);
+    }
+
+    /**
+     * Helper method to write the clue nibble for a space.
+     * @param cell  : The space, as row * dim + col.
+     * @param clue  : The clue (0 - 8).
+     */
+    private void setClue(int cell, int clue) {
+        int i = cell / CLUES_PER_WORD;
+        int shift = (cell % CLUES_PER_WORD) * 4;
+        clues[i] = (clues[i] & ~(0xFL << shift)) | ((long)clue << shift);
+    }
+}
@@ -0,0 +1,231 @@
+package Minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only table of how often a hidden cell turned out to be a mine, given what surrounds it.
+ * Built offline by PatternTableBuilder and memory-mapped at startup, so loading costs nothing up front
+ * and the table is shared by every thread.
+ * A cell's surroundings are encoded one nibble per neighbor: off the board, hidden, revealed mine, or clue 0 - 8.
+ * The 3x3 neighborhood fits exactly in an int and is looked up by binary search; the 5x5 neighborhood
+ * is hashed into a fixed array of slots, each holding the most common pattern that hashed there, checked by
+ * a 16-bit fingerprint so a colliding pattern falls back to its 3x3 entry. Each density bucket has its own
+ * tables, and probabilities are stored as 16-bit fractions.
+ *
+ * File layout (big-endian):
+ * int magic, int version, int buckets, int hash bits
+ * float density, per bucket
+ * per bucket: int entries, int[entries] 3x3 keys (sorted), short[entries] probabilities
+ * per bucket: int[1 << hash bits] 5x5 slots, fingerprint in the high 16 bits and probability in the low 16
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class PatternTable {
+    public static final int MAGIC = 0x4D535054;     // "MSPT"
+    public static final int VERSION = 1;
+    public static final int EMPTY = 0xFFFF;         // Probability of a slot with too few samples.
+    public static final int SCALE = 0xFFFE;         // Stored value of probability 1.
+
+    private static final int OFF_BOARD = 0;
+    private static final int HIDDEN = 1;
+    private static final int MINE = 2;
+    private static final int CLUE = 3;              // Clue k is stored as CLUE + k.
+
+    private ByteBuffer buffer;
+    private float[] densities;
+    private int hashBits;
+    private int[] entries;          // 3x3 entries per bucket.
+    private int[] keyOffsets;       // Where each bucket's 3x3 keys start.
+    private int[] slotOffsets;      // Where each bucket's 5x5 slots start.
+
+    /**
+     * Constructor method for a table over a buffer in the file layout.
+     * @param buffer    : The table's bytes.
+     * @throws IOException  If the buffer isn't a pattern table.
+     */
+    public PatternTable(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " pattern table.");
+        }
+        int buckets = buffer.getInt(8);
+        hashBits = buffer.getInt(12);
+
+        densities = new float[buckets];
+        entries = new int[buckets];
+        keyOffsets = new int[buckets];
+        slotOffsets = new int[buckets];
+        int offset = 16;
+        for(int b = 0; b < buckets; b++) {
+            densities[b] = buffer.getFloat(offset);
+            offset += 4;
+        }
+        for(int b = 0; b < buckets; b++) {
+            entries[b] = buffer.getInt(offset);
+            keyOffsets[b] = offset + 4;
+            offset += 4 + entries[b] * 6;
+        }
+        for(int b = 0; b < buckets; b++) {
+            slotOffsets[b] = offset;
+            offset += (1 << hashBits) * 4;
+        }
+        if(offset > buffer.limit()) {
+            throw new IOException("Pattern table is truncated.");
+        }
+    }
+
+    /**
+     * Memory-maps a table file.
+     * @param file  : The file PatternTableBuilder wrote.
+     * @return The table.
+     * @throws IOException  If the file can't be read or isn't a pattern table.
+     */
+    public static PatternTable load(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PatternTable(buffer);
+        }
+    }
+
+    /**
+     * Finds the density bucket closest to a board's mine density.
+     * @param density   : Mines / cells.
+     * @return The bucket.
+     */
+    public int bucketFor(double density) {
+        int best = 0;
+        for(int b = 1; b < densities.length; b++) {
+            if(Math.abs(densities[b] - density) < Math.abs(densities[best] - density)) {
+                best = b;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Looks up a hidden cell's chance of being a mine, from its 5x5 neighborhood if that was seen often enough,
+     * otherwise from its 3x3 neighborhood.
+     * @param knowledgeBase : What the agent knows.
+     * @param row
+     * @param col
+     * @param bucket    : The density bucket.
+     * @return The probability, or -1 if neither neighborhood was seen often enough.
+     */
+    public double lookup(KnowledgeBase knowledgeBase, int row, int col, int bucket) {
+        long hash = hash5(knowledgeBase, row, col);
+        int value = buffer.getInt(slotOffsets[bucket] + slot(hash, hashBits) * 4);
+        if((value & 0xFFFF) != EMPTY && value >>> 16 == fingerprint(hash)) {
+            return (double)(value & 0xFFFF) / SCALE;
+        }
+
+        // Binary search the sorted 3x3 keys.
+        int key = key3(knowledgeBase, row, col);
+        int base = keyOffsets[bucket];
+        int low = 0;
+        int high = entries[bucket] - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = buffer.getInt(base + mid * 4);
+            if(midKey < key) {
+                low = mid + 1;
+            } else if(midKey > key) {
+                high = mid - 1;
+            } else {
+                int probOffset = base + entries[bucket] * 4 + mid * 2;
+                return (double)(buffer.getShort(probOffset) & 0xFFFF) / SCALE;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Getter method for the number of density buckets.
+     * @return The number of buckets.
+     */
+    public int getBuckets() {
+        return densities.length;
+    }
+
+    /**
+     * Encodes a cell's 3x3 neighborhood, one nibble per neighbor in row-major order (center left out).
+     * @param knowledgeBase : What the agent knows.
+     * @param row
+     * @param col
+     * @return The key.
+     */
+    public static int key3(KnowledgeBase knowledgeBase, int row, int col) {
+        int key = 0;
+        for(int dr = -1; dr <= 1; dr++) {
+            for(int dc = -1; dc <= 1; dc++) {
+                if(dr != 0 || dc != 0) {
+                    key = key << 4 | state(knowledgeBase, row + dr, col + dc);
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Hashes a cell's 5x5 neighborhood (center left out).
+     * @param knowledgeBase : What the agent knows.
+     * @param row
+     * @param col
+     * @return The 64-bit hash, which gives both the slot and the fingerprint.
+     */
+    public static long hash5(KnowledgeBase knowledgeBase, int row, int col) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for(int dr = -2; dr <= 2; dr++) {
+            for(int dc = -2; dc <= 2; dc++) {
+                if(dr != 0 || dc != 0) {
+                    hash = (hash ^ state(knowledgeBase, row + dr, col + dc)) * 0x100000001B3L;
+                }
+            }
+        }
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        return hash;
+    }
+
+    /**
+     * Helper method to get a 5x5 hash's slot.
+     * @param hash  : The hash.
+     * @param hashBits  : log2 of the number of slots.
+     * @return The slot.
+     */
+    public static int slot(long hash, int hashBits) {
+        return (int)(hash >>> (64 - hashBits));
+    }
+
+    /**
+     * Helper method to get a 5x5 hash's fingerprint, from bits the slot doesn't use.
+     * @param hash  : The hash.
+     * @return The fingerprint, 0 - 0xFFFF.
+     */
+    public static int fingerprint(long hash) {
+        return (int)hash & 0xFFFF;
+    }
+
+    /**
+     * Helper method to encode one position as a nibble.
+     * @param knowledgeBase : What the agent knows.
+     * @param row
+     * @param col
+     * @return The position's state.
+     */
+    private static int state(KnowledgeBase knowledgeBase, int row, int col) {
+        int dim = knowledgeBase.getDim();
+        if(row < 0 || col < 0 || row >= dim || col >= dim) {
+            return OFF_BOARD;
+        }
+        if(!knowledgeBase.getRevealed(row, col)) {
+            return HIDDEN;
+        }
+        int clue = knowledgeBase.getClue(row, col);
+        return clue < 0 ? MINE : CLUE + clue;
+    }
+}
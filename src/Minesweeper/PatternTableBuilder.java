@@ -0,0 +1,285 @@
+package Minesweeper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Offline job that builds a PatternTable.
+ * Plays games with the advanced agent for each mine count, and before every move records, for every
+ * hidden cell, its 3x3 and 5x5 neighborhood and whether it is a mine. Each mine count becomes a density
+ * bucket. Patterns seen fewer than MIN_SAMPLES times are left out.
+ * 3x3 patterns are counted exactly. There are far too many 5x5 patterns for that, so each slot keeps a running
+ * majority vote over the fingerprints that hash to it and counts only the current winner.
+ * Games are split into one task per thread; each task counts into its own tables, which are merged at the end.
+ * Usage: PatternTableBuilder games dim mines[,mines...] file [seed|none] [threads]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class PatternTableBuilder {
+    private static final String USAGE = "Usage: PatternTableBuilder games dim mines[,mines...] file [seed|none] [threads]";
+    private static final int HASH_BITS = 20;
+    private static final int MIN_SAMPLES = 20;
+
+    public static void main(String[] args) {
+        int games;
+        int dim;
+        int[] mines;
+        Path file;
+        Long seed;
+        int threads;
+        try {
+            games = Integer.parseInt(args[0]);
+            dim = Integer.parseInt(args[1]);
+            String[] counts = args[2].split(",");
+            mines = new int[counts.length];
+            for(int b = 0; b < counts.length; b++) {
+                mines[b] = Integer.parseInt(counts[b]);
+            }
+            file = Paths.get(args[3]);
+            seed = args.length > 4 && !args[4].equalsIgnoreCase("none") ? Long.valueOf(args[4]) : null;
+            threads = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        } catch(Exception e) {
+            System.out.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        if(games < 1 || dim < 1) {
+            System.out.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        ExecutorService executor = TrialEngine.newFixedPool(threads);
+        try {
+            long start = System.nanoTime();
+            PatternCounts[] buckets = new PatternCounts[mines.length];
+            for(int b = 0; b < mines.length; b++) {
+                buckets[b] = build(executor, threads, games, dim, mines[b], seed == null ? null : seed + b);
+                System.out.println("dim " + dim + ", mines " + mines[b] + ": " + buckets[b].samples + " samples, "
+                                   + buckets[b].patterns3.size() + " 3x3 patterns");
+            }
+            long bytes = write(file, dim, mines, buckets);
+            System.out.printf("Wrote %s (%d bytes) in %.3f s%n", file, bytes, (System.nanoTime() - start) / 1e9);
+        } catch(Exception e) {
+            System.out.println("Build failed: " + e);
+            System.exit(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Plays every game of one density bucket on the pool and merges the counts.
+     * @param executor  : The pool.
+     * @param threads   : The pool's threads, or 0 for one per core.
+     * @param games : Number of games.
+     * @param dim   : The board dimension.
+     * @param numMines  : The number of mines.
+     * @param seed  : The seed for the bucket, or null for unseeded games.
+     * @return The merged counts.
+     * @throws Exception    If a game threw an exception.
+     */
+    private static PatternCounts build(ExecutorService executor, int threads, int games, int dim, int numMines,
+                                       Long seed) throws Exception {
+        int parts = Math.min(games, threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        List<Callable<PatternCounts>> tasks = new ArrayList<Callable<PatternCounts>>(parts);
+        for(int part = 0; part < parts; part++) {
+            final int first = (int)((long)games * part / parts);
+            final int last = (int)((long)games * (part + 1) / parts);
+            tasks.add(() -> {
+                PatternCounts counts = new PatternCounts();
+                for(int game = first; game < last; game++) {
+                    TrialRandom trialRandom = seed == null ? new TrialRandom() : TrialRandom.forTrial(seed, game);
+                    playGame(new Environment(dim, numMines, trialRandom.boardRandom()), trialRandom.advancedRandom(), counts);
+                }
+                return counts;
+            });
+        }
+
+        PatternCounts merged = new PatternCounts();
+        for(Future<PatternCounts> future : executor.invokeAll(tasks)) {
+            merged.add(future.get());
+        }
+        return merged;
+    }
+
+    /**
+     * Plays one game like AgentRunner.runAdvanced(), recording every hidden cell before each move.
+     * @param env   : The game.
+     * @param rand  : The stream for random picks.
+     * @param counts    : Where to record.
+     */
+    private static void playGame(Environment env, SplittableRandom rand, PatternCounts counts) {
+        Board board = env.getBoardView();
+        ModifiedAgent agent = new ModifiedAgent(board);
+        KnowledgeBase knowledgeBase = agent.getKnowledgeBase();
+        int dim = board.getDim();
+
+        while(true) {
+            int cell;
+            if(!agent.getSafeCells().isEmpty()) {
+                cell = agent.getSafeCells().pop();
+                if(knowledgeBase.getRevealed(cell / dim, cell % dim)) {
+                    continue;
+                }
+            } else {
+                cell = agent.nextGuess(rand);
+                if(cell < 0) {
+                    break;
+                }
+            }
+
+            counts.record(knowledgeBase, board);
+            agent.revealCascade(cell / dim, cell % dim);
+            agent.queryCell(cell / dim, cell % dim);
+            agent.updateChangedProbabilities();
+        }
+    }
+
+    /**
+     * Helper method to write the table file.
+     * @param file  : Where to write.
+     * @param dim   : The board dimension.
+     * @param mines : The mine count of each bucket.
+     * @param buckets   : The counts of each bucket.
+     * @return The number of bytes written.
+     * @throws IOException  If the file can't be written.
+     */
+    private static long write(Path file, int dim, int[] mines, PatternCounts[] buckets) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(PatternTable.MAGIC);
+            out.writeInt(PatternTable.VERSION);
+            out.writeInt(buckets.length);
+            out.writeInt(HASH_BITS);
+            for(int b = 0; b < buckets.length; b++) {
+                out.writeFloat((float)mines[b] / (dim * dim));
+            }
+
+            for(PatternCounts counts : buckets) {
+                int[] keys = new int[counts.patterns3.size()];
+                int entries = 0;
+                for(Map.Entry<Integer, long[]> entry : counts.patterns3.entrySet()) {
+                    if(entry.getValue()[0] >= MIN_SAMPLES) {
+                        keys[entries++] = entry.getKey();
+                    }
+                }
+                Arrays.sort(keys, 0, entries);
+
+                out.writeInt(entries);
+                for(int i = 0; i < entries; i++) {
+                    out.writeInt(keys[i]);
+                }
+                for(int i = 0; i < entries; i++) {
+                    long[] seen = counts.patterns3.get(keys[i]);
+                    out.writeShort(quantize(seen[1], seen[0]));
+                }
+            }
+
+            for(PatternCounts counts : buckets) {
+                for(int slot = 0; slot < 1 << HASH_BITS; slot++) {
+                    long seen = counts.seen5[slot];
+                    out.writeInt(seen >= MIN_SAMPLES ? counts.fingerprints5[slot] << 16 | quantize(counts.mines5[slot], seen)
+                                                     : PatternTable.EMPTY);
+                }
+            }
+            return out.size();
+        }
+    }
+
+    /**
+     * Helper method to store a frequency as a 16-bit fraction.
+     * @param mines : Times the pattern's cell was a mine.
+     * @param seen  : Times the pattern was seen.
+     * @return The fraction, from 0 to PatternTable.SCALE.
+     */
+    private static int quantize(long mines, long seen) {
+        return (int)Math.round((double)mines / seen * PatternTable.SCALE);
+    }
+
+    /**
+     * Pattern counts from some games: 3x3 patterns exactly, 5x5 patterns by slot.
+     */
+    private static class PatternCounts {
+        private Map<Integer, long[]> patterns3 = new HashMap<Integer, long[]>();    // Key -> {seen, mines}.
+        private int[] fingerprints5 = new int[1 << HASH_BITS];  // Leading fingerprint of each slot.
+        private long[] votes5 = new long[1 << HASH_BITS];       // Its lead in the vote.
+        private long[] seen5 = new long[1 << HASH_BITS];        // Times it was seen since it took the lead.
+        private long[] mines5 = new long[1 << HASH_BITS];
+        private long samples;
+
+        /**
+         * Records every hidden cell of a knowledge base.
+         * @param knowledgeBase : What the agent knows.
+         * @param board : The board, for which cells are mines.
+         */
+        void record(KnowledgeBase knowledgeBase, Board board) {
+            int dim = knowledgeBase.getDim();
+            for(int row = 0; row < dim; row++) {
+                for(int col = 0; col < dim; col++) {
+                    if(knowledgeBase.getRevealed(row, col)) {
+                        continue;
+                    }
+                    int mine = board.isMine(row, col) ? 1 : 0;
+
+                    long[] seen = patterns3.computeIfAbsent(PatternTable.key3(knowledgeBase, row, col), key -> new long[2]);
+                    seen[0]++;
+                    seen[1] += mine;
+
+                    long hash = PatternTable.hash5(knowledgeBase, row, col);
+                    int slot = PatternTable.slot(hash, HASH_BITS);
+                    int fingerprint = PatternTable.fingerprint(hash);
+                    if(fingerprint == fingerprints5[slot]) {
+                        votes5[slot]++;
+                        seen5[slot]++;
+                        mines5[slot] += mine;
+                    } else if(votes5[slot] == 0) {
+                        fingerprints5[slot] = fingerprint;
+                        votes5[slot] = 1;
+                        seen5[slot] = 1;
+                        mines5[slot] = mine;
+                    } else {
+                        votes5[slot]--;
+                    }
+                    samples++;
+                }
+            }
+        }
+
+        /**
+         * Adds another task's counts to these.
+         * @param other : The other counts.
+         */
+        void add(PatternCounts other) {
+            for(Map.Entry<Integer, long[]> entry : other.patterns3.entrySet()) {
+                long[] seen = patterns3.computeIfAbsent(entry.getKey(), key -> new long[2]);
+                seen[0] += entry.getValue()[0];
+                seen[1] += entry.getValue()[1];
+            }
+            for(int slot = 0; slot < seen5.length; slot++) {
+                if(other.fingerprints5[slot] == fingerprints5[slot]) {
+                    votes5[slot] += other.votes5[slot];
+                    seen5[slot] += other.seen5[slot];
+                    mines5[slot] += other.mines5[slot];
+                } else if(other.seen5[slot] > seen5[slot]) {
+                    fingerprints5[slot] = other.fingerprints5[slot];
+                    votes5[slot] = other.votes5[slot];
+                    seen5[slot] = other.seen5[slot];
+                    mines5[slot] = other.mines5[slot];
+                }
+            }
+            samples += other.samples;
+        }
+    }
+}
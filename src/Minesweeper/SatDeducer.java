@@ -0,0 +1,210 @@
+package Minesweeper;
+
+/**
+ * Deduction backend that finds cells the local rules can't, by reasoning over every clue at once.
+ * Each cell is a variable (true = mine). Every reveal and every mark is added to one incremental SatSolver
+ * as it happens: a revealed clue becomes an exactly-k constraint over its neighbors, and revealed cells,
+ * marked mines and marked safe cells become unit clauses. A cell deduce() proves becomes a unit clause
+ * right away, so later queries in the same call use it, and the agent doesn't mark it here again. Nothing is ever taken back, so the solver and
+ * everything it has learned last the whole game.
+ * A cell is proven by asking whether the opposite value is still possible, as an assumption. Each answer
+ * that is possible comes with a whole assignment, and any other cell that assignment gives the other value
+ * than the first one did can't be proven either, so most cells are settled without a query of their own.
+ * Each query has a conflict budget and a time box, and each call has a time box overall.
+ * One per game. Not thread-safe.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class SatDeducer implements Deducer {
+    public static final long DEFAULT_CONFLICT_BUDGET = 10000;
+    public static final long DEFAULT_QUERY_NANOS = 2000000L;    // 2 ms.
+    public static final long DEFAULT_MOVE_NANOS = 20000000L;    // 20 ms.
+
+    private static final int[] NO_ASSUMPTIONS = new int[0];
+
+    private int dim;
+    private SatSolver solver;
+    private long conflictBudget;
+    private long queryNanos;
+    private long moveNanos;
+
+    // Scratch.
+    private int[] neighbors = new int[8];
+    private boolean[] modelValues;
+    private boolean[] open;         // Candidates that might still be provable.
+    private int[] assumption = new int[1];
+
+    /**
+     * Constructor method for a backend with the default budgets.
+     * @param dim   : The board dimension.
+     */
+    public SatDeducer(int dim) {
+        this(dim, DEFAULT_CONFLICT_BUDGET, DEFAULT_QUERY_NANOS, DEFAULT_MOVE_NANOS);
+    }
+
+    /**
+     * Constructor method for a backend.
+     * @param dim   : The board dimension.
+     * @param conflictBudget    : The most conflicts one query may spend.
+     * @param queryNanos    : The most time one query may take, in nanoseconds.
+     * @param moveNanos : The most time one call to deduce() may take, in nanoseconds.
+     */
+    public SatDeducer(int dim, long conflictBudget, long queryNanos, long moveNanos) {
+        this.dim = dim;
+        this.solver = new SatSolver(dim * dim);
+        this.conflictBudget = conflictBudget;
+        this.queryNanos = queryNanos;
+        this.moveNanos = moveNanos;
+    }
+
+    /**
+     * Adds a revealed cell: it is a mine or not, and a clue fixes how many of its neighbors are.
+     * @param row
+     * @param col
+     * @param clue  : The cell's clue, or -1 for a mine.
+     */
+    @Override
+    public void reveal(int row, int col, int clue) {
+        solver.addClause(SatSolver.literal(row * dim + col, clue < 0));
+        if(clue < 0) {
+            return;
+        }
+
+        // Expand from center.
+        int count = 0;
+        int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+        int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+        int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+        int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+        for(int current_row = start_row; current_row <= end_row; current_row++) {
+            for(int current_col = start_col; current_col <= end_col; current_col++) {
+                if(!(current_row == row && current_col == col)) {
+                    neighbors[count++] = current_row * dim + current_col;
+                }
+            }
+        }
+
+        // At most clue mines: every clue + 1 neighbors hold a safe cell.
+        // At least clue mines: every count - clue + 1 neighbors hold a mine.
+        addSubsets(count, clue + 1, false);
+        addSubsets(count, count - clue + 1, true);
+    }
+
+    /**
+     * Adds a cell the agent marked.
+     * @param row
+     * @param col
+     * @param mine  : True if marked a mine, false if marked safe.
+     */
+    @Override
+    public void mark(int row, int col, boolean mine) {
+        solver.addClause(SatSolver.literal(row * dim + col, mine));
+    }
+
+    /**
+     * Works out which candidates every assignment agrees on.
+     * @param cells : The candidates, as row * dim + col.
+     * @param count : The number of candidates.
+     * @param verdicts  : Filled in per candidate: 1 if proven safe, -1 if proven a mine, 0 otherwise.
+     * @return The number of candidates proven.
+     */
+    @Override
+    public int deduce(int[] cells, int count, int[] verdicts) {
+        long moveDeadline = System.nanoTime() + moveNanos;
+        if(modelValues == null) {
+            modelValues = new boolean[dim * dim];
+            open = new boolean[dim * dim];
+        }
+        for(int i = 0; i < count; i++) {
+            verdicts[i] = 0;
+        }
+        if(solver.solve(NO_ASSUMPTIONS, conflictBudget, Math.min(moveDeadline, System.nanoTime() + queryNanos)) != SatSolver.SAT) {
+            return 0;   // Out of budget, or the knowledge is contradictory; prove nothing.
+        }
+        for(int i = 0; i < count; i++) {
+            modelValues[cells[i]] = solver.getModelValue(cells[i]);
+            open[cells[i]] = true;
+        }
+
+        int proven = 0;
+        for(int i = 0; i < count; i++) {
+            int cell = cells[i];
+            if(!open[cell]) {
+                continue;
+            }
+            open[cell] = false;
+
+            int fixed = solver.getFixedValue(cell);
+            if(fixed != 0) {
+                verdicts[i] = -fixed;
+                proven++;
+                continue;
+            }
+            if(System.nanoTime() - moveDeadline > 0) {
+                break;
+            }
+
+            assumption[0] = SatSolver.literal(cell, !modelValues[cell]);
+            int result = solver.solve(assumption, conflictBudget, Math.min(moveDeadline, System.nanoTime() + queryNanos));
+            if(result == SatSolver.UNSAT) {
+                verdicts[i] = modelValues[cell] ? -1 : 1;
+                solver.addClause(SatSolver.literal(cell, modelValues[cell]));
+                proven++;
+            } else if(result == SatSolver.SAT) {
+                for(int j = i + 1; j < count; j++) {
+                    if(open[cells[j]] && solver.getModelValue(cells[j]) != modelValues[cells[j]]) {
+                        open[cells[j]] = false;
+                    }
+                }
+            }
+        }
+        for(int i = 0; i < count; i++) {
+            open[cells[i]] = false;
+        }
+        return proven;
+    }
+
+    /**
+     * Getter method for the number of clauses the solver has learned and kept.
+     * @return The number of learned clauses.
+     */
+    public int getNumLearned() {
+        return solver.getNumLearned();
+    }
+
+    /**
+     * Helper method to add a clause for every subset of a given size of the current neighbors.
+     * @param count : The number of neighbors.
+     * @param size  : The subset size; nothing is added if it is over count.
+     * @param mine  : The value each clause needs at least one of its cells to have.
+     */
+    private void addSubsets(int count, int size, boolean mine) {
+        if(size > count || size < 1) {
+            return;
+        }
+
+        int[] picks = new int[size];
+        int[] clause = new int[size];
+        for(int i = 0; i < size; i++) {
+            picks[i] = i;
+        }
+        while(true) {
+            for(int i = 0; i < size; i++) {
+                clause[i] = SatSolver.literal(neighbors[picks[i]], mine);
+            }
+            solver.addClause(clause);
+
+            // Next subset, in lexicographic order.
+            int i = size - 1;
+            while(i >= 0 && picks[i] == count - size + i) {
+                i--;
+            }
+            if(i < 0) {
+                return;
+            }
+            picks[i]++;
+            for(int j = i + 1; j < size; j++) {
+                picks[j] = picks[j - 1] + 1;
+            }
+        }
+    }
+}
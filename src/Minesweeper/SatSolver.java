@@ -0,0 +1,594 @@
+package Minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Small incremental CDCL SAT solver: two watched literals, first-UIP clause learning, VSIDS branching
+ * with saved phases, Luby restarts and activity-based clause deletion.
+ * The solver is long-lived: clauses can be added between calls, learned clauses are kept from one call
+ * to the next, and each call can assume some literals without adding them for good.
+ * Every call is bounded by a conflict budget and a deadline, and answers UNKNOWN if it runs out of either.
+ * Variables are numbered from 0, and the literal of variable v is 2v (true) or 2v + 1 (false).
+ * Not thread-safe.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class SatSolver {
+    public static final int UNSAT = 0;
+    public static final int SAT = 1;
+    public static final int UNKNOWN = -1;
+
+    private static final int RESTART_UNIT = 64;         // Conflicts per Luby unit.
+    private static final int MIN_LEARNED = 2000;        // Learned clauses kept before the first deletion.
+    private static final double VAR_DECAY = 0.95;
+    private static final double CLAUSE_DECAY = 0.999;
+
+    private int numVars;
+    private boolean ok = true;      // False once the clauses themselves are contradictory.
+
+    // Assignment, per variable.
+    private byte[] values;          // 1 true, -1 false, 0 unassigned.
+    private int[] levels;
+    private Clause[] reasons;       // Clause that implied the variable, or null for decisions and assumptions.
+    private boolean[] phases;       // Last value, reused when branching.
+    private byte[] model;           // Values of the last satisfying assignment.
+
+    private int[] trail;
+    private int trailSize;
+    private int[] trailLimits;      // Trail size at the start of each decision level.
+    private int decisionLevel;
+    private int propagateHead;
+
+    // Watch lists, per literal.
+    private Clause[][] watches;
+    private int[] watchCounts;
+
+    private List<Clause> learned = new ArrayList<Clause>();
+    private int maxLearned = MIN_LEARNED;
+
+    // Branching.
+    private double[] activity;
+    private double varIncrement = 1;
+    private double clauseIncrement = 1;
+    private VarHeap order;
+
+    // Scratch for conflict analysis.
+    private boolean[] seen;
+    private int[] learnt;
+
+    /**
+     * Constructor method for a solver with no clauses.
+     * @param numVars   : The number of variables.
+     */
+    public SatSolver(int numVars) {
+        this.numVars = numVars;
+        values = new byte[numVars];
+        levels = new int[numVars];
+        reasons = new Clause[numVars];
+        phases = new boolean[numVars];
+        model = new byte[numVars];
+        trail = new int[numVars];
+        trailLimits = new int[numVars + 1];
+        watches = new Clause[2 * numVars][];
+        watchCounts = new int[2 * numVars];
+        for(int lit = 0; lit < watches.length; lit++) {
+            watches[lit] = new Clause[4];
+        }
+        activity = new double[numVars];
+        seen = new boolean[numVars];
+        learnt = new int[numVars];
+        order = new VarHeap();
+        for(int v = 0; v < numVars; v++) {
+            order.insert(v);
+        }
+    }
+
+    /**
+     * Helper method to get a variable's literal.
+     * @param var   : The variable.
+     * @param value : The value the literal asserts.
+     * @return The literal.
+     */
+    public static int literal(int var, boolean value) {
+        return 2 * var + (value ? 0 : 1);
+    }
+
+    /**
+     * Adds a clause for good. Must not be called during solve().
+     * Literals already false for good are dropped, and a clause already true for good is skipped.
+     * @param lits  : The clause's literals; the array is not kept.
+     * @return false if the clauses are now contradictory.
+     */
+    public boolean addClause(int... lits) {
+        if(!ok) {
+            return false;
+        }
+
+        int[] clause = lits.clone();
+        Arrays.sort(clause);
+        int size = 0;
+        for(int i = 0; i < clause.length; i++) {
+            int value = litValue(clause[i]);
+            if(value == 1 || (i > 0 && clause[i] == (clause[i - 1] ^ 1))) {
+                return true;    // Satisfied, or a tautology.
+            }
+            if(value == 0 && (size == 0 || clause[size - 1] != clause[i])) {
+                clause[size++] = clause[i];
+            }
+        }
+
+        if(size == 0) {
+            ok = false;
+        } else if(size == 1) {
+            enqueue(clause[0], null);
+            ok = propagate() == null;
+        } else {
+            attach(new Clause(Arrays.copyOf(clause, size), false));
+        }
+        return ok;
+    }
+
+    /**
+     * Looks for an assignment that satisfies every clause and every assumption.
+     * @param assumptions   : Literals to hold for this call only.
+     * @param conflictBudget    : The most conflicts to spend.
+     * @param deadline  : System.nanoTime() to give up at.
+     * @return SAT (see getModelValue()), UNSAT (no assignment, under these assumptions), or UNKNOWN if out of budget.
+     */
+    public int solve(int[] assumptions, long conflictBudget, long deadline) {
+        if(!ok) {
+            return UNSAT;
+        }
+        if(learned.size() - trailSize >= maxLearned) {
+            reduceLearned();
+        }
+
+        long conflicts = 0;
+        int restart = 0;
+        long restartLimit = RESTART_UNIT * luby(restart);
+        long conflictsSinceRestart = 0;
+        while(true) {
+            Clause conflict = propagate();
+            if(conflict != null) {
+                conflicts++;
+                conflictsSinceRestart++;
+                if(decisionLevel == 0) {
+                    ok = false;
+                    return UNSAT;
+                }
+                learn(conflict);
+                varIncrement /= VAR_DECAY;
+                clauseIncrement /= CLAUSE_DECAY;
+
+                if(conflicts >= conflictBudget || System.nanoTime() - deadline > 0) {
+                    cancelUntil(0);
+                    return UNKNOWN;
+                }
+                if(conflictsSinceRestart >= restartLimit) {
+                    cancelUntil(0);
+                    restartLimit = RESTART_UNIT * luby(++restart);
+                    conflictsSinceRestart = 0;
+                }
+                continue;
+            }
+
+            // Assumptions are decided first, one per level.
+            int next = -1;
+            while(decisionLevel < assumptions.length) {
+                int assumption = assumptions[decisionLevel];
+                int value = litValue(assumption);
+                if(value == 1) {
+                    newDecisionLevel();     // Already holds; keep the levels lined up with the assumptions.
+                } else if(value == -1) {
+                    cancelUntil(0);
+                    return UNSAT;
+                } else {
+                    next = assumption;
+                    break;
+                }
+            }
+
+            if(next == -1) {
+                next = pickBranch();
+                if(next == -1) {
+                    System.arraycopy(values, 0, model, 0, numVars);
+                    cancelUntil(0);
+                    return SAT;
+                }
+            }
+            newDecisionLevel();
+            enqueue(next, null);
+        }
+    }
+
+    /**
+     * Getter method for a variable's value in the last satisfying assignment.
+     * @param var   : The variable.
+     * @return The value.
+     */
+    public boolean getModelValue(int var) {
+        return model[var] == 1;
+    }
+
+    /**
+     * Getter method for a variable's value, if the clauses alone fix it.
+     * @param var   : The variable.
+     * @return 1 if true for good, -1 if false for good, 0 otherwise.
+     */
+    public int getFixedValue(int var) {
+        return levels[var] == 0 ? values[var] : 0;
+    }
+
+    /**
+     * Getter method for whether the clauses are still satisfiable as far as the solver knows.
+     * @return false once a contradiction was found.
+     */
+    public boolean isOk() {
+        return ok;
+    }
+
+    /**
+     * Getter method for the number of learned clauses held.
+     * @return The number of learned clauses.
+     */
+    public int getNumLearned() {
+        return learned.size();
+    }
+
+    /**
+     * Helper method to get a literal's value.
+     * @param lit   : The literal.
+     * @return 1 if true, -1 if false, 0 if unassigned.
+     */
+    private int litValue(int lit) {
+        int value = values[lit >> 1];
+        return (lit & 1) == 0 ? value : -value;
+    }
+
+    /**
+     * Helper method to make a literal true.
+     * @param lit   : The literal.
+     * @param reason    : The clause that implies it, or null.
+     */
+    private void enqueue(int lit, Clause reason) {
+        int var = lit >> 1;
+        values[var] = (byte)((lit & 1) == 0 ? 1 : -1);
+        levels[var] = decisionLevel;
+        reasons[var] = reason;
+        trail[trailSize++] = lit;
+    }
+
+    private void newDecisionLevel() {
+        if(decisionLevel == trailLimits.length) {
+            trailLimits = Arrays.copyOf(trailLimits, decisionLevel * 2);
+        }
+        trailLimits[decisionLevel++] = trailSize;
+    }
+
+    /**
+     * Helper method to undo every assignment above a level.
+     * @param level : The level to go back to.
+     */
+    private void cancelUntil(int level) {
+        if(decisionLevel <= level) {
+            return;
+        }
+        for(int i = trailSize - 1; i >= trailLimits[level]; i--) {
+            int var = trail[i] >> 1;
+            phases[var] = values[var] == 1;
+            values[var] = 0;
+            reasons[var] = null;
+            if(!order.contains(var)) {
+                order.insert(var);
+            }
+        }
+        trailSize = trailLimits[level];
+        propagateHead = trailSize;
+        decisionLevel = level;
+    }
+
+    /**
+     * Helper method to run unit propagation to a fixpoint.
+     * A clause's first two literals are its watches; a clause is only looked at when one of them becomes false.
+     * @return The clause left with every literal false, or null if there is none.
+     */
+    private Clause propagate() {
+        while(propagateHead < trailSize) {
+            int falseLit = trail[propagateHead++] ^ 1;
+            Clause[] list = watches[falseLit];
+            int count = watchCounts[falseLit];
+            int kept = 0;
+            int i = 0;
+            while(i < count) {
+                Clause clause = list[i++];
+                if(clause.deleted) {
+                    continue;
+                }
+                int[] lits = clause.lits;
+                if(lits[0] == falseLit) {
+                    lits[0] = lits[1];
+                    lits[1] = falseLit;
+                }
+                if(litValue(lits[0]) == 1) {
+                    list[kept++] = clause;
+                    continue;
+                }
+
+                // Look for a new literal to watch.
+                boolean moved = false;
+                for(int k = 2; k < lits.length; k++) {
+                    if(litValue(lits[k]) != -1) {
+                        lits[1] = lits[k];
+                        lits[k] = falseLit;
+                        watch(lits[1], clause);
+                        moved = true;
+                        break;
+                    }
+                }
+                if(moved) {
+                    continue;
+                }
+
+                list[kept++] = clause;
+                if(litValue(lits[0]) == -1) {
+                    while(i < count) {
+                        list[kept++] = list[i++];
+                    }
+                    watchCounts[falseLit] = kept;
+                    propagateHead = trailSize;
+                    return clause;
+                }
+                enqueue(lits[0], clause);
+            }
+            watchCounts[falseLit] = kept;
+        }
+        return null;
+    }
+
+    /**
+     * Helper method to learn the first-UIP clause of a conflict, backjump, and assert it.
+     * @param conflict  : The clause with every literal false.
+     */
+    private void learn(Clause conflict) {
+        int size = 1;           // learnt[0] is filled in with the asserting literal at the end.
+        int pathCount = 0;
+        int lit = -1;
+        int index = trailSize - 1;
+        Clause clause = conflict;
+        do {
+            if(clause.learned) {
+                bumpClause(clause);
+            }
+            int[] lits = clause.lits;
+            for(int j = lit == -1 ? 0 : 1; j < lits.length; j++) {
+                int var = lits[j] >> 1;
+                if(!seen[var] && levels[var] > 0) {
+                    seen[var] = true;
+                    bumpVar(var);
+                    if(levels[var] >= decisionLevel) {
+                        pathCount++;
+                    } else {
+                        learnt[size++] = lits[j];
+                    }
+                }
+            }
+
+            // The next literal of this level on the trail that took part.
+            while(!seen[trail[index] >> 1]) {
+                index--;
+            }
+            lit = trail[index--];
+            clause = reasons[lit >> 1];
+            seen[lit >> 1] = false;
+            pathCount--;
+        } while(pathCount > 0);
+        learnt[0] = lit ^ 1;
+
+        // Backjump to the second highest level in the clause, which goes in the second watch.
+        int backLevel = 0;
+        for(int j = 1; j < size; j++) {
+            seen[learnt[j] >> 1] = false;
+            if(levels[learnt[j] >> 1] > backLevel) {
+                backLevel = levels[learnt[j] >> 1];
+                int swap = learnt[1];
+                learnt[1] = learnt[j];
+                learnt[j] = swap;
+            }
+        }
+
+        cancelUntil(backLevel);
+        if(size == 1) {
+            enqueue(learnt[0], null);
+        } else {
+            Clause learnedClause = new Clause(Arrays.copyOf(learnt, size), true);
+            attach(learnedClause);
+            learned.add(learnedClause);
+            bumpClause(learnedClause);
+            enqueue(learnt[0], learnedClause);
+        }
+    }
+
+    /**
+     * Helper method to pick the unassigned variable with the highest activity, with its saved phase.
+     * @return The literal to decide, or -1 if every variable is assigned.
+     */
+    private int pickBranch() {
+        while(!order.isEmpty()) {
+            int var = order.removeMax();
+            if(values[var] == 0) {
+                return literal(var, phases[var]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to delete the less active half of the learned clauses. Only called at level 0.
+     * Clauses of two literals, and clauses that are the reason for an assignment, are kept.
+     */
+    private void reduceLearned() {
+        learned.sort((a, b) -> Double.compare(a.activity, b.activity));
+        List<Clause> kept = new ArrayList<Clause>(learned.size());
+        int toDelete = learned.size() / 2;
+        for(Clause clause : learned) {
+            boolean locked = reasons[clause.lits[0] >> 1] == clause;
+            if(toDelete > 0 && clause.lits.length > 2 && !locked) {
+                clause.deleted = true;      // Watch lists drop it lazily.
+                toDelete--;
+            } else {
+                kept.add(clause);
+            }
+        }
+        learned = kept;
+        maxLearned += maxLearned / 10;
+    }
+
+    private void attach(Clause clause) {
+        watch(clause.lits[0], clause);
+        watch(clause.lits[1], clause);
+    }
+
+    private void watch(int lit, Clause clause) {
+        if(watchCounts[lit] == watches[lit].length) {
+            watches[lit] = Arrays.copyOf(watches[lit], watchCounts[lit] * 2);
+        }
+        watches[lit][watchCounts[lit]++] = clause;
+    }
+
+    private void bumpVar(int var) {
+        activity[var] += varIncrement;
+        if(activity[var] > 1e100) {
+            for(int v = 0; v < numVars; v++) {
+                activity[v] *= 1e-100;
+            }
+            varIncrement *= 1e-100;
+        }
+        if(order.contains(var)) {
+            order.increased(var);
+        }
+    }
+
+    private void bumpClause(Clause clause) {
+        clause.activity += clauseIncrement;
+        if(clause.activity > 1e20) {
+            for(Clause other : learned) {
+                other.activity *= 1e-20;
+            }
+            clauseIncrement *= 1e-20;
+        }
+    }
+
+    /**
+     * Helper method for the Luby restart sequence 1, 1, 2, 1, 1, 2, 4, ...
+     * @param i : The restart number, from 0.
+     * @return The i-th term.
+     */
+    private static long luby(int i) {
+        int size = 1;
+        int seq = 0;
+        while(size < i + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        while(size - 1 != i) {
+            size = (size - 1) >> 1;
+            seq--;
+            i = i % size;
+        }
+        return 1L << seq;
+    }
+
+    /**
+     * A clause; its first two literals are the watched ones.
+     */
+    private static class Clause {
+        private int[] lits;
+        private boolean learned;
+        private boolean deleted;
+        private double activity;
+
+        Clause(int[] lits, boolean learned) {
+            this.lits = lits;
+            this.learned = learned;
+        }
+    }
+
+    /**
+     * Binary max-heap of variables by activity.
+     */
+    private class VarHeap {
+        private int[] heap = new int[numVars];
+        private int[] slots = new int[numVars];    // Slot of each variable, or -1 if not in the heap.
+        private int size;
+
+        VarHeap() {
+            Arrays.fill(slots, -1);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int var) {
+            return slots[var] >= 0;
+        }
+
+        void insert(int var) {
+            heap[size] = var;
+            slots[var] = size;
+            siftUp(size++);
+        }
+
+        void increased(int var) {
+            siftUp(slots[var]);
+        }
+
+        int removeMax() {
+            int top = heap[0];
+            slots[top] = -1;
+            if(--size > 0) {
+                heap[0] = heap[size];
+                slots[heap[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int slot) {
+            int var = heap[slot];
+            while(slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if(activity[heap[parent]] >= activity[var]) {
+                    break;
+                }
+                heap[slot] = heap[parent];
+                slots[heap[slot]] = slot;
+                slot = parent;
+            }
+            heap[slot] = var;
+            slots[var] = slot;
+        }
+
+        private void siftDown(int slot) {
+            int var = heap[slot];
+            while(true) {
+                int child = 2 * slot + 1;
+                if(child >= size) {
+                    break;
+                }
+                if(child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {
+                    child++;
+                }
+                if(activity[heap[child]] <= activity[var]) {
+                    break;
+                }
+                heap[slot] = heap[child];
+                slots[heap[slot]] = slot;
+                slot = child;
+            }
+            heap[slot] = var;
+            slots[var] = slot;
+        }
+    }
+}
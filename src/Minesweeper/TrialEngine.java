@@ -0,0 +1,145 @@
+package Minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs many trials of both agents in parallel.
+ * Every trial builds its own Environment, BasicAgent and ModifiedAgent from its own TrialRandom,
+ * and writes its scores to its own slot of the result, so no trial shares state with another.
+ * How the agents play comes from the backends and options the engine is built with.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class TrialEngine {
+    private ExecutorService executor;
+    private Supplier<Deducer> deducers;     // Builds the basic agent's backend for each trial, or null.
+    private AgentOptions options;           // Options every advanced agent plays by.
+
+    /**
+     * Constructor method for a trial engine with the heuristic agents.
+     * @param executor  : The executor to run trials on (owned by the caller).
+     */
+    public TrialEngine(ExecutorService executor) {
+        this(executor, null, new AgentOptions());
+    }
+
+    /**
+     * Constructor method for a trial engine.
+     * A backend lasts the whole game, so each trial gets a new one. The options are only read,
+     * so every trial shares them; trials already run in parallel, so engines without a pool
+     * of their own are usually the better fit.
+     * @param executor  : The executor to run trials on (owned by the caller).
+     * @param deducers  : Builds the basic agent's deduction backend, or null for the local rules alone.
+     * @param options   : The advanced agent's options. A mine count it is told should be clamped to the board.
+     */
+    public TrialEngine(ExecutorService executor, Supplier<Deducer> deducers, AgentOptions options) {
+        this.executor = executor;
+        this.deducers = deducers;
+        this.options = options;
+    }
+
+    /**
+     * Helper method to create a fixed pool for trials.
+     * @param threads   : Number of threads, or 0 for one per core.
+     * @return The pool; the caller should shut it down.
+     */
+    public static ExecutorService newFixedPool(int threads) {
+        if(threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Runs a batch of trials and waits for all of them.
+     * With a seed, trial i always plays the same board and guesses, so the averages
+     * are the same for any executor or thread count.
+     * @param trials    : Number of trials.
+     * @param dim   : The board dimension.
+     * @param numMines  : The number of mines on each board.
+     * @param seed  : The seed for the batch, or null for unseeded trials.
+     * @return The per-trial scores.
+     * @throws InterruptedException If interrupted while waiting for trials.
+     * @throws ExecutionException   If a trial threw an exception.
+     */
+    public TrialResult run(int trials, int dim, int numMines, Long seed) throws InterruptedException, ExecutionException {
+        return run(trials, dim, numMines, seed, true, true);
+    }
+
+    /**
+     * Runs a batch of trials for some of the agents and waits for all of them.
+     * An agent that is not run scores 0 in every trial.
+     * @param trials    : Number of trials.
+     * @param dim   : The board dimension.
+     * @param numMines  : The number of mines on each board.
+     * @param seed  : The seed for the batch, or null for unseeded trials.
+     * @param runBasic  : True to run the basic agent.
+     * @param runAdvanced   : True to run the advanced agent.
+     * @return The per-trial scores.
+     * @throws InterruptedException If interrupted while waiting for trials.
+     * @throws ExecutionException   If a trial threw an exception.
+     */
+    public TrialResult run(int trials, int dim, int numMines, Long seed, boolean runBasic, boolean runAdvanced)
+            throws InterruptedException, ExecutionException {
+        TrialResult result = new TrialResult(trials);
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(trials);
+        for(int i = 0; i < trials; i++) {
+            final int trial = i;
+            tasks.add(() -> {
+                runTrial(trial, dim, numMines, seed, runBasic, runAdvanced, result);
+                return null;
+            });
+        }
+
+        // invokeAll waits for every trial, which also publishes every slot written by the trials.
+        for(Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs one trial of both agents on a fresh board, with this engine's backends and options.
+     * @param trial : The trial number.
+     * @param dim   : The board dimension.
+     * @param numMines  : The number of mines.
+     * @param seed  : The seed for the batch, or null for unseeded trials.
+     * @param runBasic  : True to run the basic agent.
+     * @param runAdvanced   : True to run the advanced agent.
+     * @param result    : Where to record the trial's scores.
+     */
+    private void runTrial(int trial, int dim, int numMines, Long seed, boolean runBasic, boolean runAdvanced,
+                          TrialResult result) {
+        TrialRandom trialRandom = seed == null ? new TrialRandom() : TrialRandom.forTrial(seed, trial);
+        Environment env = new Environment(dim, numMines, trialRandom.boardRandom());
+
+        double basicScore = 0;
+        if(runBasic) {
+            BasicAgent basicAgent = new BasicAgent(env.getBoardView(), deducers == null ? null : deducers.get());
+            AgentRunner.runBasic(basicAgent, trialRandom.basicRandom(), false);
+            basicScore = (double)basicAgent.calcScore() / (double)env.getNum_mines();
+        }
+
+        double advancedScore = 0;
+        if(runAdvanced) {
+            ModifiedAgent advancedAgent = new ModifiedAgent(env.getBoardView(), options);
+            if(options.getMoveBudget() > 0) {
+                result.recordTiers(trial, AgentRunner.runAdvanced(advancedAgent, trialRandom.advancedRandom(), false,
+                                                                  options.getMoveBudget()));
+            } else {
+                AgentRunner.runAdvanced(advancedAgent, trialRandom.advancedRandom(), false);
+            }
+            advancedScore = (double)advancedAgent.calcScore() / (double)env.getNum_mines();
+        }
+
+        result.record(trial, basicScore, advancedScore);
+    }
+}
@@ -0,0 +1,82 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Holds the random streams for one trial: one for scattering mines and one per agent.
+ * A trial built from a seed always hands out the same streams, no matter which thread uses it,
+ * so a (seed, dim, mines) tuple regenerates the same board and the same guesses.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class TrialRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;   // Same increment SplittableRandom uses.
+
+    private long seed;
+    private long boardSeed;
+    private long basicSeed;
+    private long advancedSeed;
+
+    /**
+     * Constructor method for an unseeded trial.
+     */
+    public TrialRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructor method for a seeded trial.
+     * @param seed  : The seed for the trial.
+     */
+    public TrialRandom(long seed) {
+        this.seed = seed;
+
+        // Split one stream per consumer, in a fixed order.
+        SplittableRandom root = new SplittableRandom(seed);
+        this.boardSeed = root.split().nextLong();
+        this.basicSeed = root.split().nextLong();
+        this.advancedSeed = root.split().nextLong();
+    }
+
+    /**
+     * Derives the streams for trial number i of a seeded batch of trials.
+     * Trial i gets the same streams regardless of the order trials run in.
+     * @param seed  : The seed for the batch.
+     * @param trial : The trial number.
+     * @return The trial's streams.
+     */
+    public static TrialRandom forTrial(long seed, int trial) {
+        return new TrialRandom(new SplittableRandom(seed + (trial * GOLDEN_GAMMA)).nextLong());
+    }
+
+    /**
+     * Getter method for the trial's seed.
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * A fresh copy of the stream for scattering mines.
+     * @return The board's stream.
+     */
+    public SplittableRandom boardRandom() {
+        return new SplittableRandom(boardSeed);
+    }
+
+    /**
+     * A fresh copy of the basic agent's stream for random guesses.
+     * @return The basic agent's stream.
+     */
+    public SplittableRandom basicRandom() {
+        return new SplittableRandom(basicSeed);
+    }
+
+    /**
+     * A fresh copy of the advanced agent's stream for random guesses.
+     * @return The advanced agent's stream.
+     */
+    public SplittableRandom advancedRandom() {
+        return new SplittableRandom(advancedSeed);
+    }
+}
@@ -0,0 +1,95 @@
+package Minesweeper;
+
+/**
+ * Per-trial scores from a TrialEngine batch.
+ * Each trial writes only its own slot, so recording needs no locks,
+ * and the averages are summed in trial order so they don't depend on thread scheduling.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class TrialResult {
+    private double[] basicScores;
+    private double[] advancedScores;
+    private long[][] tierMoves;     // Per trial, moves each tier picked, or null if not recorded.
+
+    /**
+     * Constructor method for an empty result.
+     * @param trials    : Number of trials.
+     */
+    public TrialResult(int trials) {
+        this.basicScores = new double[trials];
+        this.advancedScores = new double[trials];
+        this.tierMoves = new long[trials][];
+    }
+
+    /**
+     * Records the scores of one trial.
+     * @param trial : The trial number.
+     * @param basicScore    : Basic agent's mines found / total mines.
+     * @param advancedScore : Advanced agent's mines found / total mines.
+     */
+    public void record(int trial, double basicScore, double advancedScore) {
+        basicScores[trial] = basicScore;
+        advancedScores[trial] = advancedScore;
+    }
+
+    /**
+     * Records how many of one trial's moves each tier picked (see AgentRunner.runAdvanced()).
+     * @param trial : The trial number.
+     * @param moves : The number of moves each tier picked, indexed by tier.
+     */
+    public void recordTiers(int trial, long[] moves) {
+        tierMoves[trial] = moves;
+    }
+
+    /**
+     * Total number of moves a tier picked, over every trial that recorded its tiers.
+     * @param tier  : The tier (see Move).
+     * @return The number of moves.
+     */
+    public long getTierMoves(int tier) {
+        long total = 0;
+        for(int i = 0; i < tierMoves.length; i++) {
+            if(tierMoves[i] != null) {
+                total += tierMoves[i][tier];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Getter method for the number of trials.
+     * @return Number of trials.
+     */
+    public int getTrials() {
+        return basicScores.length;
+    }
+
+    /**
+     * Average score of the basic agent, in percentage.
+     * @return The basic agent's average score.
+     */
+    public double getBasicAverage() {
+        return average(basicScores);
+    }
+
+    /**
+     * Average score of the advanced agent, in percentage.
+     * @return The advanced agent's average score.
+     */
+    public double getAdvancedAverage() {
+        return average(advancedScores);
+    }
+
+    /**
+     * Helper method to average scores in trial order.
+     * @param scores    : The scores.
+     * @return The average, in percentage.
+     */
+    private static double average(double[] scores) {
+        double sum = 0;
+        for(int i = 0; i < scores.length; i++) {
+            sum += scores[i];
+        }
+        return (sum / (double)scores.length) * 100;
+    }
+}
@@ -0,0 +1,94 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Set of board positions the agent can still guess, i.e. not revealed and not flagged.
+ * Positions are packed as row * dim + col and kept in a dense array, with each position's slot
+ * in a second array. Removing swaps the last position into the hole, so removes and uniform
+ * random picks are O(1) however many positions are left.
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class UnrevealedSet {
+    private int dim;
+    private int[] cells;        // Positions left, in no particular order.
+    private int[] slots;        // Slot of each position in cells, or -1 if removed.
+    private int size;
+
+    /**
+     * Constructor method for a set that starts with every position on the board.
+     * @param dim   : The board dimension.
+     */
+    public UnrevealedSet(int dim) {
+        this.dim = dim;
+        this.size = dim * dim;
+        this.cells = new int[size];
+        this.slots = new int[size];
+
+        for(int cell = 0; cell < size; cell++) {
+            cells[cell] = cell;
+            slots[cell] = cell;
+        }
+    }
+
+    /**
+     * Removes a position, if it is still in the set.
+     * @param row   : The row of the position.
+     * @param col   : The col of the position.
+     */
+    public void remove(int row, int col) {
+        remove(row * dim + col);
+    }
+
+    /**
+     * Removes a packed position, if it is still in the set.
+     * @param cell  : The position, as row * dim + col.
+     */
+    public void remove(int cell) {
+        int slot = slots[cell];
+        if(slot < 0) {
+            return;
+        }
+
+        // Move the last position into the hole.
+        int last = cells[--size];
+        cells[slot] = last;
+        slots[last] = slot;
+        slots[cell] = -1;
+    }
+
+    /**
+     * Checks if a position is still in the set.
+     * @param row   : The row of the position.
+     * @param col   : The col of the position.
+     * @return true if the position is in the set.
+     */
+    public boolean contains(int row, int col) {
+        return slots[row * dim + col] >= 0;
+    }
+
+    /**
+     * Picks a position uniformly at random, without removing it.
+     * @param rand  : The stream for random picks.
+     * @return The position, as row * dim + col, or -1 if the set is empty.
+     */
+    public int random(SplittableRandom rand) {
+        return size == 0 ? -1 : cells[rand.nextInt(size)];
+    }
+
+    /**
+     * Getter method for the number of positions left.
+     * @return The number of positions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the set is empty.
+     * @return true if there are no positions left.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,76 @@
+package Minesweeper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * [user-023] Checks BeliefPropagation against brute force. On a component whose factor graph is a tree,
+ * belief propagation is exact, and with a prior of 0.5 every fitting assignment weighs the same, so each
+ * cell must come out at its share of them. Components with loops are only approximated and are skipped;
+ * the check prints how many. Only about one component in ten is a tree, so it looks at POSITION_SCALE
+ * times as many positions as it is asked for.
+ * Usage: BeliefPropagationCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class BeliefPropagationCheck {
+    private static final int MAX_ITERATIONS = 1000;
+    private static final double TOLERANCE = 1e-12;
+    private static final double ERROR = 1e-6;
+    private static final int POSITION_SCALE = 10;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions, before scaling.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-023] BeliefPropagation");
+        BeliefPropagation engine = new BeliefPropagation(null, MAX_ITERATIONS, TOLERANCE, BeliefPropagation.DEFAULT_DAMPING);
+        SplittableRandom rand = new SplittableRandom(seed);
+        int trees = 0;
+        int loopy = 0;
+        for(int p = 0; p < positions * POSITION_SCALE; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            List<Component> components = position.getComponents();
+            for(int k = 0; k < components.size(); k++) {
+                Component component = components.get(k);
+                if(!isTree(component)) {
+                    loopy++;
+                    continue;
+                }
+                trees++;
+                double[] beliefs = engine.run(Collections.singletonList(component), 0.5)[0];
+                for(int i = 0; i < component.size(); i++) {
+                    int cell = component.getCell(i);
+                    tally.checkClose(beliefs[i], position.getPlain(cell), ERROR,
+                                     "position " + p + ", component " + k + ", cell " + cell);
+                }
+            }
+        }
+        System.out.println("[user-023] BeliefPropagation: " + trees + " tree components checked, " + loopy + " with loops skipped");
+        return tally.report();
+    }
+
+    /**
+     * Helper method to check if a component's factor graph has no loops.
+     * A component is connected, so it is a tree exactly when it has one edge fewer than cells and clues together.
+     * @param component : The component.
+     * @return true if the factor graph is a tree.
+     */
+    private static boolean isTree(Component component) {
+        int numConstraints = component.getNumConstraints();
+        return component.getConstraintStart(numConstraints) == component.size() + numConstraints - 1;
+    }
+}
@@ -0,0 +1,29 @@
+package Minesweeper;
+
+/**
+ * Runs every check of an engine against brute force on small random positions, and exits with 1 if any failed.
+ * Each check can also be run on its own.
+ * Usage: CheckMain [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class CheckMain {
+    static final int DEFAULT_POSITIONS = 500;
+    static final long DEFAULT_SEED = 42;
+    static final int MAX_FRONTIER = 16;     // Most frontier cells a position may have to be enumerated.
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+
+        boolean passed = true;
+        passed &= ExactSolverCheck.run(positions, seed);
+        passed &= MineCountWeightingCheck.run(positions, seed);
+        passed &= MonteCarloEstimatorCheck.run(positions, seed);
+        passed &= ComponentCacheCheck.run(positions, seed);
+        passed &= SatDeducerCheck.run(positions, seed);
+        passed &= EliminationDeducerCheck.run(positions, seed);
+        passed &= BeliefPropagationCheck.run(positions, seed);
+        passed &= ComponentSchedulerCheck.run(positions, seed);
+        System.exit(passed ? 0 : 1);
+    }
+}
@@ -0,0 +1,140 @@
+package Minesweeper;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * [user-019] Checks ComponentCache against brute force. Every component of a small random position is solved
+ * through one cache shared by all the positions, then so is each of its 8 rotations and reflections: every one
+ * of those must be a hit, and every answer must give each cell its share of the assignments that fit the clues.
+ * Sampled estimates go through the same cache, and an image's estimate must be the original's, cell for cell,
+ * up to the component's own symmetries: a cell may get the estimate of one it is interchangeable with.
+ * Usage: ComponentCacheCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ComponentCacheCheck {
+    private static final int SYMMETRIES = 8;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-019] ComponentCache");
+        ComponentCache cache = new ComponentCache();
+        ExactSolver solver = new ExactSolver(null, cache);
+        // No time budget, so every estimate is stored.
+        MonteCarloEstimator estimator = new MonteCarloEstimator(null, MonteCarloEstimator.DEFAULT_CHAINS,
+                                                                MonteCarloEstimator.DEFAULT_TOLERANCE,
+                                                                MonteCarloEstimator.DEFAULT_MAX_SWEEPS, 0, cache);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            List<Component> components = position.getComponents();
+            for(int k = 0; k < components.size(); k++) {
+                Component component = components.get(k);
+                String where = "position " + p + ", component " + k;
+                ComponentEstimate estimate = estimator.estimate(component, rand.split());
+                for(int t = 0; t < SYMMETRIES; t++) {
+                    Component image = transform(component, t);
+                    long hits = cache.getHits();
+                    long estimateHits = cache.getEstimateHits();
+                    ComponentSolution solution = solver.solve(image);
+                    ComponentEstimate imageEstimate = estimator.estimate(image, rand.split());
+                    tally.check(t == 0 || cache.getHits() == hits + 1, where + ", image " + t + " missed");
+                    tally.check(cache.getEstimateHits() == estimateHits + 1, where + ", image " + t + " estimate missed");
+                    tally.check(solution != null, where + ", image " + t + " unsolved");
+                    if(solution == null) {
+                        continue;
+                    }
+                    for(int i = 0; i < component.size(); i++) {
+                        int cell = component.getCell(i);
+                        tally.checkClose(solution.getProbability(i), position.getPlain(cell), Tally.EPSILON,
+                                         where + ", image " + t + ", cell " + cell);
+                        if(estimate != null && imageEstimate != null) {
+                            tally.check(hasEstimate(position, component, estimate, imageEstimate.getProbability(i), cell),
+                                        where + ", image " + t + ", estimate of cell " + cell);
+                        }
+                    }
+                }
+            }
+        }
+        tally.check(cache.getHits() > 0, "no hits at all");
+        return tally.report();
+    }
+
+    /**
+     * Helper method to check that an estimate the cache gave back is the original's estimate of the cell,
+     * or of a cell with the same probability that the component's symmetries could swap it with.
+     * @param position  : The position.
+     * @param component : The original component.
+     * @param estimate  : The original estimate.
+     * @param value : The estimate given back for the cell.
+     * @param cell  : The cell, as row * dim + col.
+     * @return true if some such cell has exactly that estimate.
+     */
+    private static boolean hasEstimate(Position position, Component component, ComponentEstimate estimate,
+                                       double value, int cell) {
+        for(int j = 0; j < component.size(); j++) {
+            if(position.getPlain(component.getCell(j)) == position.getPlain(cell) && estimate.getProbability(j) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to rotate or reflect a component on its board, keeping its cell and clue numbering.
+     * @param component : The component.
+     * @param t : The symmetry: bit 0 flips columns, bit 1 flips rows, bit 2 swaps rows and columns (0 = as is).
+     * @return The moved component; cell i of it is where cell i of the original went.
+     */
+    private static Component transform(Component component, int t) {
+        int dim = component.getDim();
+        int[] cells = new int[component.size()];
+        for(int i = 0; i < cells.length; i++) {
+            cells[i] = move(component.getCell(i), dim, t);
+        }
+        int numConstraints = component.getNumConstraints();
+        int[] clues = new int[numConstraints];
+        int[] targets = new int[numConstraints];
+        int[] constraintStart = new int[numConstraints + 1];
+        for(int c = 0; c < numConstraints; c++) {
+            clues[c] = move(component.getClue(c), dim, t);
+            targets[c] = component.getTarget(c);
+            constraintStart[c + 1] = component.getConstraintStart(c + 1);
+        }
+        return new Component(dim, cells, clues, targets, constraintStart, component.getConstraintCells().clone());
+    }
+
+    /**
+     * Helper method to move one board position by a symmetry.
+     * @param position  : The position, as row * dim + col.
+     * @param dim   : The board dimension.
+     * @param t : The symmetry (see transform()).
+     * @return The moved position, as row * dim + col.
+     */
+    private static int move(int position, int dim, int t) {
+        int row = position / dim;
+        int col = position % dim;
+        if((t & 1) != 0) {
+            col = dim - 1 - col;
+        }
+        if((t & 2) != 0) {
+            row = dim - 1 - row;
+        }
+        return (t & 4) != 0 ? col * dim + row : row * dim + col;
+    }
+}
@@ -0,0 +1,83 @@
+package Minesweeper;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * [user-025] Checks ComponentScheduler against brute force. Every component of a small random position is
+ * expected to fit the time budget for exact enumeration, so every one must come back with exact solution
+ * counts (and no approximate probabilities), each cell at its share of the assignments that fit the clues.
+ * One scheduler prices components one after another and one on a pool, which also checks that each answer
+ * lands in its own component's slot. Both get a generous time budget, so a slow machine doesn't change routing.
+ * Usage: ComponentSchedulerCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ComponentSchedulerCheck {
+    private static final long COMPONENT_NANOS = 100000000L;     // 100 ms.
+    private static final int POOL_THREADS = 2;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-025] ComponentScheduler");
+        ForkJoinPool pool = new ForkJoinPool(POOL_THREADS);
+        ComponentScheduler[] schedulers = {newScheduler(null), newScheduler(pool)};
+        SplittableRandom rand = new SplittableRandom(seed);
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            List<Component> components = position.getComponents();
+            for(int s = 0; s < schedulers.length; s++) {
+                ComponentSolution[] solutions = new ComponentSolution[components.size()];
+                double[][] probabilities = new double[components.size()][];
+                schedulers[s].run(components, 0.5, rand.split(), solutions, probabilities);
+                for(int k = 0; k < components.size(); k++) {
+                    Component component = components.get(k);
+                    String where = "scheduler " + s + ", position " + p + ", component " + k;
+                    tally.check(solutions[k] != null && probabilities[k] == null, where + " not solved exactly");
+                    if(solutions[k] == null) {
+                        continue;
+                    }
+                    tally.check(solutions[k].size() == component.size(), where + " has another component's solution");
+                    if(solutions[k].size() != component.size()) {
+                        continue;
+                    }
+                    for(int i = 0; i < component.size(); i++) {
+                        int cell = component.getCell(i);
+                        tally.checkClose(solutions[k].getProbability(i), position.getPlain(cell), Tally.EPSILON,
+                                         where + ", cell " + cell);
+                    }
+                }
+            }
+        }
+        pool.shutdown();
+        for(ComponentScheduler scheduler : schedulers) {
+            tally.check(scheduler.getRouted(ComponentScheduler.EXACT) > 0, "nothing routed to exact: " + scheduler);
+        }
+        return tally.report();
+    }
+
+    /**
+     * Helper method to build a scheduler over all three engines with the check's time budget.
+     * @param pool  : The pool to price components on, or null.
+     * @return The scheduler.
+     */
+    private static ComponentScheduler newScheduler(ForkJoinPool pool) {
+        return new ComponentScheduler(pool, new ExactSolver(null), new MonteCarloEstimator(null), new BeliefPropagation(null),
+                                      ComponentScheduler.DEFAULT_TARGET_ERROR, COMPONENT_NANOS);
+    }
+}
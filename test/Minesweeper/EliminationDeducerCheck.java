@@ -0,0 +1,55 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * [user-022] Checks EliminationDeducer against brute force. Told every revealed cell of a small random position
+ * and asked about every hidden one, it must be sound: every cell it proves must be forced by the clues that way.
+ * Skipped eliminations cost it completeness, so it may miss forced cells; the check prints how many it found,
+ * and fails if it found none at all.
+ * Usage: EliminationDeducerCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class EliminationDeducerCheck {
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-022] EliminationDeducer");
+        SplittableRandom rand = new SplittableRandom(seed);
+        int forced = 0;
+        int found = 0;
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            EliminationDeducer deducer = new EliminationDeducer(position.getDim());
+            position.replay(deducer);
+            int[] cells = new int[position.getDim() * position.getDim()];
+            int[] expected = new int[cells.length];
+            int count = position.getHidden(cells, expected);
+            int[] verdicts = new int[count];
+            deducer.deduce(cells, count, verdicts);
+            for(int i = 0; i < count; i++) {
+                tally.check(verdicts[i] == 0 || verdicts[i] == expected[i], "position " + p + ", cell " + cells[i]
+                            + ": " + verdicts[i] + ", expected " + expected[i]);
+                forced += expected[i] != 0 ? 1 : 0;
+                found += verdicts[i] != 0 ? 1 : 0;
+            }
+        }
+        tally.check(found > 0, "proved nothing");
+        System.out.println("[user-022] EliminationDeducer: proved " + found + " of " + forced + " forced cells");
+        return tally.report();
+    }
+}
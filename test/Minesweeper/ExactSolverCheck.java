@@ -0,0 +1,53 @@
+package Minesweeper;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * [user-016] Checks ExactSolver against brute force: every component of a small random position must come out
+ * solved, with each cell's probability equal to its share of the assignments that fit the clues.
+ * Usage: ExactSolverCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class ExactSolverCheck {
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-016] ExactSolver");
+        ExactSolver solver = new ExactSolver(null);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            List<Component> components = position.getComponents();
+            ComponentSolution[] solutions = solver.solveAll(components);
+            for(int k = 0; k < components.size(); k++) {
+                Component component = components.get(k);
+                tally.check(solutions[k] != null && solutions[k].getTotalSolutions() > 0,
+                            "position " + p + ", component " + k + " unsolved");
+                if(solutions[k] == null) {
+                    continue;
+                }
+                for(int i = 0; i < component.size(); i++) {
+                    int cell = component.getCell(i);
+                    tally.checkClose(solutions[k].getProbability(i), position.getPlain(cell), Tally.EPSILON,
+                                     "position " + p + ", cell " + cell);
+                }
+            }
+        }
+        return tally.report();
+    }
+}
@@ -0,0 +1,61 @@
+package Minesweeper;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * [user-017] Checks the mine count convolution (MineCountWeighting) against brute force: with every component
+ * solved exactly, each frontier cell's probability, and the interior's, must equal what enumerating the whole
+ * frontier gives once each assignment is weighted by the ways the leftover mines fit in the interior.
+ * Usage: MineCountWeightingCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class MineCountWeightingCheck {
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-017] MineCountWeighting");
+        ExactSolver solver = new ExactSolver(null);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            Frontier frontier = position.getFrontier();
+            List<Component> components = frontier.getComponents();
+            int dim = position.getDim();
+            MineCountWeighting weighting = new MineCountWeighting(solver.solveAll(components), frontier.getInteriorCells(),
+                                                                  position.getNumMines() - frontier.getRevealedMines(),
+                                                                  new LogBinomial(dim * dim));
+            tally.check(weighting.isConsistent(), "position " + p + " inconsistent");
+            if(!weighting.isConsistent()) {
+                continue;
+            }
+            for(int k = 0; k < components.size(); k++) {
+                Component component = components.get(k);
+                for(int i = 0; i < component.size(); i++) {
+                    int cell = component.getCell(i);
+                    tally.checkClose(weighting.getProbability(k, i), position.getWeighted(cell), Tally.EPSILON,
+                                     "position " + p + ", cell " + cell);
+                }
+            }
+            if(frontier.getInteriorCells() > 0) {
+                tally.checkClose(weighting.getFreeProbability(), position.getInteriorProbability(), Tally.EPSILON,
+                                 "position " + p + ", interior");
+            }
+        }
+        return tally.report();
+    }
+}
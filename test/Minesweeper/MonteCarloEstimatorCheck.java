@@ -0,0 +1,77 @@
+package Minesweeper;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * [user-018] Checks MonteCarloEstimator against brute force. Chains only move between solutions, so a cell
+ * the clues force must come out exactly 0 or 1. The estimator only samples until the cells that could be
+ * the safest are settled, so those cells must come out within SAMPLING_ERROR of their share of the fitting
+ * assignments, and the cell the agent would pick must be within SAMPLING_ERROR of the truly safest one.
+ * The estimator gets no time budget, so the check does not depend on timing.
+ * Usage: MonteCarloEstimatorCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class MonteCarloEstimatorCheck {
+    private static final double TOLERANCE = 0.02;
+    private static final int MAX_SWEEPS = 4000;
+    private static final double SAMPLING_ERROR = 0.1;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-018] MonteCarloEstimator");
+        // No time budget, so each estimate depends only on the seed.
+        MonteCarloEstimator estimator = new MonteCarloEstimator(null, MonteCarloEstimator.DEFAULT_CHAINS, TOLERANCE, MAX_SWEEPS, 0, null);
+        SplittableRandom rand = new SplittableRandom(seed);
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            List<Component> components = position.getComponents();
+            for(int k = 0; k < components.size(); k++) {
+                Component component = components.get(k);
+                String where = "position " + p + ", component " + k;
+                ComponentEstimate estimate = estimator.estimate(component, rand.split());
+                tally.check(estimate != null, where + " not sampled");
+                if(estimate == null) {
+                    continue;
+                }
+
+                // Highest the safest cell's probability can be, by the estimate and by brute force.
+                double reach = Double.POSITIVE_INFINITY;
+                double safest = Double.POSITIVE_INFINITY;
+                int picked = 0;
+                for(int i = 0; i < component.size(); i++) {
+                    reach = Math.min(reach, estimate.getProbability(i) + estimate.getBound(i));
+                    safest = Math.min(safest, position.getPlain(component.getCell(i)));
+                    picked = estimate.getProbability(i) < estimate.getProbability(picked) ? i : picked;
+                }
+                for(int i = 0; i < component.size(); i++) {
+                    int cell = component.getCell(i);
+                    if(position.getForced(cell) != 0) {
+                        tally.checkClose(estimate.getProbability(i), position.getPlain(cell), 0, where + ", cell " + cell);
+                    } else if(estimate.getProbability(i) - estimate.getBound(i) <= reach) {
+                        tally.checkClose(estimate.getProbability(i), position.getPlain(cell), SAMPLING_ERROR,
+                                         where + ", cell " + cell);
+                    }
+                }
+                tally.check(position.getPlain(component.getCell(picked)) <= safest + SAMPLING_ERROR,
+                            where + " picked cell " + component.getCell(picked) + " over a safer one");
+            }
+        }
+        return tally.report();
+    }
+}
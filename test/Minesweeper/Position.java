@@ -0,0 +1,268 @@
+package Minesweeper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A small random position, with what its frontier implies worked out by brute force.
+ * Some safe cells of a random board are revealed (and now and then a mine), and every assignment of the
+ * frontier cells is checked against the revealed clues straight from the board, so nothing here goes through
+ * Component or any engine. Each marginal is kept two ways: over every assignment that fits the clues,
+ * and weighted by how many ways the leftover mines fit in the interior.
+ * @author Aditya Dhawan, Annie Thach
+ */
+class Position {
+    private static final int MIN_DIM = 4;
+    private static final int MAX_DIM = 7;
+
+    private int dim;
+    private int numMines;
+    private Environment env;
+    private ModifiedAgent agent;
+    private Frontier frontier;
+    private boolean[] onFrontier;       // By row * dim + col.
+    private double[] plain;             // Each frontier cell's share of the fitting assignments, by row * dim + col.
+    private double[] weighted;          // The same, weighted by the mine count.
+    private double interiorProbability; // Chance of a mine in an interior cell, by the mine count.
+
+    /**
+     * Helper method to build a random position and enumerate its frontier.
+     * @param rand  : The stream for the board and the reveals.
+     * @param maxFrontier   : The most frontier cells to enumerate.
+     * @return The position, or null if its frontier is empty or too big.
+     */
+    static Position random(SplittableRandom rand, int maxFrontier) {
+        Position position = new Position(rand);
+        int cells = position.frontier.getFrontierCells();
+        if(cells == 0 || cells > maxFrontier) {
+            return null;
+        }
+        position.enumerate();
+        return position;
+    }
+
+    /**
+     * Constructor method for a random position, without the brute force.
+     * @param rand  : The stream for the board and the reveals.
+     */
+    private Position(SplittableRandom rand) {
+        dim = MIN_DIM + rand.nextInt(MAX_DIM - MIN_DIM + 1);
+        numMines = 1 + rand.nextInt(dim * dim / 3);
+        env = new Environment(dim, numMines, rand.split());
+        agent = new ModifiedAgent(env.getBoardView());
+
+        double share = 0.2 + 0.5 * rand.nextDouble();
+        for(int cell = 0; cell < dim * dim; cell++) {
+            if(env.getValue(cell / dim, cell % dim) >= 0 && rand.nextDouble() < share) {
+                agent.selectCell(cell / dim, cell % dim);
+            }
+        }
+        if(rand.nextInt(10) == 0) {
+            int cell = rand.nextInt(dim * dim);
+            agent.selectCell(cell / dim, cell % dim);  // Maybe a mine.
+        }
+        frontier = new Frontier(agent.getKnowledgeBase());
+    }
+
+    /**
+     * Helper method to go through every assignment of the frontier cells and add up the marginals.
+     */
+    private void enumerate() {
+        KnowledgeBase knowledgeBase = agent.getKnowledgeBase();
+        int[] cells = new int[frontier.getFrontierCells()];
+        int count = 0;
+        for(Component component : frontier.getComponents()) {
+            for(int i = 0; i < component.size(); i++) {
+                cells[count++] = component.getCell(i);
+            }
+        }
+        int[] slot = new int[dim * dim];
+        Arrays.fill(slot, -1);
+        for(int j = 0; j < count; j++) {
+            slot[cells[j]] = j;
+        }
+
+        int interior = frontier.getInteriorCells();
+        int minesLeft = numMines - frontier.getRevealedMines();
+        double[] plainSum = new double[count];
+        double[] weightedSum = new double[count];
+        double plainTotal = 0;
+        double weightedTotal = 0;
+        double interiorMines = 0;
+        for(long mask = 0; mask < (1L << count); mask++) {
+            if(!fits(knowledgeBase, slot, mask)) {
+                continue;
+            }
+            int mines = Long.bitCount(mask);
+            double weight = minesLeft - mines >= 0 ? choose(interior, minesLeft - mines) : 0;
+            plainTotal++;
+            weightedTotal += weight;
+            interiorMines += weight * (minesLeft - mines);
+            for(int j = 0; j < count; j++) {
+                if((mask >>> j & 1) != 0) {
+                    plainSum[j]++;
+                    weightedSum[j] += weight;
+                }
+            }
+        }
+
+        onFrontier = new boolean[dim * dim];
+        plain = new double[dim * dim];
+        weighted = new double[dim * dim];
+        for(int j = 0; j < count; j++) {
+            onFrontier[cells[j]] = true;
+            plain[cells[j]] = plainSum[j] / plainTotal;
+            weighted[cells[j]] = weightedSum[j] / weightedTotal;
+        }
+        interiorProbability = interior == 0 ? 0 : interiorMines / weightedTotal / interior;
+    }
+
+    /**
+     * Helper method to check an assignment of the frontier cells against every revealed clue.
+     * @param knowledgeBase : What the agent knows.
+     * @param slot  : Each cell's bit in the mask, or -1 if it isn't on the frontier.
+     * @param mask  : The assignment, one bit per frontier cell (1 = mine).
+     * @return true if every revealed clue sees exactly its number of mines.
+     */
+    private boolean fits(KnowledgeBase knowledgeBase, int[] slot, long mask) {
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                if(!knowledgeBase.getRevealed(row, col) || env.getValue(row, col) < 0) {
+                    continue;
+                }
+
+                // Expand from center.
+                int start_row = row - 1 >= 0 ? row - 1 : row;   // If expanding up is possible ...
+                int start_col = col - 1 >= 0 ? col - 1 : col;   // If expanding left is possible ...
+                int end_row = row + 1 < dim ? row + 1 : row;    // If expanding down is possible ...
+                int end_col = col + 1 < dim ? col + 1 : col;    // If expanding right is possible ...
+
+                int mines = 0;
+                for(int current_row = start_row; current_row <= end_row; current_row++) {
+                    for(int current_col = start_col; current_col <= end_col; current_col++) {
+                        int cell = current_row * dim + current_col;
+                        if(knowledgeBase.getRevealed(current_row, current_col)) {
+                            mines += env.getValue(current_row, current_col) < 0 ? 1 : 0;
+                        } else if(slot[cell] >= 0) {
+                            mines += (int)(mask >>> slot[cell] & 1);
+                        }
+                    }
+                }
+                if(mines != env.getValue(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to tell a deduction backend every cell revealed so far.
+     * @param deducer   : The backend.
+     */
+    void replay(Deducer deducer) {
+        KnowledgeBase knowledgeBase = agent.getKnowledgeBase();
+        for(int row = 0; row < dim; row++) {
+            for(int col = 0; col < dim; col++) {
+                if(knowledgeBase.getRevealed(row, col)) {
+                    deducer.reveal(row, col, env.getValue(row, col));
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method for a binomial coefficient.
+     * @param n
+     * @param k
+     * @return n choose k, as a double.
+     */
+    private static double choose(int n, int k) {
+        if(k < 0 || k > n) {
+            return 0;
+        }
+        double result = 1;
+        for(int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+    int getDim() {
+        return dim;
+    }
+
+    int getNumMines() {
+        return numMines;
+    }
+
+    Environment getEnvironment() {
+        return env;
+    }
+
+    KnowledgeBase getKnowledgeBase() {
+        return agent.getKnowledgeBase();
+    }
+
+    Frontier getFrontier() {
+        return frontier;
+    }
+
+    List<Component> getComponents() {
+        return frontier.getComponents();
+    }
+
+    /**
+     * Getter method for a cell's share of the assignments that fit the clues.
+     * @param cell  : The frontier cell, as row * dim + col.
+     * @return The probability without the mine count.
+     */
+    double getPlain(int cell) {
+        return plain[cell];
+    }
+
+    /**
+     * Getter method for a cell's probability once the mine count is taken into account.
+     * @param cell  : The frontier cell, as row * dim + col.
+     * @return The probability with the mine count.
+     */
+    double getWeighted(int cell) {
+        return weighted[cell];
+    }
+
+    /**
+     * Getter method for the chance of a mine in an interior cell, once the mine count is taken into account.
+     * @return The probability, or 0 if there is no interior.
+     */
+    double getInteriorProbability() {
+        return interiorProbability;
+    }
+
+    /**
+     * Getter method for every hidden cell, with what the clues alone force on it.
+     * @param cells : Filled in with the hidden cells, as row * dim + col.
+     * @param forced    : Filled in per cell: 1 if the clues force it safe, -1 if a mine, 0 otherwise
+     *                    (always 0 off the frontier).
+     * @return The number of hidden cells.
+     */
+    int getHidden(int[] cells, int[] forced) {
+        int count = 0;
+        for(int cell = 0; cell < dim * dim; cell++) {
+            if(!agent.getKnowledgeBase().getRevealed(cell / dim, cell % dim)) {
+                cells[count] = cell;
+                forced[count++] = onFrontier[cell] ? getForced(cell) : 0;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Getter method for what the clues alone force on a cell.
+     * @param cell  : The frontier cell, as row * dim + col.
+     * @return 1 if safe in every fitting assignment, -1 if a mine in every one, 0 otherwise.
+     */
+    int getForced(int cell) {
+        return plain[cell] == 0 ? 1 : plain[cell] == 1 ? -1 : 0;
+    }
+}
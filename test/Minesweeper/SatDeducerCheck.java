@@ -0,0 +1,53 @@
+package Minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * [user-021] Checks SatDeducer against brute force. Told every revealed cell of a small random position and asked
+ * about every hidden one, it must prove exactly the frontier cells the clues force, the right way, and no
+ * interior cell, since no clue reaches those. It is asked twice, so the second answer also checks the cells
+ * the first one proved and kept.
+ * Usage: SatDeducerCheck [positions] [seed]
+ * @author Aditya Dhawan, Annie Thach
+ */
+public class SatDeducerCheck {
+    private static final long QUERY_NANOS = 1000000000L;    // 1 s, so only the conflict budget can stop a query.
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : CheckMain.DEFAULT_POSITIONS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : CheckMain.DEFAULT_SEED;
+        System.exit(run(positions, seed) ? 0 : 1);
+    }
+
+    /**
+     * Runs the check.
+     * @param positions : Number of random positions.
+     * @param seed  : The seed for the positions.
+     * @return true if every check passed.
+     */
+    static boolean run(int positions, long seed) {
+        Tally tally = new Tally("[user-021] SatDeducer");
+        SplittableRandom rand = new SplittableRandom(seed);
+        for(int p = 0; p < positions; p++) {
+            Position position = Position.random(rand, CheckMain.MAX_FRONTIER);
+            if(position == null) {
+                continue;
+            }
+
+            SatDeducer deducer = new SatDeducer(position.getDim(), SatDeducer.DEFAULT_CONFLICT_BUDGET, QUERY_NANOS, QUERY_NANOS);
+            position.replay(deducer);
+            int[] cells = new int[position.getDim() * position.getDim()];
+            int[] expected = new int[cells.length];
+            int count = position.getHidden(cells, expected);
+            int[] verdicts = new int[count];
+            for(int round = 0; round < 2; round++) {
+                deducer.deduce(cells, count, verdicts);
+                for(int i = 0; i < count; i++) {
+                    tally.check(verdicts[i] == expected[i], "position " + p + ", round " + round + ", cell " + cells[i]
+                                + ": " + verdicts[i] + ", expected " + expected[i]);
+                }
+            }
+        }
+        return tally.report();
+    }
+}
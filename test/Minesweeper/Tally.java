@@ -0,0 +1,57 @@
+package Minesweeper;
+
+/**
+ * Counts the checks one engine passed and failed against brute force, and prints the first few failures.
+ * @author Aditya Dhawan, Annie Thach
+ */
+class Tally {
+    private static final int MAX_PRINTED = 10;  // Failures printed in full.
+    static final double EPSILON = 1e-9;         // Rounding allowed on exact marginals.
+
+    private String name;
+    private int checks;
+    private int failures;
+
+    /**
+     * Constructor method for a tally.
+     * @param name  : The request the engine came from and the engine, as printed in the report.
+     */
+    Tally(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one check.
+     * @param ok    : True if the check passed.
+     * @param what  : What was checked, printed if it failed.
+     */
+    void check(boolean ok, String what) {
+        checks++;
+        if(!ok) {
+            if(failures < MAX_PRINTED) {
+                System.out.println(name + " FAILED: " + what);
+            }
+            failures++;
+        }
+    }
+
+    /**
+     * Records one check of a probability against the brute-force value.
+     * @param actual    : The engine's probability.
+     * @param expected  : The brute-force probability.
+     * @param tolerance : The largest difference allowed.
+     * @param where : Which cell, printed if it failed.
+     */
+    void checkClose(double actual, double expected, double tolerance, String where) {
+        check(Math.abs(actual - expected) <= tolerance, where + ": " + actual + ", expected " + expected);
+    }
+
+    /**
+     * Prints the totals.
+     * @return true if every check passed.
+     */
+    boolean report() {
+        System.out.println(name + ": " + checks + " checks, " + failures + " failed");
+        return failures == 0 && checks > 0;
+    }
+}